@@ -24,18 +24,26 @@
 package io.nuls.cache.manager;
 
 import io.nuls.cache.constant.EhCacheConstant;
+import io.nuls.cache.entity.CacheConfig;
 import io.nuls.cache.listener.intf.NulsCacheListener;
 import io.nuls.cache.utils.EhcacheListener;
+import io.nuls.cache.utils.EhcacheSerializer;
 import org.ehcache.Cache;
 import org.ehcache.CacheManager;
 import org.ehcache.config.builders.CacheConfigurationBuilder;
 import org.ehcache.config.builders.CacheEventListenerConfigurationBuilder;
 import org.ehcache.config.builders.CacheManagerBuilder;
 import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
 import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.spi.service.StatisticsService;
+import org.ehcache.core.statistics.TierStatistics;
 import org.ehcache.event.EventType;
 import org.ehcache.expiry.Duration;
 import org.ehcache.expiry.Expirations;
+import org.ehcache.spi.service.Service;
+import org.ehcache.spi.service.ServiceDependencies;
+import org.ehcache.spi.service.ServiceProvider;
 
 import java.io.Serializable;
 import java.util.*;
@@ -50,6 +58,14 @@ public class EhCacheManager {
     private static final EhCacheManager INSTANCE = new EhCacheManager();
     private static final Map<String, Class> KEY_TYPE_MAP = new ConcurrentHashMap<>();
     private static final Map<String, Class> VALUE_TYPE_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * names of the tiers in the statistics, the lowest tier of a cache holds all of its entries
+     */
+    private static final String ON_HEAP_TIER = "OnHeap";
+    private static final String OFF_HEAP_TIER = "OffHeap";
+
+    private final StatisticsLookup statisticsLookup = new StatisticsLookup();
     private CacheManager cacheManager;
 
     private EhCacheManager() {
@@ -61,7 +77,7 @@ public class EhCacheManager {
     }
 
     private void init() {
-        cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build(true);
+        cacheManager = CacheManagerBuilder.newCacheManagerBuilder().using(statisticsLookup).build(true);
     }
 
     public void createCache(String title, Class keyType, Class<? extends Serializable> valueType, int heapMb, int timeToLiveSeconds, int timeToIdleSeconds) {
@@ -69,10 +85,36 @@ public class EhCacheManager {
     }
 
     public void createCache(String title, Class keyType, Class<? extends Serializable> valueType, int heapMb, int timeToLiveSeconds, int timeToIdleSeconds, NulsCacheListener listener) {
-        CacheConfigurationBuilder builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(keyType, valueType,
-                ResourcePoolsBuilder.newResourcePoolsBuilder().heap(heapMb, MemoryUnit.MB)
-        );
-        builder = builder.withSizeOfMaxObjectGraph(EhCacheConstant.MAX_SIZE_OF_CACHE_OBJ_GRAPH);
+        CacheConfig config = new CacheConfig();
+        config.setHeapMb(heapMb);
+        config.setTimeToLiveSeconds(timeToLiveSeconds);
+        config.setTimeToIdleSeconds(timeToIdleSeconds);
+        config.setListener(listener);
+        this.createCache(title, keyType, valueType, config);
+    }
+
+    public void createCache(String title, Class keyType, Class<? extends Serializable> valueType, CacheConfig config) {
+        boolean offHeap = config.getOffHeapMb() > 0 && config.getSerializer() != null;
+        ResourcePoolsBuilder pools = ResourcePoolsBuilder.newResourcePoolsBuilder();
+        if (config.getHeapEntries() > 0) {
+            //a heap bounded by entries never measures the values, the object graph size is not needed
+            pools = pools.heap(config.getHeapEntries(), EntryUnit.ENTRIES);
+        } else {
+            pools = pools.heap(config.getHeapMb() > 0 ? config.getHeapMb() : EhCacheConstant.DEFAULT_MAX_SIZE, MemoryUnit.MB);
+        }
+        if (offHeap) {
+            pools = pools.offheap(config.getOffHeapMb(), MemoryUnit.MB);
+        }
+        CacheConfigurationBuilder builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(keyType, valueType, pools);
+        if (config.getHeapEntries() <= 0) {
+            builder = builder.withSizeOfMaxObjectGraph(EhCacheConstant.MAX_SIZE_OF_CACHE_OBJ_GRAPH);
+        }
+        if (offHeap) {
+            builder = builder.withValueSerializer(new EhcacheSerializer(config.getSerializer()));
+        }
+        int timeToLiveSeconds = config.getTimeToLiveSeconds();
+        int timeToIdleSeconds = config.getTimeToIdleSeconds();
+        NulsCacheListener listener = config.getListener();
         if (timeToLiveSeconds > 0) {
             builder = builder.withExpiry(Expirations.timeToLiveExpiration(Duration.of(timeToLiveSeconds, TimeUnit.SECONDS)));
         }
@@ -105,6 +147,22 @@ public class EhCacheManager {
         return cacheManager.getCache(title, keyType, valueType);
     }
 
+    /**
+     * the count of entries in the cache, kept by the store of its lowest tier, -1 when there is no such cache.
+     * An expired entry is counted until the cache notices it.
+     */
+    public int getSize(String title) {
+        if (null == getCache(title)) {
+            return -1;
+        }
+        Map<String, TierStatistics> tiers = statisticsLookup.statisticsService.getCacheStatistics(title).getTierStatistics();
+        TierStatistics tier = tiers.containsKey(OFF_HEAP_TIER) ? tiers.get(OFF_HEAP_TIER) : tiers.get(ON_HEAP_TIER);
+        if (null == tier) {
+            return -1;
+        }
+        return (int) tier.getMappings();
+    }
+
     public void close() {
         cacheManager.close();
     }
@@ -117,4 +175,23 @@ public class EhCacheManager {
         return new ArrayList<String>(KEY_TYPE_MAP.keySet());
     }
 
+    /**
+     * Hands over the {@link StatisticsService} the cache manager creates for its caches,
+     * the implementation is internal to ehcache and only reachable as a dependency of another service.
+     */
+    @ServiceDependencies(StatisticsService.class)
+    private static class StatisticsLookup implements Service {
+
+        private volatile StatisticsService statisticsService;
+
+        @Override
+        public void start(ServiceProvider<Service> serviceProvider) {
+            statisticsService = serviceProvider.getService(StatisticsService.class);
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+
 }
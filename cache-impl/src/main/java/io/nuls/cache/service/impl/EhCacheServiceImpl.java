@@ -24,6 +24,7 @@
 package io.nuls.cache.service.impl;
 
 import io.nuls.cache.constant.EhCacheConstant;
+import io.nuls.cache.entity.CacheConfig;
 import io.nuls.cache.entity.CacheElement;
 import io.nuls.cache.listener.intf.NulsCacheListener;
 import io.nuls.cache.manager.EhCacheManager;
@@ -48,6 +49,11 @@ public class EhCacheServiceImpl<K, T> implements CacheService<K, T> {
         cacheManager.createCache(cacheName, String.class, Serializable.class, heapMb, timeToLiveSeconds, timeToIdleSeconds, listener);
     }
 
+    @Override
+    public void createCache(String title, CacheConfig config) {
+        cacheManager.createCache(title, String.class, Serializable.class, config);
+    }
+
     @Override
     public void createCache(String title, Map<String, Object> initParams) {
 
@@ -145,6 +151,66 @@ public class EhCacheServiceImpl<K, T> implements CacheService<K, T> {
     }
 
 
+    @Override
+    public Map<K, T> getElements(String cacheTitle, Set<K> keys) {
+        Map<K, T> result = new HashMap<>();
+        Cache cache = cacheManager.getCache(cacheTitle);
+        if (null == cache || null == keys || keys.isEmpty()) {
+            return result;
+        }
+        Map<K, T> values = cache.getAll(keys);
+        for (Map.Entry<K, T> entry : values.entrySet()) {
+            if (null != entry.getValue()) {
+                result.put(entry.getKey(), copy(entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putElements(String cacheTitle, Map<K, ?> elements) {
+        Cache cache = cacheManager.getCache(cacheTitle);
+        if (null == cache) {
+            throw new NulsRuntimeException(ErrorCode.FAILED, "Cache not exist!3");
+        }
+        Map<K, Object> values = new HashMap<>(elements.size() * 4 / 3 + 1);
+        for (Map.Entry<K, ?> entry : elements.entrySet()) {
+            values.put(entry.getKey(), copy(entry.getValue()));
+        }
+        cache.putAll(values);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, T>> iterator(String cacheTitle) {
+        Cache cache = cacheManager.getCache(cacheTitle);
+        if (null == cache) {
+            return Collections.emptyIterator();
+        }
+        final Iterator<Cache.Entry<K, T>> it = cache.iterator();
+        return new Iterator<Map.Entry<K, T>>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Map.Entry<K, T> next() {
+                Cache.Entry<K, T> entry = it.next();
+                return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), copy(entry.getValue()));
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+        };
+    }
+
+    @Override
+    public int getSize(String cacheTitle) {
+        return Math.max(0, cacheManager.getSize(cacheTitle));
+    }
+
     @Override
     public void removeElement(String cacheTitle, K key) {
         if (null == cacheManager.getCache(cacheTitle)) {
@@ -178,6 +244,13 @@ public class EhCacheServiceImpl<K, T> implements CacheService<K, T> {
         return result;
     }
 
+    private <V> V copy(V value) {
+        if (value instanceof NulsCloneable) {
+            return (V) ((NulsCloneable) value).copy();
+        }
+        return value;
+    }
+
     @Override
     public Set<K> keySet(String cacheTitle) {
         Cache cache = this.cacheManager.getCache(cacheTitle);
@@ -0,0 +1,69 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.cache.utils;
+
+import io.nuls.cache.serializer.intf.NulsCacheSerializer;
+import org.ehcache.spi.serialization.Serializer;
+import org.ehcache.spi.serialization.SerializerException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class EhcacheSerializer implements Serializer {
+
+    private final NulsCacheSerializer serializer;
+
+    public EhcacheSerializer(NulsCacheSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    @Override
+    public ByteBuffer serialize(Object object) throws SerializerException {
+        return ByteBuffer.wrap(toBytes(object));
+    }
+
+    @Override
+    public Object read(ByteBuffer binary) throws SerializerException {
+        byte[] bytes = new byte[binary.remaining()];
+        binary.get(bytes);
+        try {
+            return serializer.deserialize(bytes);
+        } catch (RuntimeException e) {
+            throw new SerializerException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object object, ByteBuffer binary) throws SerializerException {
+        return ByteBuffer.wrap(toBytes(object)).equals(binary);
+    }
+
+    private byte[] toBytes(Object object) {
+        try {
+            return serializer.serialize(object);
+        } catch (RuntimeException e) {
+            throw new SerializerException(e);
+        }
+    }
+}
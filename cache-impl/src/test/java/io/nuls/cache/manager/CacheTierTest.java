@@ -0,0 +1,103 @@
+package io.nuls.cache.manager;
+
+import io.nuls.cache.entity.CacheConfig;
+import io.nuls.cache.serializer.intf.NulsCacheSerializer;
+import io.nuls.cache.service.impl.EhCacheServiceImpl;
+import io.nuls.cache.service.intf.CacheService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Heaps bounded by entries and the off heap tier behind a small heap.
+ */
+public class CacheTierTest {
+
+    private static final String TITLE = "tier";
+
+    private static final int ENTRIES = 1000;
+
+    private final CacheService<String, Value> cacheService = new EhCacheServiceImpl<>();
+
+    @After
+    public void removeCache() {
+        cacheService.removeCache(TITLE);
+    }
+
+    @Test
+    public void testHeapEntriesBound() {
+        cacheService.createCache(TITLE, new CacheConfig(10));
+        putAll();
+        int size = EhCacheManager.getInstance().getSize(TITLE);
+        Assert.assertTrue(size > 0 && size <= 10);
+    }
+
+    @Test
+    public void testOffHeapKeepsEvictedEntries() {
+        CacheConfig config = new CacheConfig(10);
+        config.setOffHeapMb(4);
+        ValueSerializer serializer = new ValueSerializer();
+        config.setSerializer(serializer);
+        cacheService.createCache(TITLE, config);
+        putAll();
+
+        Assert.assertEquals(ENTRIES, EhCacheManager.getInstance().getSize(TITLE));
+        Assert.assertTrue(serializer.serialized > 0);
+        for (int i = 0; i < ENTRIES; i++) {
+            Value value = cacheService.getElement(TITLE, key(i));
+            Assert.assertNotNull(value);
+            Assert.assertEquals(key(i) + "-value", value.text);
+        }
+        Assert.assertTrue(serializer.deserialized > 0);
+    }
+
+    @Test
+    public void testOffHeapNeedsSerializer() {
+        CacheConfig config = new CacheConfig(10);
+        config.setOffHeapMb(4);
+        cacheService.createCache(TITLE, config);
+        putAll();
+        Assert.assertTrue(EhCacheManager.getInstance().getSize(TITLE) <= 10);
+    }
+
+    private void putAll() {
+        for (int i = 0; i < ENTRIES; i++) {
+            cacheService.putElement(TITLE, key(i), new Value(key(i) + "-value"));
+        }
+    }
+
+    private static String key(int i) {
+        return String.format("%064x", i);
+    }
+
+    public static class Value implements Serializable {
+
+        private final String text;
+
+        Value(String text) {
+            this.text = text;
+        }
+    }
+
+    private static class ValueSerializer implements NulsCacheSerializer<Value> {
+
+        private int serialized;
+
+        private int deserialized;
+
+        @Override
+        public byte[] serialize(Value value) {
+            serialized++;
+            return value.text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Value deserialize(byte[] bytes) {
+            deserialized++;
+            return new Value(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.nuls.cache.manager;
 
 import io.nuls.cache.service.impl.EhCacheServiceImpl;
 import io.nuls.cache.service.intf.CacheService;
+import org.junit.Assert;
 import org.junit.Test;
 
 /**
@@ -17,4 +18,17 @@ public class EhCacheManagerTest {
         cache.createCache(cacheName,100,0,0);
         cache.putElement(cacheName,"x","12345678901234561234567890123456123456789012345612345678901234561234567890123456123456789012345612345678901234561234567890123456123456789012345612345678901234561234567890123456123456789012345612345678901234561234567890123456123456789012345612345678901234561234567890123456123456789012345612345678901234561234567890123456123456789012345612345678901234561234567890123456123456789012345612345678901234561234567890123456123456789012345612345678901234561234567890123456123456789012345612345678901234561234567890123456");
     }
+
+    @Test
+    public void testGetSize() {
+        String cacheName = "size";
+        manager.createCache(cacheName, String.class, String.class, 1, 0, 0);
+        for (int i = 0; i < 3; i++) {
+            manager.getCache(cacheName).put("key" + i, "value" + i);
+        }
+        Assert.assertEquals(3, manager.getSize(cacheName));
+        manager.getCache(cacheName).remove("key0");
+        Assert.assertEquals(2, manager.getSize(cacheName));
+        Assert.assertEquals(-1, manager.getSize("missing"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.cache.entity;
+
+import io.nuls.cache.listener.intf.NulsCacheListener;
+import io.nuls.cache.serializer.intf.NulsCacheSerializer;
+
+/**
+ * The pools and expiry of a cache.
+ * A heap bounded by entries is cheaper than one bounded by MB, the size of a value is not measured on each put.
+ * The off heap tier is only used with a serializer for the values.
+ */
+public class CacheConfig {
+
+    private int heapMb;
+
+    private int heapEntries;
+
+    private int offHeapMb;
+
+    private NulsCacheSerializer serializer;
+
+    private int timeToLiveSeconds;
+
+    private int timeToIdleSeconds;
+
+    private NulsCacheListener listener;
+
+    public CacheConfig() {
+    }
+
+    public CacheConfig(int heapEntries) {
+        this.heapEntries = heapEntries;
+    }
+
+    public int getHeapMb() {
+        return heapMb;
+    }
+
+    public void setHeapMb(int heapMb) {
+        this.heapMb = heapMb;
+    }
+
+    public int getHeapEntries() {
+        return heapEntries;
+    }
+
+    public void setHeapEntries(int heapEntries) {
+        this.heapEntries = heapEntries;
+    }
+
+    public int getOffHeapMb() {
+        return offHeapMb;
+    }
+
+    public void setOffHeapMb(int offHeapMb) {
+        this.offHeapMb = offHeapMb;
+    }
+
+    public NulsCacheSerializer getSerializer() {
+        return serializer;
+    }
+
+    public void setSerializer(NulsCacheSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    public int getTimeToLiveSeconds() {
+        return timeToLiveSeconds;
+    }
+
+    public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+        this.timeToLiveSeconds = timeToLiveSeconds;
+    }
+
+    public int getTimeToIdleSeconds() {
+        return timeToIdleSeconds;
+    }
+
+    public void setTimeToIdleSeconds(int timeToIdleSeconds) {
+        this.timeToIdleSeconds = timeToIdleSeconds;
+    }
+
+    public NulsCacheListener getListener() {
+        return listener;
+    }
+
+    public void setListener(NulsCacheListener listener) {
+        this.listener = listener;
+    }
+}
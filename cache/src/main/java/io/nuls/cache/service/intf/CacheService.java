@@ -23,9 +23,11 @@
  */
 package io.nuls.cache.service.intf;
 
+import io.nuls.cache.entity.CacheConfig;
 import io.nuls.cache.entity.CacheElement;
 import io.nuls.cache.listener.intf.NulsCacheListener;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -53,6 +55,14 @@ public interface CacheService<K, V> {
 
     void createCache(String title, int heapMb, int timeToLiveSeconds, int timeToIdleSeconds);
 
+    /**
+     * create a cache named title with the pools of the config
+     *
+     * @param title
+     * @param config
+     */
+    void createCache(String title, CacheConfig config);
+
 
     /**
      * remove a cache by title
@@ -88,6 +98,39 @@ public interface CacheService<K, V> {
 
     List<V> getElementList(String cacheTitle);
 
+    /**
+     * get the values of the keys found in the cache named cacheTitle with one call
+     *
+     * @param cacheTitle
+     * @param keys
+     * @return
+     */
+    Map<K, V> getElements(String cacheTitle, Set<K> keys);
+
+    /**
+     * put all the data to the cache named cacheTitle with one call
+     *
+     * @param cacheTitle
+     * @param elements
+     */
+    void putElements(String cacheTitle, Map<K, ?> elements);
+
+    /**
+     * walk through the entries of the cache named cacheTitle without copying them to a collection first
+     *
+     * @param cacheTitle
+     * @return
+     */
+    Iterator<Map.Entry<K, V>> iterator(String cacheTitle);
+
+    /**
+     * the count of entries in the cache named cacheTitle, kept up to date by the cache instead of counted on each call
+     *
+     * @param cacheTitle
+     * @return
+     */
+    int getSize(String cacheTitle);
+
     /**
      * remove an element from the cache named cacheTitle
      *
@@ -23,12 +23,15 @@
  */
 package io.nuls.cache.util;
 
+import io.nuls.cache.entity.CacheConfig;
 import io.nuls.cache.listener.intf.NulsCacheListener;
 import io.nuls.cache.service.intf.CacheService;
 import io.nuls.core.utils.log.Log;
 import io.nuls.core.utils.spring.lite.core.SpringLiteContext;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -54,12 +57,17 @@ public class CacheMap<K, V> {
         this.cacheName = cacheName;
     }
 
+    public CacheMap(String cacheName, CacheConfig config) {
+        this.cacheService.createCache(cacheName, config);
+        this.cacheName = cacheName;
+    }
+
     public int size() {
-        return this.keySet().size();
+        return this.cacheService.getSize(cacheName);
     }
 
     public boolean isEmpty() {
-        return this.keySet().isEmpty();
+        return this.size() == 0;
     }
 
     public boolean containsKey(K key) {
@@ -67,8 +75,14 @@ public class CacheMap<K, V> {
     }
 
     public boolean containsValue(V value) {
-        List<V> vlist = this.cacheService.getElementList(cacheName);
-        return vlist.contains(value);
+        Iterator<Map.Entry<K, V>> it = this.iterator();
+        while (it.hasNext()) {
+            V v = it.next().getValue();
+            if (value == null ? v == null : value.equals(v)) {
+                return true;
+            }
+        }
+        return false;
     }
 
 
@@ -81,6 +95,14 @@ public class CacheMap<K, V> {
         this.cacheService.putElement(cacheName, key, value);
     }
 
+    public Map<K, V> getAll(Set<K> keys) {
+        return this.cacheService.getElements(cacheName, keys);
+    }
+
+    public void putAll(Map<K, ? extends V> map) {
+        this.cacheService.putElements(cacheName, map);
+    }
+
     public void remove(K key) {
         this.cacheService.removeElement(cacheName, key);
     }
@@ -97,6 +119,13 @@ public class CacheMap<K, V> {
         return this.cacheService.getElementList(cacheName);
     }
 
+    /**
+     * the entries read from the cache one by one, nothing is copied to a collection
+     */
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return this.cacheService.iterator(cacheName);
+    }
+
     public void destroy() {
         this.cacheService.removeCache(cacheName);
     }
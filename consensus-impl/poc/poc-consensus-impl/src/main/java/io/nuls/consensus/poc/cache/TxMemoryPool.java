@@ -24,35 +24,71 @@
 
 package io.nuls.consensus.poc.cache;
 
-import io.nuls.cache.util.CacheMap;
 import io.nuls.consensus.poc.locker.Lockers;
-import io.nuls.core.utils.queue.service.impl.QueueService;
+import io.nuls.consensus.poc.protocol.constant.PocConsensusConstant;
+import io.nuls.ledger.entity.CoinData;
+import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
 import io.nuls.protocol.model.Transaction;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by ln on 2018/4/13.
+ *
+ * The txs waiting to be packed. Packable txs are taken by fee per byte, the best first,
+ * and a tx spending an output of another tx in the pool is only taken after it.
+ * Isolated txs (spending outputs not found yet) are kept in the order received,
+ * and become packable as soon as a tx they spend from enters the pool.
+ * Picked txs are held by the block template, they stay visible until confirmed or released.
  */
 public final class TxMemoryPool {
 
-    private final static String CACHE_NAME = "tx-memory-pool";
+    private static final Comparator<TxEntry> FEE_RATE_COMPARATOR = new Comparator<TxEntry>() {
+        @Override
+        public int compare(TxEntry o1, TxEntry o2) {
+            if (o1.feePerKb != o2.feePerKb) {
+                return o1.feePerKb > o2.feePerKb ? -1 : 1;
+            }
+            return Long.compare(o1.sequence, o2.sequence);
+        }
+    };
+
+    private final Map<String, TxEntry> container = new ConcurrentHashMap<>();
+
+    /**
+     * the txs of the container whose parents in the pool are all taken, best fee rate first
+     */
+    private final TreeSet<TxEntry> readySet = new TreeSet<>(FEE_RATE_COMPARATOR);
+
+    private final Map<String, TxEntry> pickedContainer = new ConcurrentHashMap<>();
+
+    private final LinkedHashMap<String, TxEntry> isolatedContainer = new LinkedHashMap<>();
+
+    /**
+     * hash of a tx not in the pool -> the isolated txs spending from it
+     */
+    private final Map<String, Set<String>> isolatedChildren = new HashMap<>();
+
+    private final int maxCount;
+
+    private final long maxSize;
 
-    private CacheMap<String, Transaction> container;
-    private QueueService<String> txHashQueue;
+    private final int maxIsolatedCount;
 
-    private final static String CACHE_NAME_ISOLATED = "isolated-tx-memory-pool";
-    private CacheMap<String, Transaction> isolatedContainer;
-    private QueueService<String> isolatedTxHashQueue;
+    private long totalSize;
+
+    private long sequence;
 
     public TxMemoryPool() {
-        txHashQueue = new QueueService<>();
-        txHashQueue.createQueue(CACHE_NAME, (long) Integer.MAX_VALUE, false);
-        container = new CacheMap<>(CACHE_NAME, 64);
+        this(PocConsensusConstant.MAX_MEMORY_POOL_TX_COUNT, PocConsensusConstant.MAX_MEMORY_POOL_SIZE,
+                PocConsensusConstant.MAX_ISOLATED_TX_COUNT);
+    }
 
-        isolatedTxHashQueue = new QueueService<>();
-        isolatedTxHashQueue.createQueue(CACHE_NAME_ISOLATED, (long) Integer.MAX_VALUE, false);
-        isolatedContainer = new CacheMap< >(CACHE_NAME_ISOLATED, 16);
+    TxMemoryPool(int maxCount, long maxSize, int maxIsolatedCount) {
+        this.maxCount = maxCount;
+        this.maxSize = maxSize;
+        this.maxIsolatedCount = maxIsolatedCount;
     }
 
     public boolean add(Transaction tx, boolean isIsolated) {
@@ -61,16 +97,19 @@ public final class TxMemoryPool {
         try {
             //check Repeatability
             String hash = tx.getHash().getDigestHex();
-            if (isolatedContainer.containsKey(hash) || container.containsKey(hash)) {
+            if (isolatedContainer.containsKey(hash) || container.containsKey(hash) || pickedContainer.containsKey(hash)) {
                 return false;
             }
-            if (isIsolated) {
-                isolatedContainer.put(hash, tx);
-                isolatedTxHashQueue.offer(CACHE_NAME_ISOLATED, hash);
-            } else {
-                container.put(hash, tx);
-                txHashQueue.offer(CACHE_NAME, hash);
+            TxEntry entry = new TxEntry(tx, hash, sequence++);
+            if (isIsolated && !hasParentInPool(entry)) {
+                addIsolated(entry);
+                return true;
+            }
+            if (!makeRoom(entry)) {
+                return false;
             }
+            addPackable(entry);
+            promoteIsolatedChildren(entry);
             return true;
         } finally {
             Lockers.TX_MEMORY_LOCK.unlock();
@@ -85,48 +124,112 @@ public final class TxMemoryPool {
      * @return Transaction
      */
     public Transaction get(String hash) {
+        TxEntry entry = container.get(hash);
+        if (entry == null) {
+            entry = pickedContainer.get(hash);
+        }
+        if (entry != null) {
+            return entry.tx;
+        }
+        Lockers.TX_MEMORY_LOCK.lock();
+        try {
+            entry = isolatedContainer.get(hash);
+            return entry == null ? null : entry.tx;
+        } finally {
+            Lockers.TX_MEMORY_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Get a transaction, the one paying the most fee per byte, removed from the memory pool after acquisition
+     *
+     * 获取一笔交易，单位字节手续费最高的交易，获取之后从内存池中移除
+     * @return Transaction
+     */
+    public Transaction get() {
         Lockers.TX_MEMORY_LOCK.lock();
 
         try {
-            Transaction tx = container.get(hash);
-            if (tx == null) {
-                tx = isolatedContainer.get(hash);
+            TxEntry entry = readySet.pollFirst();
+            if (entry != null) {
+                removeEntry(entry);
+                return entry.tx;
+            }
+            if (isolatedContainer.isEmpty()) {
+                return null;
             }
-            return tx;
+            entry = removeIsolated(isolatedContainer.keySet().iterator().next());
+            return entry.tx;
         } finally {
             Lockers.TX_MEMORY_LOCK.unlock();
         }
     }
 
     /**
-     * Get a transaction, the first transaction received, removed from the memory pool after acquisition
+     * Pick the packable transaction paying the most fee per byte for the block template,
+     * it stays in the memory pool until removed or released
      *
-     * 获取一笔交易，最先收到的交易，获取之后从内存池中移除
+     * 为区块模板选取单位字节手续费最高的可打包交易，交易保留在内存池中，直到被移除或释放
      * @return Transaction
      */
-    public Transaction get() {
+    public Transaction pick() {
         Lockers.TX_MEMORY_LOCK.lock();
 
-        Transaction tx = null;
         try {
-            String hash = txHashQueue.poll(CACHE_NAME);
-            if(hash != null) {
-                tx = container.get(hash);
-            } else {
-                hash = isolatedTxHashQueue.poll(CACHE_NAME_ISOLATED);
-                if (hash != null) {
-                    tx = isolatedContainer.get(hash);
+            TxEntry entry = readySet.pollFirst();
+            if (entry == null) {
+                return null;
+            }
+            container.remove(entry.hash);
+            totalSize -= entry.size;
+            pickedContainer.put(entry.hash, entry);
+            for (String childHash : entry.children) {
+                TxEntry child = container.get(childHash);
+                if (child != null && isReady(child)) {
+                    readySet.add(child);
                 }
             }
+            return entry.tx;
         } finally {
             Lockers.TX_MEMORY_LOCK.unlock();
         }
+    }
 
-        if(tx != null) {
-            remove(tx.getHash().getDigestHex());
-        }
+    /**
+     * Put a picked transaction back into the packable ones, nothing is done if it has been removed.
+     * It keeps its place among the txs of the same fee rate, and the txs spending from it wait for it again.
+     *
+     * 将选取的交易放回可打包交易中，已移除的交易不做处理
+     * @param hash
+     */
+    public boolean release(String hash) {
+        Lockers.TX_MEMORY_LOCK.lock();
 
-        return tx;
+        try {
+            TxEntry entry = pickedContainer.get(hash);
+            if (entry == null) {
+                return false;
+            }
+            if (!makeRoom(entry)) {
+                removeWithDescendants(entry);
+                return false;
+            }
+            pickedContainer.remove(hash);
+            container.put(hash, entry);
+            totalSize += entry.size;
+            for (String childHash : entry.children) {
+                TxEntry child = container.get(childHash);
+                if (child != null) {
+                    readySet.remove(child);
+                }
+            }
+            if (isReady(entry)) {
+                readySet.add(entry);
+            }
+            return true;
+        } finally {
+            Lockers.TX_MEMORY_LOCK.unlock();
+        }
     }
 
     /**
@@ -136,55 +239,302 @@ public final class TxMemoryPool {
      * @return Transaction
      */
     public Transaction getAndRemove(String hash) {
-        Transaction tx = get(hash);
-        if(tx != null) {
-            remove(hash);
+        Lockers.TX_MEMORY_LOCK.lock();
+
+        try {
+            TxEntry entry = getEntry(hash);
+            if (entry != null) {
+                removeEntry(entry);
+            } else {
+                entry = removeIsolated(hash);
+            }
+            return entry == null ? null : entry.tx;
+        } finally {
+            Lockers.TX_MEMORY_LOCK.unlock();
         }
-        return tx;
     }
 
     public List<Transaction> getAll() {
-        return container.values();
+        List<Transaction> list = new ArrayList<>(pickedContainer.size() + container.size());
+        for (TxEntry entry : pickedContainer.values()) {
+            list.add(entry.tx);
+        }
+        for (TxEntry entry : container.values()) {
+            list.add(entry.tx);
+        }
+        return list;
     }
 
     public List<Transaction> getAllIsolated() {
-        return isolatedContainer.values();
-    }
-
-    public boolean remove(String hash) {
         Lockers.TX_MEMORY_LOCK.lock();
 
         try {
-            if (container.containsKey(hash)) {
-                container.remove(hash);
-                txHashQueue.remove(CACHE_NAME, hash);
-                return true;
-            } else if (isolatedContainer.containsKey(hash)) {
-                isolatedContainer.remove(hash);
-                isolatedTxHashQueue.remove(CACHE_NAME_ISOLATED, hash);
-                return true;
+            List<Transaction> list = new ArrayList<>(isolatedContainer.size());
+            for (TxEntry entry : isolatedContainer.values()) {
+                list.add(entry.tx);
             }
-            return false;
+            return list;
         } finally {
             Lockers.TX_MEMORY_LOCK.unlock();
         }
     }
 
+    public boolean remove(String hash) {
+        return getAndRemove(hash) != null;
+    }
+
     public boolean exist(String hash) {
-        return container.containsKey(hash) || isolatedContainer.containsKey(hash);
+        if (container.containsKey(hash) || pickedContainer.containsKey(hash)) {
+            return true;
+        }
+        Lockers.TX_MEMORY_LOCK.lock();
+        try {
+            return isolatedContainer.containsKey(hash);
+        } finally {
+            Lockers.TX_MEMORY_LOCK.unlock();
+        }
+    }
+
+    public int size() {
+        return container.size() + pickedContainer.size();
+    }
+
+    public int getIsolatedSize() {
+        Lockers.TX_MEMORY_LOCK.lock();
+        try {
+            return isolatedContainer.size();
+        } finally {
+            Lockers.TX_MEMORY_LOCK.unlock();
+        }
     }
 
     public void clear() {
         Lockers.TX_MEMORY_LOCK.lock();
 
         try {
-            txHashQueue.clear(CACHE_NAME);
             container.clear();
+            readySet.clear();
+            totalSize = 0;
+            pickedContainer.clear();
 
-            isolatedTxHashQueue.clear(CACHE_NAME_ISOLATED);
             isolatedContainer.clear();
+            isolatedChildren.clear();
         } finally {
             Lockers.TX_MEMORY_LOCK.unlock();
         }
     }
+
+    private boolean hasParentInPool(TxEntry entry) {
+        for (String parentHash : entry.fromHashes) {
+            if (container.containsKey(parentHash) || pickedContainer.containsKey(parentHash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * the packable or picked entry of the hash
+     */
+    private TxEntry getEntry(String hash) {
+        TxEntry entry = container.get(hash);
+        if (entry == null) {
+            entry = pickedContainer.get(hash);
+        }
+        return entry;
+    }
+
+    /**
+     * a tx can be packed once every parent it has in the pool is picked
+     */
+    private boolean isReady(TxEntry entry) {
+        for (String parentHash : entry.parents) {
+            if (container.containsKey(parentHash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * drop the txs paying the least until the new one fits, fail if it pays no more than them.
+     * The txs the new one spends from are never dropped for it.
+     */
+    private boolean makeRoom(TxEntry entry) {
+        Set<String> ancestors = null;
+        while (container.size() >= maxCount || totalSize + entry.size > maxSize) {
+            if (ancestors == null) {
+                ancestors = getAncestors(entry);
+            }
+            TxEntry lowest = null;
+            Iterator<TxEntry> iterator = readySet.descendingIterator();
+            while (iterator.hasNext()) {
+                TxEntry ready = iterator.next();
+                if (!ancestors.contains(ready.hash)) {
+                    lowest = ready;
+                    break;
+                }
+            }
+            if (lowest == null || FEE_RATE_COMPARATOR.compare(entry, lowest) >= 0) {
+                return false;
+            }
+            removeWithDescendants(lowest);
+        }
+        return true;
+    }
+
+    private Set<String> getAncestors(TxEntry entry) {
+        Set<String> ancestors = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>(entry.fromHashes);
+        while (!queue.isEmpty()) {
+            String hash = queue.poll();
+            TxEntry parent = getEntry(hash);
+            if (parent != null && ancestors.add(hash)) {
+                queue.addAll(parent.parents);
+            }
+        }
+        return ancestors;
+    }
+
+    private void addPackable(TxEntry entry) {
+        for (String parentHash : entry.fromHashes) {
+            TxEntry parent = getEntry(parentHash);
+            if (parent != null) {
+                entry.parents.add(parentHash);
+                parent.children.add(entry.hash);
+            }
+        }
+        container.put(entry.hash, entry);
+        totalSize += entry.size;
+        if (isReady(entry)) {
+            readySet.add(entry);
+        }
+    }
+
+    /**
+     * remove a packable or picked tx, the txs spending from it no longer wait for it
+     */
+    private void removeEntry(TxEntry entry) {
+        if (container.remove(entry.hash) != null) {
+            readySet.remove(entry);
+            totalSize -= entry.size;
+        } else {
+            pickedContainer.remove(entry.hash);
+        }
+        for (String parentHash : entry.parents) {
+            TxEntry parent = getEntry(parentHash);
+            if (parent != null) {
+                parent.children.remove(entry.hash);
+            }
+        }
+        for (String childHash : entry.children) {
+            TxEntry child = getEntry(childHash);
+            if (child == null) {
+                continue;
+            }
+            child.parents.remove(entry.hash);
+            if (container.containsKey(childHash) && isReady(child)) {
+                readySet.add(child);
+            }
+        }
+    }
+
+    /**
+     * the packable txs spending from it go with it, the picked ones are left to the block template
+     */
+    private void removeWithDescendants(TxEntry entry) {
+        for (String childHash : new ArrayList<>(entry.children)) {
+            TxEntry child = container.get(childHash);
+            if (child != null) {
+                removeWithDescendants(child);
+            }
+        }
+        removeEntry(entry);
+    }
+
+    private void addIsolated(TxEntry entry) {
+        while (isolatedContainer.size() >= maxIsolatedCount) {
+            removeIsolated(isolatedContainer.keySet().iterator().next());
+        }
+        isolatedContainer.put(entry.hash, entry);
+        for (String parentHash : entry.fromHashes) {
+            Set<String> children = isolatedChildren.get(parentHash);
+            if (children == null) {
+                children = new HashSet<>();
+                isolatedChildren.put(parentHash, children);
+            }
+            children.add(entry.hash);
+        }
+    }
+
+    private TxEntry removeIsolated(String hash) {
+        TxEntry entry = isolatedContainer.remove(hash);
+        if (entry == null) {
+            return null;
+        }
+        for (String parentHash : entry.fromHashes) {
+            Set<String> children = isolatedChildren.get(parentHash);
+            if (children != null) {
+                children.remove(hash);
+                if (children.isEmpty()) {
+                    isolatedChildren.remove(parentHash);
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * the isolated txs spending from a tx just added can be packed after it, and so can the ones spending from them
+     */
+    private void promoteIsolatedChildren(TxEntry entry) {
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(entry.hash);
+        while (!queue.isEmpty()) {
+            Set<String> children = isolatedChildren.get(queue.poll());
+            if (children == null) {
+                continue;
+            }
+            for (String childHash : new ArrayList<>(children)) {
+                TxEntry child = removeIsolated(childHash);
+                if (child != null && makeRoom(child)) {
+                    addPackable(child);
+                    queue.add(childHash);
+                }
+            }
+        }
+    }
+
+    private static final class TxEntry {
+
+        private final Transaction tx;
+        private final String hash;
+        private final long sequence;
+        private final int size;
+        private final long feePerKb;
+        private final Set<String> fromHashes;
+
+        /**
+         * the txs in the pool this tx spends from, and the ones spending from it
+         */
+        private final Set<String> parents = new HashSet<>();
+        private final Set<String> children = new HashSet<>();
+
+        private TxEntry(Transaction tx, String hash, long sequence) {
+            this.tx = tx;
+            this.hash = hash;
+            this.sequence = sequence;
+            this.size = Math.max(tx.size(), 1);
+            long fee = tx.getFee() == null ? 0L : tx.getFee().getValue();
+            this.feePerKb = fee * 1024 / size;
+            Set<String> hashes = Collections.emptySet();
+            if (tx instanceof AbstractCoinTransaction) {
+                CoinData coinData = ((AbstractCoinTransaction) tx).getCoinData();
+                if (coinData != null) {
+                    hashes = coinData.getFromTxHashes();
+                }
+            }
+            this.fromHashes = hashes;
+        }
+    }
 }
@@ -41,6 +41,7 @@ import io.nuls.consensus.poc.protocol.utils.ConsensusTool;
 import io.nuls.core.utils.date.TimeService;
 import io.nuls.core.utils.log.BlockLog;
 import io.nuls.core.utils.log.Log;
+import io.nuls.core.validate.ValidateResult;
 import io.nuls.db.entity.PunishLogPo;
 import io.nuls.ledger.entity.tx.CoinBaseTransaction;
 import io.nuls.ledger.service.intf.LedgerService;
@@ -83,12 +84,9 @@ public class ChainContainer implements Cloneable {
         }
 
         List<Block> blockList = chain.getBlockList();
-        List<BlockHeader> blockHeaderList = chain.getBlockHeaderList();
 
         List<Consensus<Agent>> agentList = chain.getAgentList();
         List<Consensus<Deposit>> depositList = chain.getDepositList();
-        List<PunishLogPo> yellowList = chain.getYellowPunishList();
-        List<PunishLogPo> redList = chain.getRedPunishList();
 
         long height = block.getHeader().getHeight();
 
@@ -112,7 +110,7 @@ public class ChainContainer implements Cloneable {
                 Consensus<Deposit> caDeposit = ConsensusTool.copyConsensusDeposit(cDeposit);
                 caDeposit.setDelHeight(0L);
                 caDeposit.getExtend().setBlockHeight(height);
-                depositList.add(caDeposit);
+                chain.addDeposit(caDeposit);
 
             } else if (txType == TransactionConstant.TX_TYPE_CANCEL_DEPOSIT) {
 
@@ -173,7 +171,7 @@ public class ChainContainer implements Cloneable {
                     punishLogPo.setTime(tx.getTime());
                     punishLogPo.setType(PunishType.YELLOW.getCode());
 
-                    yellowList.add(punishLogPo);
+                    chain.addPunishLog(punishLogPo);
                 }
 
             } else if (txType == TransactionConstant.TX_TYPE_RED_PUNISH) {
@@ -191,13 +189,13 @@ public class ChainContainer implements Cloneable {
                 punishLogPo.setTime(tx.getTime());
                 punishLogPo.setType(PunishType.RED.getCode());
 
-                redList.add(punishLogPo);
+                chain.addPunishLog(punishLogPo);
             }
         }
 
         chain.setEndBlockHeader(block.getHeader());
         blockList.add(block);
-        blockHeaderList.add(block.getHeader());
+        chain.addBlockHeader(block.getHeader());
 
         return true;
     }
@@ -219,6 +217,14 @@ public class ChainContainer implements Cloneable {
             return false;
         }
 
+        // Check all signatures on all cores first, the txs are then verified one by one without them
+        // 先并行验证所有交易的签名
+        ValidateResult signResult = ledgerService.verifyTxSigns(block.getTxs(), true);
+        if (signResult.isFailed()) {
+            BlockLog.debug("block height " + blockHeader.getHeight() + " has wrong signature! hash :" + blockHeader.getHash().getDigestHex() + ", msg:" + signResult.getMessage());
+            return false;
+        }
+
         block.verifyWithException();
 
         // Verify that the block is properly connected
@@ -418,7 +424,7 @@ public class ChainContainer implements Cloneable {
         List<BlockHeader> blockHeaderList = chain.getBlockHeaderList();
 
         chain.setEndBlockHeader(blockHeaderList.get(blockHeaderList.size() - 2));
-        BlockHeader rollbackBlockHeader = blockHeaderList.remove(blockHeaderList.size() - 1);
+        BlockHeader rollbackBlockHeader = chain.removeLastBlockHeader();
 
         // update txs
         List<Consensus<Agent>> agentList = chain.getAgentList();
@@ -450,7 +456,7 @@ public class ChainContainer implements Cloneable {
             }
 
             if (deposit.getBlockHeight() == height) {
-                depositList.remove(i);
+                chain.removeDeposit(i);
             }
         }
 
@@ -460,7 +466,7 @@ public class ChainContainer implements Cloneable {
                 break;
             }
             if (tempYellow.getHeight() == height) {
-                yellowList.remove(i);
+                chain.removePunishLog(i, PunishType.YELLOW.getCode());
             }
         }
 
@@ -470,7 +476,7 @@ public class ChainContainer implements Cloneable {
                 break;
             }
             if (redPunish.getHeight() == height) {
-                redPunishList.remove(i);
+                chain.removePunishLog(i, PunishType.RED.getCode());
             }
         }
 
@@ -39,4 +39,6 @@ public final class Lockers {
     public final static Lock ROUND_LOCK = new ReentrantLock();
 
     public final static Lock CHAIN_LOCK = new ReentrantLock();
+
+    public final static Lock BLOCK_TEMPLATE_LOCK = new ReentrantLock();
 }
@@ -24,7 +24,6 @@
 
 package io.nuls.consensus.poc.manager;
 
-import io.nuls.account.entity.Address;
 import io.nuls.account.service.intf.AccountService;
 import io.nuls.consensus.poc.locker.Lockers;
 import io.nuls.consensus.poc.model.Chain;
@@ -41,7 +40,6 @@ import io.nuls.core.utils.calc.DoubleUtils;
 import io.nuls.core.utils.date.TimeService;
 import io.nuls.core.utils.log.ConsensusLog;
 import io.nuls.core.utils.log.Log;
-import io.nuls.db.entity.PunishLogPo;
 import io.nuls.protocol.constant.ProtocolConstant;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.entity.Consensus;
@@ -342,7 +340,7 @@ public class RoundManager {
 
     private List<Consensus<Deposit>> getDepositListByAgentId(String agentId, long startBlockHeight) {
 
-        List<Consensus<Deposit>> depositList = chain.getDepositList();
+        List<Consensus<Deposit>> depositList = chain.getDepositListByAgentId(agentId);
         List<Consensus<Deposit>> resultList = new ArrayList<>();
 
         for (int i = depositList.size() - 1; i >= 0; i--) {
@@ -354,9 +352,6 @@ public class RoundManager {
             if (deposit.getBlockHeight() >= startBlockHeight || deposit.getBlockHeight() < 0L) {
                 continue;
             }
-            if (!deposit.getAgentHash().equals(agentId)) {
-                continue;
-            }
             resultList.add(cd);
         }
 
@@ -400,48 +395,11 @@ public class RoundManager {
     }
 
     private long getPunishCountByAddress(String address, long roundStart, long roundEnd, int code) {
-        long count = 0;
-        List<PunishLogPo> punishList = chain.getYellowPunishList();
-
-        if (code == PunishType.RED.getCode()) {
-            punishList = chain.getRedPunishList();
-        }
-
-        for (int i = punishList.size() - 1; i >= 0; i--) {
-            PunishLogPo punish = punishList.get(i);
-
-            if (punish.getRoundIndex() > roundEnd) {
-                continue;
-            }
-            if (punish.getRoundIndex() < roundStart) {
-                break;
-            }
-            if (punish.getAddress().equals(address)) {
-                count++;
-            }
-        }
-        return count;
+        return chain.getPunishCount(address, roundStart, roundEnd, code);
     }
 
     private long getBlockCountByAddress(String packingAddress, long roundStart, long roundEnd) {
-        long count = 0;
-        List<BlockHeader> blockHeaderList = chain.getBlockHeaderList();
-
-        for (int i = blockHeaderList.size() - 1; i >= 0; i--) {
-            BlockHeader blockHeader = blockHeaderList.get(i);
-            BlockRoundData roundData = new BlockRoundData(blockHeader.getExtend());
-
-            if (roundData.getRoundIndex() > roundEnd) {
-                continue;
-            }
-            if (roundData.getRoundIndex() < roundStart) {
-                break;
-            }
-            if (Address.fromHashs(blockHeader.getPackingAddress()).getBase58().equals(packingAddress)) {
-                count++;
-            }
-        }
-        return count;
+        return chain.getPackedCount(packingAddress, roundStart, roundEnd);
     }
 
     private BlockHeader getFirstBlockHeightOfPreRoundByRoundIndex(long roundIndex) {
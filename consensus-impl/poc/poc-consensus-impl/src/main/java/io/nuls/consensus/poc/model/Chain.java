@@ -24,8 +24,11 @@
 
 package io.nuls.consensus.poc.model;
 
+import io.nuls.account.entity.Address;
+import io.nuls.consensus.poc.protocol.constant.PunishType;
 import io.nuls.consensus.poc.protocol.model.Agent;
 import io.nuls.consensus.poc.protocol.model.Deposit;
+import io.nuls.consensus.poc.protocol.model.block.BlockRoundData;
 import io.nuls.core.utils.str.StringUtils;
 import io.nuls.db.entity.PunishLogPo;
 import io.nuls.protocol.event.entity.Consensus;
@@ -33,7 +36,9 @@ import io.nuls.protocol.model.Block;
 import io.nuls.protocol.model.BlockHeader;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by ln on 2018/4/13.
@@ -51,6 +56,21 @@ public class Chain implements Cloneable {
     private List<PunishLogPo> yellowPunishList;
     private List<PunishLogPo> redPunishList;
 
+    /**
+     * Indexes of the lists above for the round calculation: blocks packed and punishes per address per round,
+     * deposits per agent. They are updated by the add/remove methods below, and rebuilt on the next query
+     * when a list has been replaced or changed directly.
+     */
+    private Map<Long, Map<String, Integer>> packedCountIndex;
+    private Map<Long, Map<String, Integer>> yellowPunishIndex;
+    private Map<Long, Map<String, Integer>> redPunishIndex;
+    private Map<String, List<Consensus<Deposit>>> agentDepositIndex;
+
+    private IndexMark headerMark = new IndexMark();
+    private IndexMark yellowMark = new IndexMark();
+    private IndexMark redMark = new IndexMark();
+    private IndexMark depositMark = new IndexMark();
+
     public Chain() {
         blockHeaderList = new ArrayList<>();
         blockList = new ArrayList<>();
@@ -137,9 +157,233 @@ public class Chain implements Cloneable {
         this.redPunishList = redPunishList;
     }
 
+    public void addBlockHeader(BlockHeader header) {
+        boolean indexed = packedCountIndex != null && headerMark.matches(blockHeaderList);
+        blockHeaderList.add(header);
+        if (indexed) {
+            countHeader(packedCountIndex, header, 1);
+            headerMark.mark(blockHeaderList);
+        } else {
+            packedCountIndex = null;
+        }
+    }
+
+    public BlockHeader removeLastBlockHeader() {
+        boolean indexed = packedCountIndex != null && headerMark.matches(blockHeaderList);
+        BlockHeader header = blockHeaderList.remove(blockHeaderList.size() - 1);
+        if (indexed) {
+            countHeader(packedCountIndex, header, -1);
+            headerMark.mark(blockHeaderList);
+        } else {
+            packedCountIndex = null;
+        }
+        return header;
+    }
+
+    public void addDeposit(Consensus<Deposit> deposit) {
+        boolean indexed = agentDepositIndex != null && depositMark.matches(depositList);
+        depositList.add(deposit);
+        if (indexed) {
+            indexDeposit(agentDepositIndex, deposit);
+            depositMark.mark(depositList);
+        } else {
+            agentDepositIndex = null;
+        }
+    }
+
+    public void removeDeposit(int index) {
+        boolean indexed = agentDepositIndex != null && depositMark.matches(depositList);
+        Consensus<Deposit> deposit = depositList.remove(index);
+        if (indexed) {
+            List<Consensus<Deposit>> agentDeposits = agentDepositIndex.get(deposit.getExtend().getAgentHash());
+            for (int i = agentDeposits.size() - 1; i >= 0; i--) {
+                if (agentDeposits.get(i) == deposit) {
+                    agentDeposits.remove(i);
+                    break;
+                }
+            }
+            depositMark.mark(depositList);
+        } else {
+            agentDepositIndex = null;
+        }
+    }
+
+    public void addPunishLog(PunishLogPo punishLog) {
+        boolean red = punishLog.getType() == PunishType.RED.getCode();
+        List<PunishLogPo> punishList = red ? redPunishList : yellowPunishList;
+        IndexMark mark = red ? redMark : yellowMark;
+        Map<Long, Map<String, Integer>> punishIndex = red ? redPunishIndex : yellowPunishIndex;
+
+        boolean indexed = punishIndex != null && mark.matches(punishList);
+        punishList.add(punishLog);
+        if (indexed) {
+            count(punishIndex, punishLog.getRoundIndex(), punishLog.getAddress(), 1);
+            mark.mark(punishList);
+        } else if (red) {
+            redPunishIndex = null;
+        } else {
+            yellowPunishIndex = null;
+        }
+    }
+
+    public void removePunishLog(int index, int code) {
+        boolean red = code == PunishType.RED.getCode();
+        List<PunishLogPo> punishList = red ? redPunishList : yellowPunishList;
+        IndexMark mark = red ? redMark : yellowMark;
+        Map<Long, Map<String, Integer>> punishIndex = red ? redPunishIndex : yellowPunishIndex;
+
+        boolean indexed = punishIndex != null && mark.matches(punishList);
+        PunishLogPo punishLog = punishList.remove(index);
+        if (indexed) {
+            count(punishIndex, punishLog.getRoundIndex(), punishLog.getAddress(), -1);
+            mark.mark(punishList);
+        } else if (red) {
+            redPunishIndex = null;
+        } else {
+            yellowPunishIndex = null;
+        }
+    }
+
+    /**
+     * Count of the blocks packed by the address from round roundStart to round roundEnd
+     */
+    public long getPackedCount(String packingAddress, long roundStart, long roundEnd) {
+        if (packedCountIndex == null || !headerMark.matches(blockHeaderList)) {
+            Map<Long, Map<String, Integer>> index = new HashMap<>();
+            for (BlockHeader header : blockHeaderList) {
+                countHeader(index, header, 1);
+            }
+            packedCountIndex = index;
+            headerMark.mark(blockHeaderList);
+        }
+        return sum(packedCountIndex, packingAddress, roundStart, roundEnd);
+    }
+
+    /**
+     * Count of the punishes of the address from round roundStart to round roundEnd
+     */
+    public long getPunishCount(String address, long roundStart, long roundEnd, int code) {
+        if (code == PunishType.RED.getCode()) {
+            if (redPunishIndex == null || !redMark.matches(redPunishList)) {
+                redPunishIndex = buildPunishIndex(redPunishList);
+                redMark.mark(redPunishList);
+            }
+            return sum(redPunishIndex, address, roundStart, roundEnd);
+        }
+        if (yellowPunishIndex == null || !yellowMark.matches(yellowPunishList)) {
+            yellowPunishIndex = buildPunishIndex(yellowPunishList);
+            yellowMark.mark(yellowPunishList);
+        }
+        return sum(yellowPunishIndex, address, roundStart, roundEnd);
+    }
+
+    /**
+     * The deposits of the agent, in the order of the deposit list
+     */
+    public List<Consensus<Deposit>> getDepositListByAgentId(String agentId) {
+        if (agentDepositIndex == null || !depositMark.matches(depositList)) {
+            Map<String, List<Consensus<Deposit>>> index = new HashMap<>();
+            for (Consensus<Deposit> deposit : depositList) {
+                indexDeposit(index, deposit);
+            }
+            agentDepositIndex = index;
+            depositMark.mark(depositList);
+        }
+        List<Consensus<Deposit>> agentDeposits = agentDepositIndex.get(agentId);
+        if (agentDeposits == null) {
+            return new ArrayList<>();
+        }
+        return agentDeposits;
+    }
+
+    private static Map<Long, Map<String, Integer>> buildPunishIndex(List<PunishLogPo> punishList) {
+        Map<Long, Map<String, Integer>> index = new HashMap<>();
+        for (PunishLogPo punishLog : punishList) {
+            count(index, punishLog.getRoundIndex(), punishLog.getAddress(), 1);
+        }
+        return index;
+    }
+
+    private static void indexDeposit(Map<String, List<Consensus<Deposit>>> index, Consensus<Deposit> deposit) {
+        String agentHash = deposit.getExtend().getAgentHash();
+        List<Consensus<Deposit>> agentDeposits = index.get(agentHash);
+        if (agentDeposits == null) {
+            agentDeposits = new ArrayList<>();
+            index.put(agentHash, agentDeposits);
+        }
+        agentDeposits.add(deposit);
+    }
+
+    private static void countHeader(Map<Long, Map<String, Integer>> index, BlockHeader header, int delta) {
+        long roundIndex = new BlockRoundData(header.getExtend()).getRoundIndex();
+        count(index, roundIndex, Address.fromHashs(header.getPackingAddress()).getBase58(), delta);
+    }
+
+    private static void count(Map<Long, Map<String, Integer>> index, long roundIndex, String address, int delta) {
+        Map<String, Integer> roundCounts = index.get(roundIndex);
+        if (roundCounts == null) {
+            roundCounts = new HashMap<>();
+            index.put(roundIndex, roundCounts);
+        }
+        Integer count = roundCounts.get(address);
+        int newCount = (count == null ? 0 : count) + delta;
+        if (newCount > 0) {
+            roundCounts.put(address, newCount);
+        } else {
+            roundCounts.remove(address);
+            if (roundCounts.isEmpty()) {
+                index.remove(roundIndex);
+            }
+        }
+    }
+
+    private static long sum(Map<Long, Map<String, Integer>> index, String address, long roundStart, long roundEnd) {
+        long count = 0;
+        for (long roundIndex = roundStart; roundIndex <= roundEnd; roundIndex++) {
+            Map<String, Integer> roundCounts = index.get(roundIndex);
+            if (roundCounts == null) {
+                continue;
+            }
+            Integer roundCount = roundCounts.get(address);
+            if (roundCount != null) {
+                count += roundCount;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The lists are shared with the copy, the indexes and their marks are copied,
+     * so that updating the indexes of one chain leaves the other unchanged.
+     */
     @Override
     protected Object clone() throws CloneNotSupportedException {
-        return super.clone();
+        Chain chain = (Chain) super.clone();
+        chain.packedCountIndex = copyCountIndex(packedCountIndex);
+        chain.yellowPunishIndex = copyCountIndex(yellowPunishIndex);
+        chain.redPunishIndex = copyCountIndex(redPunishIndex);
+        if (agentDepositIndex != null) {
+            chain.agentDepositIndex = new HashMap<>();
+            for (Map.Entry<String, List<Consensus<Deposit>>> entry : agentDepositIndex.entrySet()) {
+                chain.agentDepositIndex.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+        }
+        chain.headerMark = headerMark.copy();
+        chain.yellowMark = yellowMark.copy();
+        chain.redMark = redMark.copy();
+        chain.depositMark = depositMark.copy();
+        return chain;
+    }
+
+    private static Map<Long, Map<String, Integer>> copyCountIndex(Map<Long, Map<String, Integer>> index) {
+        if (index == null) {
+            return null;
+        }
+        Map<Long, Map<String, Integer>> copy = new HashMap<>();
+        for (Map.Entry<Long, Map<String, Integer>> entry : index.entrySet()) {
+            copy.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        return copy;
     }
 
     public Block getBestBlock() {
@@ -148,4 +392,35 @@ public class Chain implements Cloneable {
         }
         return blockList.get(blockList.size() - 1);
     }
+
+    /**
+     * The list an index was last updated with, its size and last element
+     */
+    private static final class IndexMark {
+
+        private List<?> list;
+        private int size;
+        private Object last;
+
+        private boolean matches(List<?> list) {
+            if (this.list != list || list.size() != size) {
+                return false;
+            }
+            return size == 0 || list.get(size - 1) == last;
+        }
+
+        private void mark(List<?> list) {
+            this.list = list;
+            this.size = list.size();
+            this.last = size == 0 ? null : list.get(size - 1);
+        }
+
+        private IndexMark copy() {
+            IndexMark copy = new IndexMark();
+            copy.list = list;
+            copy.size = size;
+            copy.last = last;
+            return copy;
+        }
+    }
 }
@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.nuls.consensus.poc.process;
+
+import io.nuls.consensus.poc.cache.TxMemoryPool;
+import io.nuls.consensus.poc.locker.Lockers;
+import io.nuls.consensus.poc.manager.ChainManager;
+import io.nuls.consensus.poc.protocol.constant.PocConsensusConstant;
+import io.nuls.consensus.poc.protocol.context.ConsensusContext;
+import io.nuls.consensus.poc.provider.ConsensusSystemProvider;
+import io.nuls.core.constant.ErrorCode;
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.utils.date.TimeService;
+import io.nuls.core.utils.log.Log;
+import io.nuls.core.validate.ValidateResult;
+import io.nuls.ledger.entity.CoinVerifyContext;
+import io.nuls.ledger.service.intf.LedgerService;
+import io.nuls.poc.constant.ConsensusStatus;
+import io.nuls.protocol.context.NulsContext;
+import io.nuls.protocol.model.Block;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the txs of the next block verified against the best block, picked from the memory pool as they come,
+ * so that only the consensus txs are left to add when it is time to pack.
+ * The template is rebuilt when the best block changes, its txs not confirmed go back to the memory pool.
+ * The background filling holds the template lock for short batches only, and gives way to the packing.
+ *
+ * 在最新区块上持续验证下一个区块的交易，打包时只需加入共识交易
+ */
+public class BlockTemplateProcess {
+
+    /**
+     * the most txs and time one background batch takes with the template lock held
+     */
+    private static final int FILL_BATCH_TX_COUNT = 100;
+    private static final long FILL_BATCH_TIME = 50L;
+
+    /**
+     * the time one background run keeps filling, batch after batch, it is run every 500 ms
+     */
+    private static final long PROCESS_TIME = 300L;
+
+    private ChainManager chainManager;
+    private TxMemoryPool txMemoryPool;
+
+    private LedgerService ledgerService = NulsContext.getServiceBean(LedgerService.class);
+
+    private NulsDigestData preHash;
+    private long height;
+    private CoinVerifyContext verifyContext;
+    private long totalSize;
+    private boolean full;
+
+    /**
+     * the packing threads waiting for the template lock, a background batch stops as soon as one comes
+     */
+    private final AtomicInteger waitingPackers = new AtomicInteger();
+
+    public BlockTemplateProcess(ChainManager chainManager, TxMemoryPool txMemoryPool) {
+        this.chainManager = chainManager;
+        this.txMemoryPool = txMemoryPool;
+    }
+
+    public void process() {
+        if (!ConsensusContext.isPartakePacking() || ConsensusSystemProvider.getConsensusStatus() != ConsensusStatus.RUNNING) {
+            return;
+        }
+        long endTime = TimeService.currentTimeMillis() + PROCESS_TIME;
+        boolean more = true;
+        while (more && waitingPackers.get() == 0 && TimeService.currentTimeMillis() < endTime) {
+            Block bestBlock = chainManager.getBestBlock();
+            if (bestBlock == null) {
+                return;
+            }
+            Lockers.BLOCK_TEMPLATE_LOCK.lock();
+            try {
+                long deadline = Math.min(endTime, TimeService.currentTimeMillis() + FILL_BATCH_TIME);
+                more = fill(bestBlock, deadline, FILL_BATCH_TX_COUNT, true);
+            } finally {
+                Lockers.BLOCK_TEMPLATE_LOCK.unlock();
+            }
+        }
+    }
+
+    /**
+     * Get the txs of the template built on the block, it is completed until the deadline when the block is new
+     *
+     * 获取基于该区块的模板交易
+     * @param bestBlock the block to pack on
+     * @param deadline  time to stop picking txs
+     * @return a copy of the tx list
+     */
+    public List<Transaction> getTxList(Block bestBlock, long deadline) {
+        waitingPackers.incrementAndGet();
+        Lockers.BLOCK_TEMPLATE_LOCK.lock();
+        waitingPackers.decrementAndGet();
+        try {
+            fill(bestBlock, deadline, Integer.MAX_VALUE, false);
+            return new ArrayList<>(verifyContext.getTxList());
+        } finally {
+            Lockers.BLOCK_TEMPLATE_LOCK.unlock();
+        }
+    }
+
+    /**
+     * pick and verify txs until the block is full, the memory pool is empty or a limit is reached
+     *
+     * @param maxCount    the most txs to pick
+     * @param preemptible stop once a packing thread waits for the template
+     * @return false if the block is full or the memory pool is empty, true if stopped by a limit
+     */
+    private boolean fill(Block bestBlock, long deadline, int maxCount, boolean preemptible) {
+        if (verifyContext == null || !bestBlock.getHeader().getHash().equals(preHash)) {
+            reset(bestBlock);
+        }
+        int count = 0;
+        while (!full) {
+            if (count >= maxCount || TimeService.currentTimeMillis() >= deadline || (preemptible && waitingPackers.get() > 0)) {
+                return true;
+            }
+            Transaction tx = txMemoryPool.pick();
+            if (tx == null) {
+                return false;
+            }
+            count++;
+            String hash = tx.getHash().getDigestHex();
+            if ((totalSize + tx.size()) > PocConsensusConstant.MAX_BLOCK_SIZE) {
+                txMemoryPool.release(hash);
+                full = true;
+                break;
+            }
+            Transaction repeatTx = ledgerService.getTx(tx.getHash());
+            if (repeatTx != null) {
+                txMemoryPool.remove(hash);
+                continue;
+            }
+            ValidateResult result;
+            try {
+                result = ledgerService.conflictDetectTx(tx, verifyContext);
+            } catch (NulsException e) {
+                txMemoryPool.remove(hash);
+                Log.error(e);
+                continue;
+            }
+            if (result.isFailed()) {
+                txMemoryPool.remove(hash);
+                Log.debug(result.getMessage());
+                continue;
+            }
+            result = ledgerService.verifyTx(tx, verifyContext);
+            if (result.isFailed()) {
+                txMemoryPool.remove(hash);
+                if (result.getErrorCode() == ErrorCode.ORPHAN_TX) {
+                    txMemoryPool.add(tx, true);
+                }
+                Log.debug(result.getMessage());
+                continue;
+            }
+            tx.setBlockHeight(height);
+            verifyContext.accept(tx);
+            totalSize += tx.size();
+        }
+        return false;
+    }
+
+    private void reset(Block bestBlock) {
+        if (verifyContext != null) {
+            // in packing order, so that a tx goes back after the ones it spends from
+            for (Transaction tx : verifyContext.getTxList()) {
+                txMemoryPool.release(tx.getHash().getDigestHex());
+            }
+        }
+        preHash = bestBlock.getHeader().getHash();
+        height = bestBlock.getHeader().getHeight() + 1;
+        verifyContext = ledgerService.createVerifyContext();
+        totalSize = 0L;
+        full = false;
+    }
+}
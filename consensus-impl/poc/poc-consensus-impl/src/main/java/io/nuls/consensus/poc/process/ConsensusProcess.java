@@ -25,7 +25,6 @@ package io.nuls.consensus.poc.process;
 
 import io.nuls.account.entity.Account;
 import io.nuls.account.entity.Address;
-import io.nuls.consensus.poc.cache.TxMemoryPool;
 import io.nuls.consensus.poc.constant.BlockContainerStatus;
 import io.nuls.consensus.poc.container.BlockContainer;
 import io.nuls.consensus.poc.manager.ChainManager;
@@ -42,26 +41,20 @@ import io.nuls.consensus.poc.protocol.tx.YellowPunishTransaction;
 import io.nuls.consensus.poc.protocol.utils.ConsensusTool;
 import io.nuls.consensus.poc.provider.BlockQueueProvider;
 import io.nuls.consensus.poc.provider.ConsensusSystemProvider;
-import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.utils.date.DateUtil;
 import io.nuls.core.utils.date.TimeService;
 import io.nuls.core.utils.log.Log;
-import io.nuls.core.validate.ValidateResult;
 import io.nuls.event.bus.service.intf.EventBroadcaster;
-import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
 import io.nuls.ledger.entity.tx.CoinBaseTransaction;
-import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.network.service.NetworkService;
 import io.nuls.poc.constant.ConsensusStatus;
 import io.nuls.protocol.constant.ProtocolConstant;
-import io.nuls.protocol.constant.TransactionConstant;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.SmallBlockEvent;
 import io.nuls.protocol.model.*;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -71,20 +64,19 @@ import java.util.List;
 public class ConsensusProcess {
 
     private ChainManager chainManager;
-    private TxMemoryPool txMemoryPool;
+    private BlockTemplateProcess blockTemplateProcess;
 
     private BlockQueueProvider blockQueueProvider;
     private NetworkService networkService = NulsContext.getServiceBean(NetworkService.class);
     private EventBroadcaster eventBroadcaster = NulsContext.getServiceBean(EventBroadcaster.class);
-    private LedgerService ledgerService = NulsContext.getServiceBean(LedgerService.class);
     private BlockService blockService = NulsContext.getServiceBean(BlockService.class);
 
 
     private boolean hasPacking;
 
-    public ConsensusProcess(ChainManager chainManager, TxMemoryPool txMemoryPool, BlockQueueProvider blockQueueProvider) {
+    public ConsensusProcess(ChainManager chainManager, BlockTemplateProcess blockTemplateProcess, BlockQueueProvider blockQueueProvider) {
         this.chainManager = chainManager;
-        this.txMemoryPool = txMemoryPool;
+        this.blockTemplateProcess = blockTemplateProcess;
         this.blockQueueProvider = blockQueueProvider;
     }
 
@@ -163,21 +155,9 @@ public class ConsensusProcess {
 
         Block block = doPacking(self, round);
 
+        // the template is rebuilt on the newest block, giving back the txs it did not confirm
         if (needCheckAgain && hasReceiveNewestBlock(self, round)) {
-            Block realBestBlock = chainManager.getBestBlock();
-            if (null != realBestBlock) {
-                List<NulsDigestData> txHashList = realBestBlock.getTxHashList();
-                for (Transaction transaction : block.getTxs()) {
-                    if (transaction.getType() == TransactionConstant.TX_TYPE_COIN_BASE || transaction.getType() == TransactionConstant.TX_TYPE_YELLOW_PUNISH || transaction.getType() == TransactionConstant.TX_TYPE_RED_PUNISH) {
-                        continue;
-                    }
-                    if (txHashList.contains(transaction.getHash())) {
-                        continue;
-                    }
-                    txMemoryPool.add(transaction, false);
-                }
-                block = doPacking(self, round);
-            }
+            block = doPacking(self, round);
         }
         if (null == block) {
             Log.error("make a null block");
@@ -287,57 +267,7 @@ public class ConsensusProcess {
 
         bd.setRoundData(roundData);
 
-        List<Transaction> packingTxList = new ArrayList<>();
-        List<NulsDigestData> outHashList = new ArrayList<>();
-
-        long totalSize = 0L;
-
-        while (true) {
-            if ((self.getPackEndTime() - TimeService.currentTimeMillis()) <= 500L) {
-                break;
-            }
-            Transaction tx = txMemoryPool.get();
-
-            if (tx == null) {
-                try {
-                    Thread.sleep(100L);
-                } catch (InterruptedException e) {
-                    Log.error("packaging error ", e);
-                }
-                continue;
-            }
-
-            if ((totalSize + tx.size()) > PocConsensusConstant.MAX_BLOCK_SIZE) {
-                txMemoryPool.add(tx, false);
-                break;
-            }
-            if (outHashList.contains(tx.getHash())) {
-                continue;
-            }
-            Transaction repeatTx = ledgerService.getTx(tx.getHash());
-            if (repeatTx != null) {
-                continue;
-            }
-            ValidateResult result = ledgerService.conflictDetectTx(tx, packingTxList);
-            if (result.isFailed()) {
-                Log.debug(result.getMessage());
-                continue;
-            }
-            result = this.ledgerService.verifyTx(tx,packingTxList);
-            if (result.isFailed()) {
-                if(result.getErrorCode()==ErrorCode.ORPHAN_TX){
-                    txMemoryPool.add(tx, true);
-                }
-                Log.debug(result.getMessage());
-                continue;
-            }
-            outHashList.add(tx.getHash());
-
-            tx.setBlockHeight(bd.getHeight());
-            packingTxList.add(tx);
-
-            totalSize += tx.size();
-        }
+        List<Transaction> packingTxList = blockTemplateProcess.getTxList(bestBlock, self.getPackEndTime() - 500L);
 
         addConsensusTx(bestBlock, packingTxList, self, round);
         bd.setTxList(packingTxList);
@@ -28,10 +28,13 @@ import io.nuls.consensus.poc.cache.TxMemoryPool;
 import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.validate.ValidateResult;
 import io.nuls.event.bus.service.intf.EventBroadcaster;
+import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.TransactionEvent;
 import io.nuls.protocol.model.Transaction;
 
+import java.util.List;
+
 /**
  * Created by ln on 2018/4/13.
  */
@@ -41,11 +44,23 @@ public class TxProcess {
 
     private EventBroadcaster eventBroadcaster = NulsContext.getServiceBean(EventBroadcaster.class);
 
+    private LedgerService ledgerService = NulsContext.getServiceBean(LedgerService.class);
+
     public TxProcess(TxMemoryPool memoryPool) {
         this.memoryPool = memoryPool;
     }
 
 
+    /**
+     * check the signatures of a batch in parallel before the txs are verified one by one
+     */
+    public void process(List<Transaction> txList) {
+        ledgerService.verifyTxSigns(txList, false);
+        for (Transaction tx : txList) {
+            process(tx);
+        }
+    }
+
     public void process(Transaction tx) {
 
         ValidateResult result = tx.verify();
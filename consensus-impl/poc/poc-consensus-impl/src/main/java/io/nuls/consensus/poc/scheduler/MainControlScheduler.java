@@ -79,7 +79,7 @@ public class MainControlScheduler {
         PocConsensusService pocConsensusService = NulsContext.getServiceBean(PocConsensusService.class);
         pocConsensusService.addProvider(blockQueueProvider, txQueueProvider);
 
-        threadPool = TaskManager.createScheduledThreadPool(6,
+        threadPool = TaskManager.createScheduledThreadPool(7,
                 new NulsThreadFactory(NulsConstant.MODULE_ID_CONSENSUS, "consensus-poll-control"));
 
         chainManager = new ChainManager();
@@ -100,7 +100,10 @@ public class MainControlScheduler {
         ChainProcess chainProcess = new ChainProcess(chainManager);
         threadPool.scheduleAtFixedRate(new ChainProcessTask(chainProcess), 1000L,500L, TimeUnit.MILLISECONDS);
 
-        ConsensusProcess consensusProcess = new ConsensusProcess(chainManager, txMemoryPool, blockQueueProvider);
+        BlockTemplateProcess blockTemplateProcess = new BlockTemplateProcess(chainManager, txMemoryPool);
+        threadPool.scheduleAtFixedRate(new BlockTemplateProcessTask(blockTemplateProcess), 1000L,500L, TimeUnit.MILLISECONDS);
+
+        ConsensusProcess consensusProcess = new ConsensusProcess(chainManager, blockTemplateProcess, blockQueueProvider);
         threadPool.scheduleAtFixedRate(new ConsensusProcessTask(consensusProcess), 1000L,1000L, TimeUnit.MILLISECONDS);
 
         DownloadBlockProcess downloadBlockProcess = new DownloadBlockProcess();
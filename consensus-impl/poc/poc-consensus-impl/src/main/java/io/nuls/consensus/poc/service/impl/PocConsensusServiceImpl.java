@@ -162,11 +162,17 @@ public class PocConsensusServiceImpl implements PocConsensusService {
         TxMemoryPool memoryPool = mainControlScheduler.getTxMemoryPool();
 
         list.addAll(memoryPool.getAll());
-        list.addAll(memoryPool.getAll());
+        list.addAll(memoryPool.getAllIsolated());
 
         return list;
     }
 
+    @Override
+    public int getMemoryTxCount() {
+        TxMemoryPool memoryPool = mainControlScheduler.getTxMemoryPool();
+        return memoryPool.size() + memoryPool.getIsolatedSize();
+    }
+
     @Override
     public Transaction getAndRemoveOfMemoryTxs(String hash) {
         return mainControlScheduler.getTxMemoryPool().getAndRemove(hash);
@@ -28,11 +28,16 @@ import io.nuls.consensus.poc.process.TxProcess;
 import io.nuls.consensus.poc.provider.TxQueueProvider;
 import io.nuls.protocol.model.Transaction;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Created by ln on 2018/4/13.
  */
 public class TxProcessTask implements Runnable {
 
+    private static final int BATCH_SIZE = 256;
+
     private TxProcess txProcess;
     private TxQueueProvider txQueueProvider;
 
@@ -43,9 +48,17 @@ public class TxProcessTask implements Runnable {
 
     @Override
     public void run() {
+        List<Transaction> txList = new ArrayList<>(BATCH_SIZE);
         Transaction tx = null;
         while((tx = txQueueProvider.get()) != null) {
-            txProcess.process(tx);
+            txList.add(tx);
+            if(txList.size() >= BATCH_SIZE) {
+                txProcess.process(txList);
+                txList.clear();
+            }
+        }
+        if(!txList.isEmpty()) {
+            txProcess.process(txList);
         }
     }
 }
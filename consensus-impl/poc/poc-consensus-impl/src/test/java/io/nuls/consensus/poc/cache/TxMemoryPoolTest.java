@@ -0,0 +1,187 @@
+package io.nuls.consensus.poc.cache;
+
+import io.nuls.ledger.entity.CoinData;
+import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
+import io.nuls.protocol.model.BaseNulsData;
+import io.nuls.protocol.model.Na;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.Transaction;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import io.nuls.protocol.utils.io.NulsOutputStreamBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Packing order, release and eviction of the tx memory pool.
+ */
+public class TxMemoryPoolTest {
+
+    @Test
+    public void testChildIsPackedAfterParent() {
+        TxMemoryPool pool = new TxMemoryPool();
+        Transaction parent = newTx("parent", 1000);
+        Transaction child = newTx("child", 9000, parent);
+        Assert.assertTrue(pool.add(parent, false));
+        Assert.assertTrue(pool.add(child, false));
+
+        Assert.assertSame(parent, pool.pick());
+        Assert.assertSame(child, pool.pick());
+        Assert.assertNull(pool.pick());
+    }
+
+    @Test
+    public void testReleasedParentIsPackedBeforeChild() {
+        TxMemoryPool pool = new TxMemoryPool();
+        Transaction parent = newTx("parent", 1000);
+        Transaction child = newTx("child", 9000, parent);
+        pool.add(parent, false);
+        pool.add(child, false);
+
+        Assert.assertSame(parent, pool.pick());
+        Assert.assertTrue(pool.release(hash(parent)));
+
+        Assert.assertSame(parent, pool.pick());
+        Assert.assertSame(child, pool.pick());
+    }
+
+    @Test
+    public void testReleaseKeepsOrderOfSameFeeRate() {
+        TxMemoryPool pool = new TxMemoryPool();
+        Transaction first = newTx("first", 1000);
+        Transaction second = newTx("second", 1000);
+        pool.add(first, false);
+        pool.add(second, false);
+
+        Assert.assertSame(first, pool.pick());
+        Assert.assertTrue(pool.release(hash(first)));
+        Assert.assertFalse(pool.release(hash(first)));
+
+        Assert.assertSame(first, pool.pick());
+        Assert.assertSame(second, pool.pick());
+    }
+
+    @Test
+    public void testIsolatedDescendantsArePromoted() {
+        TxMemoryPool pool = new TxMemoryPool();
+        Transaction parent = newTx("parent", 1000);
+        Transaction child = newTx("child", 2000, parent);
+        Transaction grandchild = newTx("grandchild", 3000, child);
+        Assert.assertTrue(pool.add(grandchild, true));
+        Assert.assertTrue(pool.add(child, true));
+        Assert.assertEquals(2, pool.getIsolatedSize());
+
+        Assert.assertTrue(pool.add(parent, false));
+        Assert.assertEquals(0, pool.getIsolatedSize());
+        Assert.assertEquals(3, pool.size());
+
+        Assert.assertSame(parent, pool.pick());
+        Assert.assertSame(child, pool.pick());
+        Assert.assertSame(grandchild, pool.pick());
+    }
+
+    @Test
+    public void testEvictionKeepsParentOfPromotedChild() {
+        TxMemoryPool pool = new TxMemoryPool(2, Long.MAX_VALUE, 10);
+        Transaction other = newTx("other", 2000);
+        Transaction parent = newTx("parent", 1000);
+        Transaction child = newTx("child", 3000, parent);
+        pool.add(other, false);
+        pool.add(child, true);
+
+        Assert.assertTrue(pool.add(parent, false));
+        Assert.assertFalse(pool.exist(hash(other)));
+        Assert.assertTrue(pool.exist(hash(parent)));
+        Assert.assertTrue(pool.exist(hash(child)));
+
+        Assert.assertSame(parent, pool.pick());
+        Assert.assertSame(child, pool.pick());
+    }
+
+    @Test
+    public void testEvictionDropsLowestWithDescendants() {
+        TxMemoryPool pool = new TxMemoryPool(2, Long.MAX_VALUE, 10);
+        Transaction parent = newTx("parent", 1000);
+        Transaction child = newTx("child", 5000, parent);
+        pool.add(parent, false);
+        pool.add(child, false);
+
+        Assert.assertFalse(pool.add(newTx("poor", 500), false));
+
+        Transaction better = newTx("better", 2000);
+        Assert.assertTrue(pool.add(better, false));
+        Assert.assertFalse(pool.exist(hash(parent)));
+        Assert.assertFalse(pool.exist(hash(child)));
+        Assert.assertEquals(1, pool.size());
+        Assert.assertSame(better, pool.pick());
+    }
+
+    @Test
+    public void testRemovedParentFreesChild() {
+        TxMemoryPool pool = new TxMemoryPool();
+        Transaction parent = newTx("parent", 1000);
+        Transaction child = newTx("child", 9000, parent);
+        pool.add(parent, false);
+        pool.add(child, false);
+
+        Assert.assertTrue(pool.remove(hash(parent)));
+        Assert.assertSame(child, pool.pick());
+    }
+
+    private static String hash(Transaction tx) {
+        return tx.getHash().getDigestHex();
+    }
+
+    private static Transaction newTx(String name, long fee, Transaction... parents) {
+        TestTransaction tx = new TestTransaction();
+        tx.setHash(NulsDigestData.calcDigestData(name.getBytes()));
+        tx.setFee(Na.valueOf(fee));
+        Set<String> fromHashes = new HashSet<>();
+        for (Transaction parent : parents) {
+            fromHashes.add(hash(parent));
+        }
+        tx.setCoinData(new TestCoinData(fromHashes));
+        return tx;
+    }
+
+    private static class TestTransaction extends AbstractCoinTransaction<BaseNulsData> {
+
+        TestTransaction() {
+            super(100);
+        }
+    }
+
+    private static class TestCoinData extends CoinData {
+
+        private final Set<String> fromHashes;
+
+        TestCoinData(Set<String> fromHashes) {
+            this.fromHashes = fromHashes;
+        }
+
+        @Override
+        public Na getTotalNa() {
+            return Na.ZERO;
+        }
+
+        @Override
+        public Set<String> getFromTxHashes() {
+            return fromHashes;
+        }
+
+        @Override
+        public int size() {
+            return 100;
+        }
+
+        @Override
+        protected void serializeToStream(NulsOutputStreamBuffer stream) {
+        }
+
+        @Override
+        protected void parse(NulsByteBuffer byteBuffer) {
+        }
+    }
+}
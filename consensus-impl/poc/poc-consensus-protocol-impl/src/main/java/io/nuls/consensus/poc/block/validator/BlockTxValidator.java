@@ -26,6 +26,7 @@ package io.nuls.consensus.poc.block.validator;
 import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.validate.NulsDataValidator;
 import io.nuls.core.validate.ValidateResult;
+import io.nuls.ledger.entity.CoinVerifyContext;
 import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
 import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.protocol.constant.TransactionConstant;
@@ -33,9 +34,6 @@ import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.model.Block;
 import io.nuls.protocol.model.Transaction;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * @author Niels
  * @date 2017/11/17
@@ -59,16 +57,16 @@ public class BlockTxValidator implements NulsDataValidator<Block> {
             return ValidateResult.getFailedResult("txCount is wrong!");
         }
         int count = 0;
-        List<Transaction> txList = new ArrayList<>();
+        CoinVerifyContext context = this.ledgerService.createVerifyContext();
         for (Transaction tx : block.getTxs()) {
-            ValidateResult result = this.ledgerService.verifyTx(tx,txList);
+            ValidateResult result = this.ledgerService.verifyTx(tx, context);
             if (null==result||result.isFailed()) {
                 return ValidateResult.getFailedResult("there is wrong transaction!msg:"+result.getMessage());
             }
             if (tx.getType() == TransactionConstant.TX_TYPE_COIN_BASE) {
                 count++;
             }
-            txList.add(tx);
+            context.accept(tx);
         }
         if (count > 1) {
             return ValidateResult.getFailedResult("coinbase transaction must only one!");
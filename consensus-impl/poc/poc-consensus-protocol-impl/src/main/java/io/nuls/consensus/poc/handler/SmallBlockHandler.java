@@ -87,7 +87,7 @@ public class SmallBlockHandler extends AbstractEventHandler<SmallBlockEvent> {
         ValidateResult result = header.verify();
         boolean isOrphan = result.getErrorCode() == ErrorCode.ORPHAN_TX || result.getErrorCode() == ErrorCode.ORPHAN_BLOCK;
 
-        BlockLog.debug("recieve new block from(" + fromId + "), tx count : " + header.getTxCount() + " , tx pool count : " + consensusService.getMemoryTxs().size() + " , header height:" + header.getHeight() + ", preHash:" + header.getPreHash() + " , hash:" + header.getHash() + ", address:" + Address.fromHashs(header.getPackingAddress()) +
+        BlockLog.debug("recieve new block from(" + fromId + "), tx count : " + header.getTxCount() + " , tx pool count : " + consensusService.getMemoryTxCount() + " , header height:" + header.getHeight() + ", preHash:" + header.getPreHash() + " , hash:" + header.getHash() + ", address:" + Address.fromHashs(header.getPackingAddress()) +
                 "\n and verify block result: " + result.isSuccess() + " , verify message : " + result.getMessage() + " , isOrphan : " + isOrphan);
 
         if (result.isFailed() && !isOrphan) {
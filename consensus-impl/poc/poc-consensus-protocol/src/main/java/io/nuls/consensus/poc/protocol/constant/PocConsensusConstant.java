@@ -63,6 +63,14 @@ public interface PocConsensusConstant {
      */
     long MAX_BLOCK_SIZE = 2 << 21;
 
+    /**
+     * Limits of the tx memory pool, the txs paying the lowest fee per byte are dropped beyond them
+     * default:100000 txs, 64M
+     */
+    int MAX_MEMORY_POOL_TX_COUNT = 100000;
+    long MAX_MEMORY_POOL_SIZE = 2 << 25;
+    int MAX_ISOLATED_TX_COUNT = 10000;
+
     Na AGENT_DEPOSIT_LOWER_LIMIT = Na.parseNuls(20000);
     Na ENTRUSTER_DEPOSIT_LOWER_LIMIT = Na.parseNuls(2000);
     /**
@@ -73,6 +73,14 @@ public interface ConsensusService {
 
     List<BaseNulsData> getMemoryTxs();
 
+    /**
+     * The count of the txs {@link #getMemoryTxs()} returns, without copying them
+     *
+     * 内存池中的交易数，不复制交易
+     * @return int
+     */
+    int getMemoryTxCount();
+
     /**
      * Gets a transaction from the memory pool, returns and removes it from the memory pool, or null if it does not exist
      * The method is invoked by the service department, and the application scenario is to assemble a complete block from a memory acquisition transaction when a new block is generated.
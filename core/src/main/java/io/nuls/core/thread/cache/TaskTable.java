@@ -26,6 +26,7 @@ package io.nuls.core.thread.cache;
 import io.nuls.core.thread.BaseThread;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
@@ -39,7 +40,7 @@ public class TaskTable {
      * key  :  poolName
      * value:  pool
      */
-    private final Map<String, ThreadPoolExecutor> POOL_EXECUTOR_MAP = new HashMap<>();
+    private final Map<String, ThreadPoolExecutor> POOL_EXECUTOR_MAP = new ConcurrentHashMap<>();
     /**
      * key  :  moduleId
      * value:  poolName
@@ -102,6 +103,14 @@ public class TaskTable {
         return POOL_EXECUTOR_MAP.get(poolName);
     }
 
+    /**
+     * key  :  poolName
+     * value:  pool
+     */
+    public final Map<String, ThreadPoolExecutor> getPoolMap() {
+        return Collections.unmodifiableMap(new HashMap<>(POOL_EXECUTOR_MAP));
+    }
+
     public final List<BaseThread> getThreadList(short moduleId) {
         Set<String> set = MODULE_THREAD_MAP.get(moduleId);
         if (null == set) {
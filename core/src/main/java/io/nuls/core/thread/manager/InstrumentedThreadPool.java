@@ -23,18 +23,13 @@
  */
 package io.nuls.core.thread.manager;
 
-import net.sf.cglib.proxy.MethodInterceptor;
-import net.sf.cglib.proxy.MethodProxy;
-
-import java.lang.reflect.Method;
-
 /**
+ * A thread pool of the TaskManager that keeps its metrics
+ *
  * @author Niels
  * @date 2017/11/27
  */
-public class ThreadPoolInterceiptor implements MethodInterceptor {
-    @Override
-    public Object intercept(Object obj, Method method, Object[] args, MethodProxy proxy) throws Throwable {
-        return proxy.invokeSuper(obj,args);
-    }
+public interface InstrumentedThreadPool {
+
+    ThreadPoolMetrics getMetrics();
 }
@@ -0,0 +1,59 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.core.thread.manager;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class NulsThreadPoolExecutor extends ThreadPoolExecutor implements InstrumentedThreadPool {
+
+    private final ThreadPoolMetrics metrics;
+
+    public NulsThreadPoolExecutor(int threadCount, BlockingQueue<Runnable> queue, ThreadFactory factory, RejectedExecutionHandler handler) {
+        this(threadCount, queue, factory, handler, new ThreadPoolMetrics());
+    }
+
+    private NulsThreadPoolExecutor(int threadCount, BlockingQueue<Runnable> queue, ThreadFactory factory, RejectedExecutionHandler handler, ThreadPoolMetrics metrics) {
+        super(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, queue, factory, metrics.countRejections(handler));
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        metrics.beforeExecute();
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        metrics.afterExecute();
+    }
+
+    @Override
+    public ThreadPoolMetrics getMetrics() {
+        return metrics;
+    }
+}
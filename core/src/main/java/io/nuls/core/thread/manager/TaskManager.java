@@ -25,8 +25,6 @@ package io.nuls.core.thread.manager;
 
 import io.nuls.core.thread.BaseThread;
 import io.nuls.core.thread.cache.TaskTable;
-import io.nuls.core.utils.aop.AopUtils;
-import io.nuls.core.utils.log.Log;
 
 import java.util.List;
 import java.util.concurrent.*;
@@ -43,6 +41,8 @@ public class TaskManager {
     private static final int TEMPORARY_THREAD_POOL_QUEUE_SIZE = 1000;
     private static final ThreadPoolExecutor TEMPORARY_THREAD_POOL;
 
+    private static final int DEFAULT_QUEUE_SIZE = 100000;
+
     /**
      * Initializing a temporary thread pool
      */
@@ -54,23 +54,28 @@ public class TaskManager {
         THREAD_DATA_CACHE.putThread(moduleId,poolName,threadName,newThread);
     }
 
+    /**
+     * Create a fixed thread pool, a task offered to a full queue is rejected with an exception.
+     * A queueSize of 0 means the default bound, and the caller runs the task itself when the queue is full.
+     */
     public static final ThreadPoolExecutor createThreadPool(int threadCount, int queueSize, NulsThreadFactory factory) {
+        if (queueSize > 0) {
+            return createThreadPool(threadCount, queueSize, factory, new ThreadPoolExecutor.AbortPolicy());
+        }
+        return createThreadPool(threadCount, DEFAULT_QUEUE_SIZE, factory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public static final ThreadPoolExecutor createThreadPool(int threadCount, int queueSize, NulsThreadFactory factory, RejectedExecutionHandler handler) {
         if (threadCount == 0) {
             throw new RuntimeException("thread count cannot be 0!");
         }
+        if (queueSize <= 0) {
+            throw new RuntimeException("queue size must be positive!");
+        }
         if (factory == null) {
             throw new RuntimeException("thread factory cannot be null!");
         }
-        Class[] paramClasses = new Class[]{int.class, int.class, long.class, TimeUnit.class, BlockingQueue.class, ThreadFactory.class};
-        Object[] paramArgs = null;
-        if(queueSize>0) {
-            paramArgs = new Object[]{threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
-                    new LinkedBlockingQueue<>(queueSize), factory};
-        }else{
-            paramArgs = new Object[]{threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
-                    new LinkedBlockingQueue<>(), factory};
-        }
-        ThreadPoolExecutor pool = AopUtils.createProxy(ThreadPoolExecutor.class, paramClasses, paramArgs, new ThreadPoolInterceiptor());
+        ThreadPoolExecutor pool = new NulsThreadPoolExecutor(threadCount, new LinkedBlockingQueue<>(queueSize), factory, handler);
         THREAD_DATA_CACHE.putPool(factory.getModuleId(), factory.getPoolName(), pool);
         return pool;
     }
@@ -79,7 +84,7 @@ public class TaskManager {
         if (factory == null) {
             throw new RuntimeException("thread factory cannot be null!");
         }
-        ScheduledThreadPoolExecutor pool = AopUtils.createProxy(ScheduledThreadPoolExecutor.class, new Class[]{int.class, ThreadFactory.class}, new Object[]{threadCount, factory}, new ThreadPoolInterceiptor());
+        ScheduledThreadPoolExecutor pool = new NulsScheduledThreadPoolExecutor(threadCount, factory, new ThreadPoolExecutor.AbortPolicy());
         THREAD_DATA_CACHE.putPool(factory.getModuleId(), factory.getPoolName(), pool);
         return pool;
     }
@@ -95,10 +100,6 @@ public class TaskManager {
         if (TEMPORARY_THREAD_POOL == null) {
             throw new RuntimeException("temporary thread pool not initialized yet");
         }
-        BlockingQueue<Runnable> blockingQueue = TEMPORARY_THREAD_POOL.getQueue();
-        if(blockingQueue.size() > 200) {
-            Log.info("Task Queue 100 Size Warning!!! Task info is " + runnable.toString());
-        }
         TEMPORARY_THREAD_POOL.execute(runnable);
     }
 
@@ -0,0 +1,93 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.core.thread.manager;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of a pool created by the TaskManager,
+ * the queue depth and the active threads are read from the pool itself.
+ */
+public class ThreadPoolMetrics {
+
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder totalExecuteNanos = new LongAdder();
+    private final LongAccumulator maxExecuteNanos = new LongAccumulator(Long::max, 0L);
+    private final ThreadLocal<long[]> startTime = ThreadLocal.withInitial(() -> new long[1]);
+
+    void beforeExecute() {
+        startTime.get()[0] = System.nanoTime();
+    }
+
+    void afterExecute() {
+        long use = System.nanoTime() - startTime.get()[0];
+        executedCount.increment();
+        totalExecuteNanos.add(use);
+        maxExecuteNanos.accumulate(use);
+    }
+
+    /**
+     * wraps the rejection policy of the pool so that every rejected task is counted
+     */
+    RejectedExecutionHandler countRejections(final RejectedExecutionHandler handler) {
+        return new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                rejectedCount.increment();
+                handler.rejectedExecution(r, executor);
+            }
+        };
+    }
+
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * the average time a task ran, in milliseconds
+     */
+    public double getAverageExecuteMillis() {
+        long count = executedCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) totalExecuteNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * the longest time a task ran, in milliseconds
+     */
+    public double getMaxExecuteMillis() {
+        return (double) maxExecuteNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -24,21 +24,29 @@
 package io.nuls.core.utils.spring.lite.core;
 
 import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptorManager;
+import io.nuls.core.utils.spring.lite.core.interceptor.MultipleBeanMethodInterceptorChain;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author: Niels Wang
  * @date: 2018/1/30
  */
 class DefaultMethodInterceptor implements MethodInterceptor {
+
+    private final Map<Method, MultipleBeanMethodInterceptorChain> chainCache = new ConcurrentHashMap<>();
+
     @Override
     public Object intercept(Object obj, Method method, Object[] params, MethodProxy methodProxy) throws Throwable {
-        if (null == method.getDeclaredAnnotations() || method.getDeclaredAnnotations().length == 0) {
-            return methodProxy.invokeSuper(obj, params);
+        MultipleBeanMethodInterceptorChain chain = chainCache.get(method);
+        if (!BeanMethodInterceptorManager.isValid(chain)) {
+            chain = BeanMethodInterceptorManager.getInterceptorChain(method.getDeclaredAnnotations());
+            chainCache.put(method, chain);
         }
-        return BeanMethodInterceptorManager.doFilter(method.getDeclaredAnnotations(), obj, method, params,methodProxy);
+        return BeanMethodInterceptorManager.doFilter(chain, obj, method, params, methodProxy);
     }
 }
@@ -32,6 +32,7 @@ import io.nuls.core.constant.NulsConstant;
 import io.nuls.core.module.BaseModuleBootstrap;
 import io.nuls.core.module.manager.ServiceManager;
 import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptorManager;
+import io.nuls.core.utils.spring.lite.core.interceptor.MultipleBeanMethodInterceptorChain;
 import io.nuls.core.utils.spring.lite.exception.BeanStatusException;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
@@ -39,6 +40,7 @@ import net.sf.cglib.proxy.MethodProxy;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Niels
@@ -48,6 +50,10 @@ public class ModularServiceMethodInterceptor implements MethodInterceptor {
 
     private ThreadLocal<Integer> threadLocal = new ThreadLocal<>();
 
+    private final Map<Class, Class> beanClassCache = new ConcurrentHashMap<>();
+
+    private final Map<Class, Map<Method, MultipleBeanMethodInterceptorChain>> chainCache = new ConcurrentHashMap<>();
+
     @Override
     public Object intercept(Object obj, Method method, Object[] params, MethodProxy methodProxy) throws Throwable {
 //        Log.debug(method.toString());
@@ -66,31 +72,61 @@ public class ModularServiceMethodInterceptor implements MethodInterceptor {
     }
 
     private Object doIntercept(Object obj, Method method, Object[] params, MethodProxy methodProxy) throws Throwable {
-        List<Annotation> annotationList = new ArrayList<>();
-        if (!method.getDeclaringClass().equals(Object.class)) {
-            String className = obj.getClass().getCanonicalName();
+        if (method.getDeclaringClass().equals(Object.class)) {
+            return methodProxy.invokeSuper(obj, params);
+        }
+        Class clazz = getBeanClass(obj.getClass());
+        BaseModuleBootstrap module = ServiceManager.getInstance().getModule(clazz);
+        if (module == null) {
+            throw new BeanStatusException(ErrorCode.DATA_ERROR, "Access to a service of an un start module!["+clazz.getCanonicalName()+"]" + method.toString());
+        }
+        if (module.getModuleId() != NulsConstant.MODULE_ID_MICROKERNEL &&
+                module.getStatus() != ModuleStatusEnum.STARTING &&
+                module.getStatus() != ModuleStatusEnum.RUNNING) {
+            throw new BeanStatusException(ErrorCode.DATA_ERROR, "Access to a service of an un start module!["+module.getModuleName()+"]"  + method.toString());
+        }
+        boolean isOk = SpringLiteContext.checkBeanOk(obj);
+        if (!isOk) {
+            throw new BeanStatusException(ErrorCode.DATA_ERROR, "Service has not autowired");
+        }
+        return BeanMethodInterceptorManager.doFilter(getInterceptorChain(clazz, method), obj, method, params, methodProxy);
+
+    }
+
+    /**
+     * the class the proxy class was created for
+     */
+    private Class getBeanClass(Class proxyClass) throws ClassNotFoundException {
+        Class clazz = beanClassCache.get(proxyClass);
+        if (null == clazz) {
+            String className = proxyClass.getCanonicalName();
             className = className.substring(0, className.indexOf("$$"));
-            Class clazz = Class.forName(className);
-            fillAnnotationList(annotationList, clazz, method);
-            BaseModuleBootstrap module = ServiceManager.getInstance().getModule(clazz);
-            if (module == null) {
-                throw new BeanStatusException(ErrorCode.DATA_ERROR, "Access to a service of an un start module!["+className+"]" + method.toString());
-            }
-            if (module.getModuleId() != NulsConstant.MODULE_ID_MICROKERNEL &&
-                    module.getStatus() != ModuleStatusEnum.STARTING &&
-                    module.getStatus() != ModuleStatusEnum.RUNNING) {
-                throw new BeanStatusException(ErrorCode.DATA_ERROR, "Access to a service of an un start module!["+module.getModuleName()+"]"  + method.toString());
-            }
-            boolean isOk = SpringLiteContext.checkBeanOk(obj);
-            if (!isOk) {
-                throw new BeanStatusException(ErrorCode.DATA_ERROR, "Service has not autowired");
+            clazz = Class.forName(className);
+            beanClassCache.put(proxyClass, clazz);
+        }
+        return clazz;
+    }
+
+    /**
+     * the interceptors of the method and of its bean class, resolved once per method
+     */
+    private MultipleBeanMethodInterceptorChain getInterceptorChain(Class clazz, Method method) {
+        Map<Method, MultipleBeanMethodInterceptorChain> chainMap = chainCache.get(clazz);
+        if (null == chainMap) {
+            chainMap = new ConcurrentHashMap<>();
+            Map<Method, MultipleBeanMethodInterceptorChain> old = chainCache.putIfAbsent(clazz, chainMap);
+            if (null != old) {
+                chainMap = old;
             }
         }
-        if (annotationList.isEmpty()) {
-            return methodProxy.invokeSuper(obj, params);
+        MultipleBeanMethodInterceptorChain chain = chainMap.get(method);
+        if (!BeanMethodInterceptorManager.isValid(chain)) {
+            List<Annotation> annotationList = new ArrayList<>();
+            fillAnnotationList(annotationList, clazz, method);
+            chain = BeanMethodInterceptorManager.getInterceptorChain(annotationList.toArray(new Annotation[annotationList.size()]));
+            chainMap.put(method, chain);
         }
-        return BeanMethodInterceptorManager.doFilter(annotationList.toArray(new Annotation[annotationList.size()]), obj, method, params, methodProxy);
-
+        return chain;
     }
 
     private void fillAnnotationList(List<Annotation> annotationList, Class clazz, Method method) {
@@ -35,9 +35,22 @@ import java.util.List;
  * @date 2018/1/30
  */
 public class BeanMethodInterceptorChain {
-    protected List<BeanMethodInterceptor> interceptorList = new ArrayList<>();
-    private ThreadLocal<Integer> index = new ThreadLocal<>();
-    private ThreadLocal<MethodProxy> methodProxyThreadLocal = new ThreadLocal<>();
+    protected List<BeanMethodInterceptor> interceptorList;
+    private ThreadLocal<Integer> index;
+    private ThreadLocal<MethodProxy> methodProxyThreadLocal;
+
+    public BeanMethodInterceptorChain() {
+        this.interceptorList = new ArrayList<>();
+        this.index = new ThreadLocal<>();
+        this.methodProxyThreadLocal = new ThreadLocal<>();
+    }
+
+    /**
+     * for the chains that keep the state of an invocation themselves and override startFilter and execute
+     */
+    protected BeanMethodInterceptorChain(List<BeanMethodInterceptor> interceptorList) {
+        this.interceptorList = interceptorList;
+    }
 
     protected void add(BeanMethodInterceptor filter) {
         interceptorList.add(filter);
@@ -41,29 +41,61 @@ public class BeanMethodInterceptorManager {
 
     private static final Map<Class, BeanMethodInterceptorChain> FILTER_MAP = new HashMap<>();
 
-    public static void addBeanMethodInterceptor(Class annotationType, BeanMethodInterceptor interceptor) {
+    /**
+     * changes with every interceptor added, the chains resolved before are stale then
+     */
+    private static volatile int version;
+
+    public static synchronized void addBeanMethodInterceptor(Class annotationType, BeanMethodInterceptor interceptor) {
         BeanMethodInterceptorChain interceptorChain = FILTER_MAP.get(annotationType);
         if (null == interceptorChain) {
             interceptorChain = new BeanMethodInterceptorChain();
         }
         interceptorChain.add(interceptor);
         FILTER_MAP.put(annotationType, interceptorChain);
+        version++;
     }
 
-    public static Object doFilter(Annotation[] anns, Object obj, Method method, Object[] params, MethodProxy methodProxy) throws Throwable {
+    /**
+     * Resolves the interceptors of the annotations once, so that it can be cached per method.
+     * A method without any intercepted annotation gets an empty chain.
+     */
+    public static MultipleBeanMethodInterceptorChain getInterceptorChain(Annotation[] anns) {
+        int currentVersion = version;
         List<Annotation> annotations = new ArrayList<>();
         List<BeanMethodInterceptorChain> chainList = new ArrayList<>();
-        for(Annotation ann:anns){
-            BeanMethodInterceptorChain chain = FILTER_MAP.get(ann.annotationType());
-            if(null!=chain){
-                chainList.add(chain);
-                annotations.add(ann );
+        if (null != anns) {
+            for (Annotation ann : anns) {
+                BeanMethodInterceptorChain chain = FILTER_MAP.get(ann.annotationType());
+                if (null != chain) {
+                    chainList.add(chain);
+                    annotations.add(ann);
+                }
             }
         }
-        if(annotations.isEmpty()){
-            return methodProxy.invokeSuper(obj,params);
+        MultipleBeanMethodInterceptorChain chain = new MultipleBeanMethodInterceptorChain(annotations, chainList);
+        chain.setVersion(currentVersion);
+        return chain;
+    }
+
+    /**
+     * Whether the chain was resolved with the interceptors registered now
+     */
+    public static boolean isValid(MultipleBeanMethodInterceptorChain chain) {
+        return null != chain && chain.getVersion() == version;
+    }
+
+    public static Object doFilter(Annotation[] anns, Object obj, Method method, Object[] params, MethodProxy methodProxy) throws Throwable {
+        return doFilter(getInterceptorChain(anns), obj, method, params, methodProxy);
+    }
+
+    /**
+     * Invokes the method through a chain from {@link #getInterceptorChain(Annotation[])}
+     */
+    public static Object doFilter(MultipleBeanMethodInterceptorChain chain, Object obj, Method method, Object[] params, MethodProxy methodProxy) throws Throwable {
+        if (chain.isEmpty()) {
+            return methodProxy.invokeSuper(obj, params);
         }
-        MultipleBeanMethodInterceptorChain chain = new MultipleBeanMethodInterceptorChain(annotations,chainList);
-        return chain.startFilter(null,obj,method,params,methodProxy);
+        return new MultipleBeanMethodInterceptorChain(chain).startFilter(null, obj, method, params, methodProxy);
     }
 }
@@ -36,12 +36,15 @@ import java.util.List;
  * @date 2018/1/30
  */
 public class MultipleBeanMethodInterceptorChain extends BeanMethodInterceptorChain {
-    protected List<Annotation> annotationList = new ArrayList<>();
-    protected Integer index = -1;
+    protected List<Annotation> annotationList;
+    protected int index = -1;
     protected MethodProxy methodProxy;
+    private int version;
 
 
     public MultipleBeanMethodInterceptorChain(List<Annotation> annotations, List<BeanMethodInterceptorChain> chainList) {
+        super(new ArrayList<>());
+        this.annotationList = new ArrayList<>();
         if (null == annotations || annotations.isEmpty()) {
             return;
         }
@@ -50,6 +53,26 @@ public class MultipleBeanMethodInterceptorChain extends BeanMethodInterceptorCha
         }
     }
 
+    /**
+     * A new invocation of a resolved chain, the interceptors are shared and not copied
+     */
+    MultipleBeanMethodInterceptorChain(MultipleBeanMethodInterceptorChain chain) {
+        super(chain.interceptorList);
+        this.annotationList = chain.annotationList;
+    }
+
+    boolean isEmpty() {
+        return interceptorList.isEmpty();
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    void setVersion(int version) {
+        this.version = version;
+    }
+
     private void fillInterceptorList(Annotation annotation, BeanMethodInterceptorChain beanMethodInterceptorChain) {
         for (BeanMethodInterceptor interceptor : beanMethodInterceptorChain.interceptorList) {
             annotationList.add(annotation);
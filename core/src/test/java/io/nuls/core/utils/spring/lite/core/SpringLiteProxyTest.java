@@ -0,0 +1,144 @@
+package io.nuls.core.utils.spring.lite.core;
+
+import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptor;
+import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptorChain;
+import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptorManager;
+import net.sf.cglib.proxy.Enhancer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain and intercepted calls on a SpringLite proxy with the interceptor chains cached per method.
+ */
+public class SpringLiteProxyTest {
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public @interface Traced {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public @interface Added {
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public @interface Nested {
+    }
+
+    public static class BalanceService {
+
+        public long getBalance(long value) {
+            return value + 1;
+        }
+
+        @Traced
+        public long saveBalance(long value) {
+            return value + 1;
+        }
+
+        @Added
+        public long addBalance(long value) {
+            return value + 1;
+        }
+
+        @Nested
+        public long nestedBalance(long value) {
+            return value > 0 ? nestedBalance(value - 1) + 1 : 0;
+        }
+    }
+
+    @Test
+    public void testPlainMethodIsNotIntercepted() {
+        final List<String> calls = new ArrayList<>();
+        BeanMethodInterceptorManager.addBeanMethodInterceptor(Traced.class, new Recorder("traced", calls));
+
+        BalanceService proxy = newProxy();
+        Assert.assertEquals(6, proxy.getBalance(5));
+        Assert.assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    public void testInterceptorsRunAroundEveryCall() {
+        final List<String> calls = new ArrayList<>();
+        BeanMethodInterceptorManager.addBeanMethodInterceptor(Traced.class, new Recorder("first", calls));
+        BeanMethodInterceptorManager.addBeanMethodInterceptor(Traced.class, new Recorder("second", calls));
+
+        BalanceService proxy = newProxy();
+        for (int i = 0; i < 3; i++) {
+            calls.clear();
+            Assert.assertEquals(i + 1, proxy.saveBalance(i));
+            List<String> expected = new ArrayList<>();
+            expected.add("first:Traced");
+            expected.add("second:Traced");
+            expected.add("second:end");
+            expected.add("first:end");
+            Assert.assertEquals(expected, calls);
+        }
+    }
+
+    @Test
+    public void testInterceptorAddedAfterCallIsUsed() {
+        final List<String> calls = new ArrayList<>();
+        BalanceService proxy = newProxy();
+        Assert.assertEquals(2, proxy.addBalance(1));
+        Assert.assertTrue(calls.isEmpty());
+
+        BeanMethodInterceptorManager.addBeanMethodInterceptor(Added.class, new Recorder("added", calls));
+        Assert.assertEquals(2, proxy.addBalance(1));
+        Assert.assertEquals(2, calls.size());
+    }
+
+    @Test
+    public void testNestedCallsKeepTheirOwnChain() {
+        final List<String> calls = new ArrayList<>();
+        BeanMethodInterceptorManager.addBeanMethodInterceptor(Nested.class, new Recorder("nested", calls));
+
+        BalanceService proxy = newProxy();
+        Assert.assertEquals(3, proxy.nestedBalance(3));
+        Assert.assertEquals(8, calls.size());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals("nested:Nested", calls.get(i));
+            Assert.assertEquals("nested:end", calls.get(i + 4));
+        }
+    }
+
+    private static BalanceService newProxy() {
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(BalanceService.class);
+        enhancer.setCallback(new DefaultMethodInterceptor());
+        return (BalanceService) enhancer.create();
+    }
+
+    private static class Recorder implements BeanMethodInterceptor {
+
+        private final String name;
+
+        private final List<String> calls;
+
+        Recorder(String name, List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public Object intercept(Annotation annotation, Object object, Method method, Object[] params, BeanMethodInterceptorChain interceptorChain) throws Throwable {
+            calls.add(name + ":" + annotation.annotationType().getSimpleName());
+            try {
+                return interceptorChain.execute(annotation, object, method, params);
+            } finally {
+                calls.add(name + ":end");
+            }
+        }
+    }
+}
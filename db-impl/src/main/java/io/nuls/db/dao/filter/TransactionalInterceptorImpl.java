@@ -26,17 +26,22 @@ package io.nuls.db.dao.filter;
 
 import io.nuls.core.utils.spring.lite.annotation.Interceptor;
 import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptorChain;
-import io.nuls.core.utils.str.StringUtils;
+import io.nuls.db.dao.impl.mybatis.session.SessionContext;
 import io.nuls.db.dao.impl.mybatis.session.SessionManager;
+import io.nuls.db.transactional.TransactionSynchronizationManager;
 import io.nuls.db.transactional.TransactionalInterceptor;
 import io.nuls.db.transactional.annotation.DbSession;
-import io.nuls.db.transactional.annotation.PROPAGATION;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 
 /**
+ * A method called while the thread already has a session runs in it,
+ * only the outermost method opens and closes a session and only the one starting a transaction commits it
+ * and completes the {@link io.nuls.db.transactional.TransactionSynchronization}s registered meanwhile.
+ *
  * @author zhouwei
  * @date 2017/10/13
  */
@@ -45,51 +50,133 @@ public class TransactionalInterceptorImpl implements TransactionalInterceptor {
 
     @Override
     public Object intercept(Annotation annotation, Object obj, Method method, Object[] args, BeanMethodInterceptorChain interceptorChain) throws Throwable {
-        String lastId = SessionManager.getId();
-        String id = lastId;
-        if (id == null) {
-            id = StringUtils.getNewUUID();
-        }
-        Object result;
-        boolean isSessionBeginning = false;
-        boolean isCommit = false;
         DbSession ann = (DbSession) annotation;
-        if (ann.transactional() == PROPAGATION.REQUIRED && !SessionManager.getTxState(id)) {
-            isCommit = true;
-        } else if (ann.transactional() == PROPAGATION.INDEPENDENT) {
-            id = StringUtils.getNewUUID();
-            isCommit = true;
+        SessionContext context = SessionManager.getContext();
+        switch (ann.transactional()) {
+            case NONE:
+                if (null != context) {
+                    return interceptorChain.execute(annotation, obj, method, args);
+                }
+                return executeInNewSession(ExecutorType.SIMPLE, false, annotation, obj, method, args, interceptorChain);
+            case REQUIRED:
+                if (null == context) {
+                    return executeInNewSession(ExecutorType.SIMPLE, true, annotation, obj, method, args, interceptorChain);
+                }
+                if (context.isTransactional()) {
+                    return executeJoined(context, annotation, obj, method, args, interceptorChain);
+                }
+                return executeInTransaction(context, annotation, obj, method, args, interceptorChain);
+            case BATCH:
+                if (null == context) {
+                    return executeInNewSession(ExecutorType.BATCH, true, annotation, obj, method, args, interceptorChain);
+                }
+                if (context.isBatch()) {
+                    return executeJoined(context, annotation, obj, method, args, interceptorChain);
+                }
+                return executeInBatch(context, annotation, obj, method, args, interceptorChain);
+            default:
+                return executeInNewSession(ExecutorType.SIMPLE, true, annotation, obj, method, args, interceptorChain);
         }
-        SqlSession session = SessionManager.getSession(id);
-        if (session == null) {
-            isSessionBeginning = true;
-            session = SessionManager.openSession(false);
-            SessionManager.setConnection(id, session);
-            SessionManager.setId(id);
-        } else {
-            isSessionBeginning = false;
+    }
+
+    private Object executeInNewSession(ExecutorType executorType, boolean transactional, Annotation annotation, Object obj, Method method, Object[] args, BeanMethodInterceptorChain interceptorChain) throws Throwable {
+        SessionContext lastContext = SessionManager.getContext();
+        SqlSession session = SessionManager.openSession(executorType, false);
+        SessionContext context = new SessionContext(session, transactional, executorType == ExecutorType.BATCH);
+        SessionManager.setContext(context);
+        boolean synchronizing = transactional && TransactionSynchronizationManager.begin();
+        boolean committed = false;
+        try {
+            Object result = interceptorChain.execute(annotation, obj, method, args);
+            if (transactional) {
+                context.commit();
+                committed = true;
+            }
+            return result;
+        } catch (Exception e) {
+            context.rollback();
+            throw e;
+        } finally {
+            SessionManager.setContext(lastContext);
+            session.close();
+            if (synchronizing) {
+                completeSynchronizations(committed);
+            }
+        }
+    }
+
+    private Object executeJoined(SessionContext context, Annotation annotation, Object obj, Method method, Object[] args, BeanMethodInterceptorChain interceptorChain) throws Throwable {
+        try {
+            return interceptorChain.execute(annotation, obj, method, args);
+        } catch (Exception e) {
+            context.rollback();
+            throw e;
         }
+    }
+
+    /**
+     * starts a transaction on the session a method without transaction opened
+     */
+    private Object executeInTransaction(SessionContext context, Annotation annotation, Object obj, Method method, Object[] args, BeanMethodInterceptorChain interceptorChain) throws Throwable {
+        context.setTransactional(true);
+        boolean synchronizing = TransactionSynchronizationManager.begin();
+        boolean committed = false;
         try {
-            if (isCommit) {
-                SessionManager.startTransaction(id);
+            Object result = interceptorChain.execute(annotation, obj, method, args);
+            context.commit();
+            committed = true;
+            return result;
+        } catch (Exception e) {
+            context.rollback();
+            throw e;
+        } finally {
+            context.setTransactional(false);
+            if (synchronizing) {
+                completeSynchronizations(committed);
             }
-            result = interceptorChain.execute(annotation, obj, method, args);
-            if (isCommit) {
-                session.commit();
-                SessionManager.endTransaction(id);
+        }
+    }
+
+    /**
+     * queues the statements of the method in a batch on the connection of the current session,
+     * so they are committed or rolled back with it
+     */
+    private Object executeInBatch(SessionContext context, Annotation annotation, Object obj, Method method, Object[] args, BeanMethodInterceptorChain interceptorChain) throws Throwable {
+        SqlSession batchSession = SessionManager.openBatchSession(context.getSession());
+        context.setForeignWrites(true);
+        SessionManager.setContext(new SessionContext(batchSession, true, true));
+        boolean synchronizing = !context.isTransactional() && TransactionSynchronizationManager.begin();
+        boolean committed = false;
+        try {
+            Object result = interceptorChain.execute(annotation, obj, method, args);
+            batchSession.flushStatements();
+            if (!context.isTransactional()) {
+                context.commit();
+                committed = true;
             }
+            return result;
         } catch (Exception e) {
-            session.rollback();
-            SessionManager.endTransaction(id);
+            context.rollback();
             throw e;
         } finally {
-            if (isSessionBeginning) {
-                SessionManager.setConnection(id, null);
-                SessionManager.setId(lastId);
-                session.close();
+            SessionManager.setContext(context);
+            batchSession.close();
+            context.getSession().clearCache();
+            if (synchronizing) {
+                completeSynchronizations(committed);
             }
         }
-        return result;
+    }
+
+    /**
+     * the method that started the transaction tells the synchronizations how it ended, once the session is released
+     */
+    private void completeSynchronizations(boolean committed) {
+        if (committed) {
+            TransactionSynchronizationManager.afterCommit();
+        } else {
+            TransactionSynchronizationManager.afterRollback();
+        }
     }
 
 
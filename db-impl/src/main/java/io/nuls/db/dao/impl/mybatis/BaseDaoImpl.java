@@ -24,6 +24,7 @@
 package io.nuls.db.dao.impl.mybatis;
 
 import com.github.pagehelper.PageHelper;
+import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.utils.log.Log;
 import io.nuls.db.dao.BaseDataService;
 import io.nuls.db.dao.impl.mybatis.common.BaseMapper;
@@ -45,10 +46,17 @@ import java.util.Map;
  */
 @DbSession(transactional = PROPAGATION.NONE)
 public abstract class BaseDaoImpl<T extends BaseMapper<K, V>, K, V> implements BaseDataService<K, V> {
+    private static final String INSERT_STATEMENT = "insert";
+
     private Class<T> mapperClass;
 
     public BaseDaoImpl(Class<T> mapperClass) {
         this.mapperClass = mapperClass;
+        SessionManager.checkSingleRow(getStatementId(INSERT_STATEMENT), ErrorCode.DB_SAVE_ERROR);
+    }
+
+    protected final String getStatementId(String statementName) {
+        return mapperClass.getName() + "." + statementName;
     }
 
     private SqlSession getSession() {
@@ -63,7 +71,11 @@ public abstract class BaseDaoImpl<T extends BaseMapper<K, V>, K, V> implements B
     @Override
     @DbSession
     public int save(V o) {
-        return getMapper().insert(o);
+        int count = getMapper().insert(o);
+        if (SessionManager.isBatch()) {
+            return 1;
+        }
+        return count;
     }
 
     @Override
@@ -73,7 +85,15 @@ public abstract class BaseDaoImpl<T extends BaseMapper<K, V>, K, V> implements B
             if (null == list || list.isEmpty()) {
                 return 0;
             }
-            return getMapper().batchInsert(list);
+            if (SessionManager.isBatch()) {
+                return batchSave(list);
+            }
+            int count = 0;
+            int chunkSize = SessionManager.getInsertChunkSize();
+            for (int i = 0; i < list.size(); i += chunkSize) {
+                count += getMapper().batchInsert(list.subList(i, Math.min(i + chunkSize, list.size())));
+            }
+            return count;
         } catch (Exception e) {
             Log.error(e);
             throw e;
@@ -81,6 +101,18 @@ public abstract class BaseDaoImpl<T extends BaseMapper<K, V>, K, V> implements B
 
     }
 
+    /**
+     * In a batch session the rows are queued, and sent with the rest of the unit as one JDBC batch per statement.
+     * Each must insert one row, or the unit fails when they are sent.
+     */
+    private int batchSave(List<V> list) {
+        T mapper = getMapper();
+        for (V o : list) {
+            mapper.insert(o);
+        }
+        return list.size();
+    }
+
     @Override
     @DbSession
     public int update(V o) {
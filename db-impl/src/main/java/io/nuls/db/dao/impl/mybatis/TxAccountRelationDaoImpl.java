@@ -80,4 +80,12 @@ public class TxAccountRelationDaoImpl extends BaseDaoImpl<TxAccountRelationMappe
         searchable.addCondition("address", SearchOperator.eq, address);
         return getMapper().selectList(searchable);
     }
+
+    @Override
+    @DbSession
+    public void saveIfAbsent(List<TxAccountRelationPo> list) {
+        for (TxAccountRelationPo po : list) {
+            getMapper().insertIfAbsent(po);
+        }
+    }
 }
@@ -33,6 +33,7 @@ import io.nuls.core.utils.date.TimeService;
 import io.nuls.core.utils.str.StringUtils;
 import io.nuls.db.dao.UtxoOutputDataService;
 import io.nuls.db.dao.impl.mybatis.mapper.UtxoOutputMapper;
+import io.nuls.db.dao.impl.mybatis.session.SessionManager;
 import io.nuls.db.dao.impl.mybatis.util.Condition;
 import io.nuls.db.dao.impl.mybatis.util.SearchOperator;
 import io.nuls.db.dao.impl.mybatis.util.Searchable;
@@ -51,6 +52,7 @@ import java.util.Map;
 public class UtxoOutputDaoImpl extends BaseDaoImpl<UtxoOutputMapper, Map<String, Object>, UtxoOutputPo> implements UtxoOutputDataService {
     public UtxoOutputDaoImpl() {
         super(UtxoOutputMapper.class);
+        SessionManager.checkSingleRow(getStatementId("updateStatus"), ErrorCode.UTXO_STATUS_CHANGE);
     }
 
     @Override
@@ -156,6 +158,9 @@ public class UtxoOutputDaoImpl extends BaseDaoImpl<UtxoOutputMapper, Map<String,
 
     @Override
     public int updateStatus(List<UtxoOutputPo> list) {
+        if (SessionManager.isBatch()) {
+            return batchUpdateStatus(list);
+        }
         int result = 0;
         for (int i = 0; i < list.size(); i++) {
             int value = getMapper().updateStatus(list.get(i));
@@ -167,6 +172,16 @@ public class UtxoOutputDaoImpl extends BaseDaoImpl<UtxoOutputMapper, Map<String,
         return result;
     }
 
+    /**
+     * the counts of a batch are known when it is sent, every output must still be there then
+     */
+    private int batchUpdateStatus(List<UtxoOutputPo> list) {
+        for (UtxoOutputPo po : list) {
+            getMapper().updateStatus(po);
+        }
+        return list.size();
+    }
+
     @Override
     public int updateStatus(UtxoOutputPo po) {
         return getMapper().updateStatus(po);
@@ -36,4 +36,6 @@ public interface TxAccountRelationMapper  extends BaseMapper<String,TxAccountRel
     void deleteRelation(TxAccountRelationPo po);
 
     void deleteRelationByTxHash(String txHash);
+
+    int insertIfAbsent(TxAccountRelationPo po);
 }
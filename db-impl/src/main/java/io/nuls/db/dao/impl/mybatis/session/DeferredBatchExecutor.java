@@ -0,0 +1,130 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.dao.impl.mybatis.session;
+
+import io.nuls.core.constant.ErrorCode;
+import io.nuls.core.exception.NulsRuntimeException;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.transaction.Transaction;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The executor of the PROPAGATION.BATCH sessions.
+ * Inserts and updates are only queued, and sent when the unit ends or a query needs them:
+ * first the inserts grouped by statement, then the updates in the order they came,
+ * so each statement goes out as one JDBC batch instead of a few rows per tx.
+ * A delete sends the queue first, so it keeps its place.
+ * The update counts are checked every time the statements are sent, see {@link SessionManager#checkSingleRow}.
+ * A queued parameter is bound when it is sent, it must not be changed after it is queued.
+ */
+public class DeferredBatchExecutor extends BatchExecutor {
+
+    private final Map<MappedStatement, List<Object>> inserts = new LinkedHashMap<>();
+
+    private final List<MappedStatement> updateStatements = new ArrayList<>();
+
+    private final List<Object> updateParameters = new ArrayList<>();
+
+    public DeferredBatchExecutor(Configuration configuration, Transaction transaction) {
+        super(configuration, transaction);
+    }
+
+    @Override
+    public int doUpdate(MappedStatement ms, Object parameterObject) throws SQLException {
+        switch (ms.getSqlCommandType()) {
+            case INSERT:
+                List<Object> parameters = inserts.get(ms);
+                if (parameters == null) {
+                    parameters = new ArrayList<>();
+                    inserts.put(ms, parameters);
+                }
+                parameters.add(parameterObject);
+                return BATCH_UPDATE_RETURN_VALUE;
+            case UPDATE:
+                updateStatements.add(ms);
+                updateParameters.add(parameterObject);
+                return BATCH_UPDATE_RETURN_VALUE;
+            default:
+                sendQueued();
+                return super.doUpdate(ms, parameterObject);
+        }
+    }
+
+    @Override
+    public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
+        if (isRollback) {
+            clearQueued();
+            return super.doFlushStatements(true);
+        }
+        sendQueued();
+        List<BatchResult> results = super.doFlushStatements(false);
+        for (BatchResult result : results) {
+            check(result);
+        }
+        return results;
+    }
+
+    private void sendQueued() throws SQLException {
+        try {
+            for (Map.Entry<MappedStatement, List<Object>> entry : inserts.entrySet()) {
+                for (Object parameter : entry.getValue()) {
+                    super.doUpdate(entry.getKey(), parameter);
+                }
+            }
+            for (int i = 0; i < updateStatements.size(); i++) {
+                super.doUpdate(updateStatements.get(i), updateParameters.get(i));
+            }
+        } finally {
+            clearQueued();
+        }
+    }
+
+    private void clearQueued() {
+        inserts.clear();
+        updateStatements.clear();
+        updateParameters.clear();
+    }
+
+    private static void check(BatchResult result) {
+        String statementId = result.getMappedStatement().getId();
+        ErrorCode singleRowError = SessionManager.getSingleRowError(statementId);
+        for (int count : result.getUpdateCounts()) {
+            if (count == Statement.EXECUTE_FAILED) {
+                throw new NulsRuntimeException(ErrorCode.DB_SAVE_ERROR, statementId + " failed");
+            }
+            if (null != singleRowError && count != 1 && count != Statement.SUCCESS_NO_INFO) {
+                throw new NulsRuntimeException(singleRowError, statementId + " changed " + count + " rows");
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.dao.impl.mybatis.session;
+
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * The session the DAO calls of a thread run in, and what the outermost @DbSession method started on it.
+ */
+public class SessionContext {
+
+    private final SqlSession session;
+
+    private final boolean batch;
+
+    private boolean transactional;
+
+    /**
+     * statements were sent on the connection of the session by another session,
+     * so the session has to commit or roll back even if it did not write itself
+     */
+    private boolean foreignWrites;
+
+    public SessionContext(SqlSession session, boolean transactional, boolean batch) {
+        this.session = session;
+        this.transactional = transactional;
+        this.batch = batch;
+    }
+
+    public SqlSession getSession() {
+        return session;
+    }
+
+    public boolean isBatch() {
+        return batch;
+    }
+
+    public boolean isTransactional() {
+        return transactional;
+    }
+
+    public void setTransactional(boolean transactional) {
+        this.transactional = transactional;
+    }
+
+    public void setForeignWrites(boolean foreignWrites) {
+        this.foreignWrites = foreignWrites;
+    }
+
+    public void commit() {
+        session.commit(foreignWrites);
+        foreignWrites = false;
+    }
+
+    public void rollback() {
+        session.rollback(foreignWrites);
+        foreignWrites = false;
+    }
+}
@@ -24,16 +24,26 @@
 package io.nuls.db.dao.impl.mybatis.session;
 
 import io.nuls.core.constant.ErrorCode;
-import io.nuls.core.utils.log.Log;
-import io.nuls.core.utils.str.StringUtils;
 import io.nuls.db.exception.DBException;
+import org.apache.ibatis.executor.CachingExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSession;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.managed.ManagedTransaction;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Holds the session of the current thread, see {@link io.nuls.db.dao.filter.TransactionalInterceptorImpl}
+ * for how the @DbSession methods open, join and end it.
+ *
  * @author zhouwei
  * @date 2017/10/25
  */
@@ -41,86 +51,113 @@ public class SessionManager {
 
     private static SqlSessionFactory sqlSessionFactory;
 
-    private static ThreadLocal<Map<String, SqlSession>> sessionHolder = new ThreadLocal<>();
-    private static ThreadLocal<Map<String, Boolean>> txHolder = new ThreadLocal<>();
-    private static ThreadLocal<String> idHolder = new ThreadLocal<>();
+    private static final ThreadLocal<SessionContext> contextHolder = new ThreadLocal<>();
 
-    public static String getId() {
-        return idHolder.get();
-    }
+    /**
+     * the statements that must change exactly one row each time they run in a batch session,
+     * and the error thrown when one does not
+     */
+    private static final Map<String, ErrorCode> singleRowStatements = new ConcurrentHashMap<>();
 
-    public static void setId(String id) {
-        idHolder.remove();
-        idHolder.set(id);
-    }
+    /**
+     * rows of one multi-row insert statement outside of a batch session
+     */
+    private static int insertChunkSize = 200;
 
     public static SqlSession openSession(boolean autoCommit) {
+        return openSession(ExecutorType.SIMPLE, autoCommit);
+    }
+
+    public static SqlSession openSession(ExecutorType executorType, boolean autoCommit) {
         if (sqlSessionFactory == null) {
             throw new DBException(ErrorCode.DB_SAVE_CANNOT_NULL);
         }
-        return sqlSessionFactory.openSession(autoCommit);
-    }
-
-    public static SqlSession getSession() {
-        String id = idHolder.get();
-        SqlSession session = getSession(id);
-        return session;
+        if (executorType != ExecutorType.BATCH) {
+            return sqlSessionFactory.openSession(executorType, autoCommit);
+        }
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        Environment environment = configuration.getEnvironment();
+        Transaction transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, autoCommit);
+        return new DefaultSqlSession(configuration, newBatchExecutor(configuration, transaction), autoCommit);
     }
 
-    public static SqlSession getSession(String id) {
+    /**
+     * A batch session on the connection of another session.
+     * It never commits, rolls back or closes the connection, that is left to the session owning it.
+     */
+    public static SqlSession openBatchSession(SqlSession session) {
         if (sqlSessionFactory == null) {
             throw new DBException(ErrorCode.DB_SAVE_CANNOT_NULL);
         }
-        Map<String, SqlSession> map = sessionHolder.get();
-        if (null == map || !map.containsKey(id)) {
-            return null;
-        }
-        return map.get(id);
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        Executor executor = newBatchExecutor(configuration, new ManagedTransaction(session.getConnection(), false));
+        return new DefaultSqlSession(configuration, executor, false);
     }
 
-    public static void setConnection(String id, SqlSession session) {
-        Map<String, SqlSession> map = sessionHolder.get();
-        if (null == map) {
-            map = new HashMap<>();
+    /**
+     * what {@link Configuration#newExecutor} builds, with the {@link DeferredBatchExecutor}
+     */
+    private static Executor newBatchExecutor(Configuration configuration, Transaction transaction) {
+        Executor executor = new DeferredBatchExecutor(configuration, transaction);
+        if (configuration.isCacheEnabled()) {
+            executor = new CachingExecutor(executor);
         }
-        if (null == session) {
-            map.remove(id);
-        } else {
-            map.put(id, session);
+        for (Interceptor interceptor : configuration.getInterceptors()) {
+            executor = (Executor) interceptor.plugin(executor);
         }
-        sessionHolder.remove();
-        sessionHolder.set(map);
+        return executor;
     }
 
-    public static void startTransaction(String id) {
-        Map<String, Boolean> map = txHolder.get();
-        if (map == null) {
-            map = new HashMap<>();
-        }
-        map.put(id, true);
-        txHolder.remove();
-        txHolder.set(map);
+    /**
+     * Every row the statement writes in a batch session must change exactly one row, checked when the batch is sent
+     *
+     * @param statementId the id of the mapped statement
+     * @param errorCode   the error thrown when a row changed none or more than one
+     */
+    public static void checkSingleRow(String statementId, ErrorCode errorCode) {
+        singleRowStatements.put(statementId, errorCode);
     }
 
-    public static void endTransaction(String id) {
-        Map<String, Boolean> map = txHolder.get();
-        if (map == null) {
-            map = new HashMap<>();
+    static ErrorCode getSingleRowError(String statementId) {
+        return singleRowStatements.get(statementId);
+    }
+
+    public static SqlSession getSession() {
+        SessionContext context = contextHolder.get();
+        if (null == context) {
+            return null;
         }
-        map.remove(id);
-        txHolder.remove();
-        txHolder.set(map);
+        return context.getSession();
     }
 
-    public static boolean getTxState(String id) {
-        if (StringUtils.isBlank(id)) {
-            return false;
+    /**
+     * Whether the statements of the current thread are queued in a JDBC batch
+     */
+    public static boolean isBatch() {
+        SessionContext context = contextHolder.get();
+        return null != context && context.isBatch();
+    }
+
+    public static SessionContext getContext() {
+        return contextHolder.get();
+    }
+
+    public static void setContext(SessionContext context) {
+        if (null == context) {
+            contextHolder.remove();
+        } else {
+            contextHolder.set(context);
         }
-        Map<String, Boolean> map = txHolder.get();
-        if (null == map || !map.containsKey(id)) {
-            return false;
+    }
+
+    public static int getInsertChunkSize() {
+        return insertChunkSize;
+    }
+
+    public static void setInsertChunkSize(int insertChunkSize) {
+        if (insertChunkSize > 0) {
+            SessionManager.insertChunkSize = insertChunkSize;
         }
-        return map.get(id);
     }
 
     public static void setSqlSessionFactory(SqlSessionFactory sqlSessionFactory) {
@@ -0,0 +1,98 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.manager;
+
+import io.nuls.core.constant.ErrorCode;
+import io.nuls.core.model.Result;
+import io.nuls.core.utils.log.Log;
+import io.nuls.db.exception.DBException;
+import io.nuls.db.service.intf.BatchOperation;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.WriteBatch;
+import org.iq80.leveldb.WriteOptions;
+
+import java.io.IOException;
+
+/**
+ * A write batch of one LevelDB area, see {@link BatchOperation}.
+ */
+public class BatchOperationImpl implements BatchOperation {
+
+    private final DB db;
+
+    private WriteBatch batch;
+
+    BatchOperationImpl(DB db) {
+        this.db = db;
+        this.batch = db.createWriteBatch();
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value) {
+        checkBatch();
+        batch.put(key, value);
+    }
+
+    @Override
+    public void delete(byte[] key) {
+        checkBatch();
+        batch.delete(key);
+    }
+
+    @Override
+    public Result executeBatch() {
+        return executeBatch(false);
+    }
+
+    @Override
+    public Result executeBatch(boolean sync) {
+        if (batch == null) {
+            return Result.getFailed(ErrorCode.DB_SAVE_ERROR);
+        }
+        try {
+            db.write(batch, new WriteOptions().sync(sync));
+            return Result.getSuccess();
+        } catch (Exception e) {
+            Log.error("execute batch error", e);
+            return Result.getFailed(e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    private void close() {
+        try {
+            batch.close();
+        } catch (IOException e) {
+            Log.warn("close write batch error", e);
+        }
+        batch = null;
+    }
+
+    private void checkBatch() {
+        if (batch == null) {
+            throw new DBException(ErrorCode.DB_DATA_ERROR, "the batch has been executed");
+        }
+    }
+}
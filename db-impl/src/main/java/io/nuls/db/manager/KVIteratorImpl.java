@@ -0,0 +1,152 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.manager;
+
+import io.nuls.core.utils.log.Log;
+import io.nuls.db.service.intf.KVIterator;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBIterator;
+import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.Snapshot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The pure java leveldb can not move an iterator backwards,
+ * so a reverse iterator reads its range forward from the snapshot once and replays it from the end.
+ */
+public class KVIteratorImpl implements KVIterator {
+
+    private static final byte[] EMPTY_PREFIX = new byte[0];
+
+    private final Snapshot snapshot;
+
+    private final DBIterator iterator;
+
+    private final byte[] prefix;
+
+    private final boolean reverse;
+
+    private List<Map.Entry<byte[], byte[]>> reverseEntries;
+
+    private int reverseIndex;
+
+    KVIteratorImpl(DB db, byte[] prefix, boolean reverse) {
+        this.prefix = prefix == null ? EMPTY_PREFIX : prefix;
+        this.reverse = reverse;
+        this.snapshot = db.getSnapshot();
+        this.iterator = db.iterator(new ReadOptions().snapshot(snapshot).fillCache(false));
+        iterator.seek(this.prefix);
+        if (reverse) {
+            reverseEntries = new ArrayList<>();
+            while (hasNextForward()) {
+                reverseEntries.add(iterator.next());
+            }
+            reverseIndex = reverseEntries.size() - 1;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (reverse) {
+            return reverseIndex >= 0;
+        }
+        return hasNextForward();
+    }
+
+    @Override
+    public Map.Entry<byte[], byte[]> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (reverse) {
+            return reverseEntries.get(reverseIndex--);
+        }
+        return iterator.next();
+    }
+
+    @Override
+    public void seek(byte[] key) {
+        if (!reverse) {
+            iterator.seek(compare(key, prefix) < 0 ? prefix : key);
+            return;
+        }
+        // the last entry whose key is less than or equal to the key
+        int low = 0;
+        int high = reverseEntries.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(reverseEntries.get(mid).getKey(), key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        reverseIndex = high;
+    }
+
+    @Override
+    public void close() {
+        try {
+            iterator.close();
+            snapshot.close();
+        } catch (IOException e) {
+            Log.warn("close leveldb iterator error", e);
+        }
+    }
+
+    private boolean hasNextForward() {
+        return iterator.hasNext() && startsWith(iterator.peekNext().getKey(), prefix);
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        if (key.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (key[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * unsigned lexicographic order, the same as the default leveldb comparator
+     */
+    private static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (a[i] & 0xff) - (b[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+}
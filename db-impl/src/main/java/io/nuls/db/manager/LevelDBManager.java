@@ -28,6 +28,8 @@ import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.model.Result;
 import io.nuls.core.utils.log.Log;
 import io.nuls.core.utils.str.StringUtils;
+import io.nuls.db.service.intf.BatchOperation;
+import io.nuls.db.service.intf.KVIterator;
 import org.apache.ibatis.io.Resources;
 import org.iq80.leveldb.DB;
 import org.iq80.leveldb.DBFactory;
@@ -61,6 +63,12 @@ public class LevelDBManager {
 
     private static String dataPath;
 
+    private static final String JNI_FACTORY_CLASS = "org.fusesource.leveldbjni.JniDBFactory";
+
+    private static LevelDBOptions areaOptions = new LevelDBOptions(new Properties(), 20);
+
+    private static DBFactory factory = Iq80DBFactory.factory;
+
     public static int getMax() {
         return max;
     }
@@ -78,7 +86,7 @@ public class LevelDBManager {
                     continue;
                 }
                 try {
-                    db = openDB(areaFile.getPath() + File.separator + BASE_DB_NAME, false);
+                    db = openDB(areaFile.getName(), areaFile.getPath() + File.separator + BASE_DB_NAME, false);
                     AREAS.put(areaFile.getName(), db);
                 } catch (Exception e) {
                     Log.warn("load area failed, areaName: " + areaFile.getName(), e);
@@ -90,6 +98,7 @@ public class LevelDBManager {
 
     private static File loadDataPath() throws Exception {
         Properties properties = Resources.getResourceAsProperties("db_config.properties");
+        factory = loadFactory(properties.getProperty("leveldb.factory", "iq80"));
         String path = properties.getProperty("leveldb.datapath", "./data/kv");
         String max_str = properties.getProperty("leveldb.area.max", "20");
         try {
@@ -98,6 +107,7 @@ public class LevelDBManager {
             //skip it
             max = 20;
         }
+        areaOptions = new LevelDBOptions(properties, max);
         File dir = null;
         String pathSeparator = System.getProperty ("path.separator");
         String unixPathSeparator = ":";
@@ -172,7 +182,7 @@ public class LevelDBManager {
                 dir.mkdir();
             }
             String filePath = dataPath + File.separator + areaName + File.separator + BASE_DB_NAME;
-            DB db = openDB(filePath, true);
+            DB db = openDB(areaName, filePath, true);
             AREAS.put(areaName, db);
             result = Result.getSuccess();
         } catch (Exception e) {
@@ -194,13 +204,31 @@ public class LevelDBManager {
         }
     }
 
-    private static DB openDB(String dbPath, boolean createIfMissing) throws IOException {
+    private static DB openDB(String areaName, String dbPath, boolean createIfMissing) throws IOException {
         File file = new File(dbPath);
-        Options options = new Options().createIfMissing(createIfMissing);
-        DBFactory factory = Iq80DBFactory.factory;
+        Options options = areaOptions.build(areaName).createIfMissing(createIfMissing);
         return factory.open(file, options);
     }
 
+    /**
+     * The native factory is used only when configured and found on the classpath,
+     * otherwise the pure java one.
+     */
+    private static DBFactory loadFactory(String name) {
+        if (!"jni".equalsIgnoreCase(name)) {
+            return Iq80DBFactory.factory;
+        }
+        try {
+            Class<?> cls = Class.forName(JNI_FACTORY_CLASS);
+            DBFactory jniFactory = (DBFactory) cls.getField("factory").get(null);
+            Log.info("LevelDBManager uses the native leveldb factory");
+            return jniFactory;
+        } catch (Throwable e) {
+            Log.warn("native leveldb factory is not available, use the java one instead: " + e.getMessage());
+            return Iq80DBFactory.factory;
+        }
+    }
+
     private static boolean checkPathLegal(String areaName) {
         if(StringUtils.isBlank(areaName)) {
             return false;
@@ -209,11 +237,14 @@ public class LevelDBManager {
         return areaName.matches(regex);
     }
 
-    private static boolean baseCheckArea(String areaName) {
-        if(StringUtils.isBlank(areaName) || !AREAS.containsKey(areaName)) {
-            return false;
+    /**
+     * @return the db of the area, null if the area does not exist
+     */
+    private static DB getArea(String areaName) {
+        if(areaName == null) {
+            return null;
         }
-        return true;
+        return AREAS.get(areaName);
     }
 
     private static byte[] str2bytes(String str) {
@@ -244,14 +275,14 @@ public class LevelDBManager {
     }
 
     public static Result put(String area, byte[] key, byte[] value) {
-        if(!baseCheckArea(area)) {
+        DB db = getArea(area);
+        if(db == null) {
             return new Result(true, "KV_AREA_NOT_EXISTS");
         }
         if(key == null || value == null) {
             return Result.getFailed(ErrorCode.NULL_PARAMETER);
         }
         try {
-            DB db = AREAS.get(area);
             db.put(key, value);
             return Result.getSuccess();
         } catch (Exception e) {
@@ -260,14 +291,14 @@ public class LevelDBManager {
     }
 
     public static Result put(String area, String key, String value) {
-        if(!baseCheckArea(area)) {
+        DB db = getArea(area);
+        if(db == null) {
             return new Result(true, "KV_AREA_NOT_EXISTS");
         }
         if(StringUtils.isBlank(key) || StringUtils.isBlank(value)) {
             return Result.getFailed(ErrorCode.NULL_PARAMETER);
         }
         try {
-            DB db = AREAS.get(area);
             db.put(str2bytes(key), str2bytes(value));
             return Result.getSuccess();
         } catch (Exception e) {
@@ -276,14 +307,14 @@ public class LevelDBManager {
     }
 
     public static Result put(String area, byte[] key, String value) {
-        if(!baseCheckArea(area)) {
+        DB db = getArea(area);
+        if(db == null) {
             return new Result(true, "KV_AREA_NOT_EXISTS");
         }
         if(key == null || StringUtils.isBlank(value)) {
             return Result.getFailed(ErrorCode.NULL_PARAMETER);
         }
         try {
-            DB db = AREAS.get(area);
             db.put(key, str2bytes(value));
             return Result.getSuccess();
         } catch (Exception e) {
@@ -292,14 +323,14 @@ public class LevelDBManager {
     }
 
     public static Result delete(String area, String key) {
-        if(!baseCheckArea(area)) {
+        DB db = getArea(area);
+        if(db == null) {
             return new Result(true, "KV_AREA_NOT_EXISTS");
         }
         if(StringUtils.isBlank(key)) {
             return Result.getFailed(ErrorCode.NULL_PARAMETER);
         }
         try {
-            DB db = AREAS.get(area);
             db.delete(str2bytes(key));
             return Result.getSuccess();
         } catch (Exception e) {
@@ -307,30 +338,62 @@ public class LevelDBManager {
         }
     }
 
+    public static Result delete(String area, byte[] key) {
+        DB db = getArea(area);
+        if(db == null) {
+            return new Result(true, "KV_AREA_NOT_EXISTS");
+        }
+        if(key == null) {
+            return Result.getFailed(ErrorCode.NULL_PARAMETER);
+        }
+        try {
+            db.delete(key);
+            return Result.getSuccess();
+        } catch (Exception e) {
+            return Result.getFailed(e.getMessage());
+        }
+    }
+
+    public static KVIterator iterator(String area, byte[] prefix, boolean reverse) {
+        DB db = getArea(area);
+        if(db == null) {
+            return null;
+        }
+        return new KVIteratorImpl(db, prefix, reverse);
+    }
+
     public static byte[] get(String area, String key) {
-        if(!baseCheckArea(area)) {
+        DB db = getArea(area);
+        if(db == null) {
             return null;
         }
         if(StringUtils.isBlank(key)) {
             return null;
         }
         try {
-            DB db = AREAS.get(area);
             return db.get(str2bytes(key));
         } catch (Exception e) {
             return null;
         }
     }
 
+    public static BatchOperation createWriteBatch(String area) {
+        DB db = getArea(area);
+        if(db == null) {
+            return null;
+        }
+        return new BatchOperationImpl(db);
+    }
+
     public static byte[] get(String area, byte[] key) {
-        if(!baseCheckArea(area)) {
+        DB db = getArea(area);
+        if(db == null) {
             return null;
         }
         if(key == null) {
             return null;
         }
         try {
-            DB db = AREAS.get(area);
             return db.get(key);
         } catch (Exception e) {
             return null;
@@ -0,0 +1,105 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.manager;
+
+import io.nuls.core.utils.log.Log;
+import io.nuls.core.utils.str.StringUtils;
+import org.iq80.leveldb.CompressionType;
+import org.iq80.leveldb.Options;
+
+import java.util.Properties;
+
+/**
+ * Options of the LevelDB areas read from db_config.properties, "leveldb.area.[areaName].xxx" overrides "leveldb.xxx".
+ * The block cache is one budget for all areas: unless an area sets its own size,
+ * it gets leveldb.cache.size / leveldb.area.max, so the total stays bounded however many areas are opened.
+ * An area never gets less than the 8MB block cache native LevelDB uses by default, a small budget does not starve it.
+ * The pure java factory does not keep a block cache, the size only matters with the native one.
+ */
+class LevelDBOptions {
+
+    static final long DEFAULT_CACHE_SIZE = 256 * 1024 * 1024;
+
+    static final long MIN_CACHE_SIZE = 8 * 1024 * 1024;
+
+    private final Properties properties;
+
+    private final int maxAreas;
+
+    LevelDBOptions(Properties properties, int maxAreas) {
+        this.properties = properties;
+        this.maxAreas = Math.max(maxAreas, 1);
+    }
+
+    Options build(String areaName) {
+        Options options = new Options();
+        long cacheSize = parseLong("leveldb.area." + areaName + ".cache.size", -1);
+        if (cacheSize < 0) {
+            cacheSize = Math.max(parseLong("leveldb.cache.size", DEFAULT_CACHE_SIZE) / maxAreas, MIN_CACHE_SIZE);
+        }
+        options.cacheSize(cacheSize);
+        options.writeBufferSize((int) getLong(areaName, "writebuffer.size", options.writeBufferSize()));
+        options.maxOpenFiles((int) getLong(areaName, "maxopenfiles", options.maxOpenFiles()));
+        options.blockSize((int) getLong(areaName, "block.size", options.blockSize()));
+        String compression = getProperty(areaName, "compression");
+        if ("none".equalsIgnoreCase(compression)) {
+            options.compressionType(CompressionType.NONE);
+        } else if ("snappy".equalsIgnoreCase(compression)) {
+            options.compressionType(CompressionType.SNAPPY);
+        }
+        return options;
+    }
+
+    private String getProperty(String areaName, String name) {
+        String value = null;
+        if (areaName != null) {
+            value = properties.getProperty("leveldb.area." + areaName + "." + name);
+        }
+        if (StringUtils.isBlank(value)) {
+            value = properties.getProperty("leveldb." + name);
+        }
+        return StringUtils.isBlank(value) ? null : value.trim();
+    }
+
+    private long getLong(String areaName, String name, long defaultValue) {
+        return toLong(name, getProperty(areaName, name), defaultValue);
+    }
+
+    private long parseLong(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return toLong(key, StringUtils.isBlank(value) ? null : value.trim(), defaultValue);
+    }
+
+    private static long toLong(String name, String value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            Log.warn("wrong leveldb config, " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.apache.ibatis.session.SqlSessionFactoryBuilder;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Properties;
 import java.sql.SQLException;
 
 /**
@@ -76,6 +77,8 @@ public class MybatisDbModuleBootstrap extends AbstractDBModule {
         InputStream in = Resources.getResourceAsStream(resource);
         sqlSessionFactory = new SqlSessionFactoryBuilder().build(in);
         SessionManager.setSqlSessionFactory(sqlSessionFactory);
+        Properties properties = Resources.getResourceAsProperties("db_config.properties");
+        SessionManager.setInsertChunkSize(Integer.parseInt(properties.getProperty("db.insert.chunk.size", "200")));
     }
 
 
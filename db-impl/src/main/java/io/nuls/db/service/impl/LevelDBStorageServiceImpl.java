@@ -25,6 +25,8 @@ package io.nuls.db.service.impl;
 
 import io.nuls.core.model.Result;
 import io.nuls.db.manager.LevelDBManager;
+import io.nuls.db.service.intf.BatchOperation;
+import io.nuls.db.service.intf.KVIterator;
 import io.nuls.db.service.intf.KVStorageService;
 
 /**
@@ -65,6 +67,11 @@ public class LevelDBStorageServiceImpl implements KVStorageService {
         return LevelDBManager.delete(area, key);
     }
 
+    @Override
+    public Result delete(String area, byte[] key) {
+        return LevelDBManager.delete(area, key);
+    }
+
     @Override
     public byte[] get(String area, String key) {
         return LevelDBManager.get(area, key);
@@ -74,4 +81,14 @@ public class LevelDBStorageServiceImpl implements KVStorageService {
     public byte[] get(String area, byte[] key) {
         return LevelDBManager.get(area, key);
     }
+
+    @Override
+    public BatchOperation createWriteBatch(String area) {
+        return LevelDBManager.createWriteBatch(area);
+    }
+
+    @Override
+    public KVIterator iterator(String area, byte[] prefix, boolean reverse) {
+        return LevelDBManager.iterator(area, prefix, reverse);
+    }
 }
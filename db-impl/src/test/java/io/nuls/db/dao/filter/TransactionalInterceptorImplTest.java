@@ -0,0 +1,148 @@
+package io.nuls.db.dao.filter;
+
+import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptor;
+import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptorChain;
+import io.nuls.db.dao.impl.mybatis.session.SessionManager;
+import io.nuls.db.transactional.TransactionSynchronization;
+import io.nuls.db.transactional.TransactionSynchronizationManager;
+import io.nuls.db.transactional.annotation.DbSession;
+import io.nuls.db.transactional.annotation.PROPAGATION;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The synchronizations registered in a @DbSession method are completed by the method starting the transaction.
+ */
+public class TransactionalInterceptorImplTest {
+
+    private final TransactionalInterceptorImpl interceptor = new TransactionalInterceptorImpl();
+
+    private final List<String> events = new ArrayList<>();
+
+    @DbSession
+    private void required() {
+    }
+
+    @DbSession(transactional = PROPAGATION.BATCH)
+    private void batch() {
+    }
+
+    @DbSession(transactional = PROPAGATION.NONE)
+    private void none() {
+    }
+
+    @BeforeClass
+    public static void init() {
+        Configuration configuration = new Configuration();
+        UnpooledDataSource dataSource = new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:interceptor;DB_CLOSE_DELAY=-1", "sa", "");
+        configuration.setEnvironment(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        SessionManager.setSqlSessionFactory(new SqlSessionFactoryBuilder().build(configuration));
+    }
+
+    @Test
+    public void testAfterCommit() throws Throwable {
+        run("required", new Runnable() {
+            @Override
+            public void run() {
+                register("a");
+                Assert.assertTrue(events.isEmpty());
+            }
+        });
+        Assert.assertEquals("[a-commit]", events.toString());
+        Assert.assertFalse(TransactionSynchronizationManager.isActive());
+    }
+
+    @Test
+    public void testAfterRollback() throws Throwable {
+        try {
+            run("batch", new Runnable() {
+                @Override
+                public void run() {
+                    register("a");
+                    throw new IllegalStateException();
+                }
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        Assert.assertEquals("[a-rollback]", events.toString());
+        Assert.assertFalse(TransactionSynchronizationManager.isActive());
+    }
+
+    @Test
+    public void testJoinedMethodLeavesCompletionToOuter() throws Throwable {
+        run("required", new Runnable() {
+            @Override
+            public void run() {
+                runUnchecked("batch", new Runnable() {
+                    @Override
+                    public void run() {
+                        register("inner");
+                    }
+                });
+                Assert.assertTrue(events.isEmpty());
+                register("outer");
+            }
+        });
+        Assert.assertEquals("[inner-commit, outer-commit]", events.toString());
+    }
+
+    @Test
+    public void testWithoutTransactionCommitsRightAway() throws Throwable {
+        run("none", new Runnable() {
+            @Override
+            public void run() {
+                register("a");
+                Assert.assertEquals("[a-commit]", events.toString());
+            }
+        });
+        Assert.assertEquals("[a-commit]", events.toString());
+    }
+
+    private void register(final String name) {
+        TransactionSynchronizationManager.register(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                events.add(name + "-commit");
+            }
+
+            @Override
+            public void afterRollback() {
+                events.add(name + "-rollback");
+            }
+        });
+    }
+
+    private void runUnchecked(String unit, Runnable body) {
+        try {
+            run(unit, body);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void run(String unit, final Runnable body) throws Throwable {
+        Annotation annotation = TransactionalInterceptorImplTest.class.getDeclaredMethod(unit).getAnnotation(DbSession.class);
+        interceptor.intercept(annotation, this, null, null, new BeanMethodInterceptorChain(new ArrayList<BeanMethodInterceptor>()) {
+            @Override
+            public Object execute(Annotation ann, Object obj, Method method, Object[] params) {
+                body.run();
+                return null;
+            }
+        });
+    }
+}
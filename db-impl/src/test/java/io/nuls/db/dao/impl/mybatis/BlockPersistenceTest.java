@@ -0,0 +1,267 @@
+package io.nuls.db.dao.impl.mybatis;
+
+import io.nuls.core.constant.ErrorCode;
+import io.nuls.core.exception.NulsRuntimeException;
+import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptor;
+import io.nuls.core.utils.spring.lite.core.interceptor.BeanMethodInterceptorChain;
+import io.nuls.db.dao.filter.TransactionalInterceptorImpl;
+import io.nuls.db.dao.impl.mybatis.session.SessionManager;
+import io.nuls.db.entity.TransactionPo;
+import io.nuls.db.entity.TxAccountRelationPo;
+import io.nuls.db.entity.UtxoInputPo;
+import io.nuls.db.entity.UtxoOutputPo;
+import io.nuls.db.transactional.annotation.DbSession;
+import io.nuls.db.transactional.annotation.PROPAGATION;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The rows of a block written in a PROPAGATION.BATCH unit: one JDBC batch per statement, every count checked.
+ */
+public class BlockPersistenceTest {
+
+    private static final int TX_COUNT = 20;
+
+    private static final AtomicInteger prepared = new AtomicInteger();
+
+    private final TransactionDaoImpl txDao = new TransactionDaoImpl();
+    private final UtxoInputDaoImpl inputDao = new UtxoInputDaoImpl();
+    private final UtxoOutputDaoImpl outputDao = new UtxoOutputDaoImpl();
+    private final TxAccountRelationDaoImpl relationDao = new TxAccountRelationDaoImpl();
+    private final TransactionalInterceptorImpl interceptor = new TransactionalInterceptorImpl();
+
+    private static long lastHeight;
+
+    @DbSession
+    private void required() {
+    }
+
+    @DbSession(transactional = PROPAGATION.BATCH)
+    private void batch() {
+    }
+
+    @BeforeClass
+    public static void init() throws Exception {
+        InputStream in = Resources.getResourceAsStream("mybatis/mybatis-config.xml");
+        Configuration configuration = new SqlSessionFactoryBuilder().build(in).getConfiguration();
+        UnpooledDataSource dataSource = new UnpooledDataSource("org.h2.Driver",
+                "jdbc:h2:mem:blocks;INIT=RUNSCRIPT FROM 'classpath:sql/schema-h2.sql';DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=FALSE", "sa", "");
+        configuration.setEnvironment(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addInterceptor(new PrepareCounter());
+        SessionManager.setSqlSessionFactory(new SqlSessionFactoryBuilder().build(configuration));
+    }
+
+    @Test
+    public void testEachStatementIsSentOnce() throws Throwable {
+        final long height = saveBlock();
+        prepared.set(0);
+        run("batch", new Runnable() {
+            @Override
+            public void run() {
+                saveBlock(height + 1, height);
+            }
+        });
+        // the spent outputs, inputs, outputs, relations and txs: one prepared statement each
+        Assert.assertEquals(5, prepared.get());
+
+        run("required", new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < TX_COUNT; i++) {
+                    Assert.assertEquals(2, outputDao.getTxOutputs(hash(height + 1, i)).size());
+                    for (UtxoOutputPo output : outputDao.getTxOutputs(hash(height, i))) {
+                        Assert.assertEquals(output.getOutIndex() == 0 ? 2 : 0, output.getStatus().intValue());
+                    }
+                    Assert.assertEquals(1, relationDao.getRelationCount(hash(height + 1, i), address(i, 0)));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMissingOutputFailsUnit() throws Throwable {
+        final long height = ++lastHeight;
+        try {
+            run("batch", new Runnable() {
+                @Override
+                public void run() {
+                    saveBlock(height, -1);
+                    UtxoOutputPo spend = new UtxoOutputPo();
+                    spend.setTxHash(hash(height, TX_COUNT));
+                    spend.setOutIndex(0);
+                    spend.setStatus((byte) 2);
+                    outputDao.updateStatus(Collections.singletonList(spend));
+                }
+            });
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals(ErrorCode.UTXO_STATUS_CHANGE.getCode(), findNulsException(e).getCode());
+        }
+
+        run("required", new Runnable() {
+            @Override
+            public void run() {
+                Assert.assertTrue(txDao.getTxs(height).isEmpty());
+                Assert.assertTrue(outputDao.getTxOutputs(hash(height, 0)).isEmpty());
+            }
+        });
+    }
+
+    @Test
+    public void testRelationIsSavedOnce() throws Throwable {
+        final long height = saveBlock();
+        run("batch", new Runnable() {
+            @Override
+            public void run() {
+                relationDao.saveIfAbsent(Collections.singletonList(new TxAccountRelationPo(hash(height, 0), address(0, 0))));
+            }
+        });
+
+        run("required", new Runnable() {
+            @Override
+            public void run() {
+                Assert.assertEquals(1, relationDao.getRelationCount(hash(height, 0), address(0, 0)));
+            }
+        });
+    }
+
+    private long saveBlock() throws Throwable {
+        final long height = ++lastHeight;
+        run("batch", new Runnable() {
+            @Override
+            public void run() {
+                saveBlock(height, -1);
+            }
+        });
+        return height;
+    }
+
+    /**
+     * the txs of the block, each with two outputs, spending the first output of the tx of the same index
+     * in the block at the spent height, if there is one
+     */
+    private void saveBlock(long height, long spentHeight) {
+        if (height > lastHeight) {
+            lastHeight = height;
+        }
+        List<TransactionPo> txList = new ArrayList<>();
+        for (int i = 0; i < TX_COUNT; i++) {
+            String txHash = hash(height, i);
+            TransactionPo tx = new TransactionPo();
+            tx.setHash(txHash);
+            tx.setType(2);
+            tx.setTxIndex(i);
+            tx.setBlockHeight(height);
+            tx.setCreateTime(height);
+            tx.setFee(100000L);
+            tx.setTxData(new byte[0]);
+            tx.setScriptSig(new byte[106]);
+            tx.setSize(250);
+            txList.add(tx);
+
+            List<UtxoOutputPo> spends = new ArrayList<>();
+            List<UtxoInputPo> inputs = new ArrayList<>();
+            if (spentHeight > 0) {
+                UtxoOutputPo spend = new UtxoOutputPo();
+                spend.setTxHash(hash(spentHeight, i));
+                spend.setOutIndex(0);
+                spend.setStatus((byte) 2);
+                spends.add(spend);
+                UtxoInputPo input = new UtxoInputPo();
+                input.setTxHash(txHash);
+                input.setInIndex(0);
+                input.setFromHash(spend.getTxHash());
+                input.setFromIndex(0);
+                inputs.add(input);
+            }
+            List<UtxoOutputPo> outputs = new ArrayList<>();
+            List<TxAccountRelationPo> relations = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                UtxoOutputPo output = new UtxoOutputPo();
+                output.setTxHash(txHash);
+                output.setOutIndex(j);
+                output.setValue(100000000L);
+                output.setLockTime(0L);
+                output.setStatus((byte) 0);
+                output.setAddress(address(i, j));
+                output.setScript(new byte[25]);
+                outputs.add(output);
+                relations.add(new TxAccountRelationPo(txHash, output.getAddress()));
+            }
+            outputDao.updateStatus(spends);
+            inputDao.save(inputs);
+            outputDao.save(outputs);
+            relationDao.saveIfAbsent(relations);
+        }
+        txDao.save(txList);
+    }
+
+    private void run(String unit, final Runnable body) throws Throwable {
+        Annotation annotation = BlockPersistenceTest.class.getDeclaredMethod(unit).getAnnotation(DbSession.class);
+        interceptor.intercept(annotation, this, null, null, new BeanMethodInterceptorChain(new ArrayList<BeanMethodInterceptor>()) {
+            @Override
+            public Object execute(Annotation ann, Object obj, Method method, Object[] params) {
+                body.run();
+                return null;
+            }
+        });
+    }
+
+    private static NulsRuntimeException findNulsException(Throwable e) {
+        while (e != null && !(e instanceof NulsRuntimeException)) {
+            e = e.getCause();
+        }
+        Assert.assertNotNull(e);
+        return (NulsRuntimeException) e;
+    }
+
+    private static String hash(long height, int index) {
+        return String.format("%064x", height * 100000 + index);
+    }
+
+    private static String address(int index, int outIndex) {
+        return "Ns" + (index * 2 + outIndex);
+    }
+
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    public static class PrepareCounter implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+            prepared.incrementAndGet();
+            return invocation.proceed();
+        }
+
+        @Override
+        public Object plugin(Object target) {
+            return Plugin.wrap(target, this);
+        }
+
+        @Override
+        public void setProperties(Properties properties) {
+        }
+    }
+}
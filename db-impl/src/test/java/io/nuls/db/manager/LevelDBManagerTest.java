@@ -25,6 +25,8 @@ package io.nuls.db.manager;
 
 import io.nuls.core.cfg.NulsConfig;
 import io.nuls.core.constant.NulsConstant;
+import io.nuls.db.service.intf.BatchOperation;
+import io.nuls.db.service.intf.KVIterator;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -58,6 +60,8 @@ public class LevelDBManagerTest {
         testPut_3();
         testGet();
         testDelete();
+        testBatch();
+        testIterator();
         testListArea();
         testFullCreateArea();
     }
@@ -101,6 +105,58 @@ public class LevelDBManagerTest {
         Assert.assertNull(get(area, key));
     }
 
+    public void testBatch() throws UnsupportedEncodingException {
+        delete(area, "batch-put");
+        put(area, "batch-delete", "batch-delete-value");
+        BatchOperation batch = createWriteBatch(area);
+        batch.put("batch-put".getBytes(NulsConfig.DEFAULT_ENCODING), "batch-put-value".getBytes(NulsConfig.DEFAULT_ENCODING));
+        batch.delete("batch-delete".getBytes(NulsConfig.DEFAULT_ENCODING));
+        Assert.assertNull(get(area, "batch-put"));
+        Assert.assertTrue(batch.executeBatch().isSuccess());
+        Assert.assertEquals("batch-put-value", new String(get(area, "batch-put"), NulsConfig.DEFAULT_ENCODING));
+        Assert.assertNull(get(area, "batch-delete"));
+        Assert.assertNull(createWriteBatch("area-not-exists"));
+    }
+
+    public void testIterator() throws UnsupportedEncodingException {
+        delete(area, "iter-d");
+        put(area, "iter-a", "1");
+        put(area, "iter-b", "2");
+        put(area, "iter-c", "3");
+        put(area, "iter~", "other");
+        byte[] prefix = "iter-".getBytes(NulsConfig.DEFAULT_ENCODING);
+
+        KVIterator iterator = iterator(area, prefix, false);
+        // written after the snapshot, must not be seen
+        put(area, "iter-d", "4");
+        StringBuilder values = new StringBuilder();
+        while (iterator.hasNext()) {
+            values.append(new String(iterator.next().getValue(), NulsConfig.DEFAULT_ENCODING));
+        }
+        iterator.close();
+        Assert.assertEquals("123", values.toString());
+
+        iterator = iterator(area, prefix, true);
+        values = new StringBuilder();
+        while (iterator.hasNext()) {
+            values.append(new String(iterator.next().getValue(), NulsConfig.DEFAULT_ENCODING));
+        }
+        iterator.close();
+        Assert.assertEquals("4321", values.toString());
+
+        iterator = iterator(area, prefix, false);
+        iterator.seek("iter-b".getBytes(NulsConfig.DEFAULT_ENCODING));
+        Assert.assertEquals("iter-b", new String(iterator.next().getKey(), NulsConfig.DEFAULT_ENCODING));
+        iterator.close();
+
+        iterator = iterator(area, prefix, true);
+        iterator.seek("iter-bb".getBytes(NulsConfig.DEFAULT_ENCODING));
+        Assert.assertEquals("iter-b", new String(iterator.next().getKey(), NulsConfig.DEFAULT_ENCODING));
+        iterator.close();
+
+        Assert.assertNull(iterator("area-not-exists", null, false));
+    }
+
     public void testListArea() throws UnsupportedEncodingException {
         String[] areas = listArea();
         if(areas.length < getMax()) {
@@ -0,0 +1,69 @@
+package io.nuls.db.manager;
+
+import org.iq80.leveldb.CompressionType;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.Options;
+import org.iq80.leveldb.impl.Iq80DBFactory;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Properties;
+
+/**
+ * Cache, write buffer and compression of an area read from the config.
+ */
+public class LevelDBOptionsTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCacheBudgetIsSplitAcrossAreas() {
+        Properties properties = new Properties();
+        properties.setProperty("leveldb.cache.size", String.valueOf(320 * MB));
+        Assert.assertEquals(16 * MB, new LevelDBOptions(properties, 20).build("any").cacheSize());
+    }
+
+    @Test
+    public void testCacheNeverBelowDefault() {
+        Properties properties = new Properties();
+        properties.setProperty("leveldb.cache.size", String.valueOf(64 * MB));
+        Assert.assertEquals(LevelDBOptions.MIN_CACHE_SIZE, new LevelDBOptions(properties, 20).build("any").cacheSize());
+        Assert.assertEquals(LevelDBOptions.DEFAULT_CACHE_SIZE / 20, new LevelDBOptions(new Properties(), 20).build("any").cacheSize());
+    }
+
+    @Test
+    public void testOpenAreaWithConfiguredOptions() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("leveldb.cache.size", String.valueOf(64 * MB));
+        properties.setProperty("leveldb.writebuffer.size", String.valueOf(4 * MB));
+        properties.setProperty("leveldb.compression", "none");
+        properties.setProperty("leveldb.area.utxo.cache.size", String.valueOf(32 * MB));
+        properties.setProperty("leveldb.area.utxo.writebuffer.size", String.valueOf(16 * MB));
+        LevelDBOptions areaOptions = new LevelDBOptions(properties, 20);
+
+        Options other = areaOptions.build("other");
+        Assert.assertEquals(LevelDBOptions.MIN_CACHE_SIZE, other.cacheSize());
+        Assert.assertEquals(4 * MB, other.writeBufferSize());
+        Assert.assertEquals(CompressionType.NONE, other.compressionType());
+
+        Options options = areaOptions.build("utxo").createIfMissing(true);
+        Assert.assertEquals(32 * MB, options.cacheSize());
+        Assert.assertEquals(16 * MB, options.writeBufferSize());
+        Assert.assertEquals(CompressionType.NONE, options.compressionType());
+
+        File dir = folder.newFolder("utxo");
+        DB db = Iq80DBFactory.factory.open(dir, options);
+        try {
+            db.put(new byte[]{1}, new byte[]{2});
+            Assert.assertArrayEquals(new byte[]{2}, db.get(new byte[]{1}));
+        } finally {
+            db.close();
+        }
+    }
+}
@@ -41,4 +41,9 @@ public interface TxAccountRelationDataService extends BaseDataService<String, Tx
     long getRelationCount(String txHash, String address);
 
     List<TxAccountRelationPo> selectByAddress(String address);
+
+    /**
+     * save the relations, skipping the ones already saved
+     */
+    void saveIfAbsent(List<TxAccountRelationPo> list);
 }
@@ -44,8 +44,22 @@ public interface KVStorageService {
 
     Result delete(String area, String key);
 
+    Result delete(String area, byte[] key);
+
     byte[] get(String area, String key);
 
     byte[] get(String area, byte[] key);
 
+    /**
+     * @return a new batch bound to the area, or null if the area does not exist
+     */
+    BatchOperation createWriteBatch(String area);
+
+    /**
+     * @param prefix  only keys starting with it are returned, null for the whole area
+     * @param reverse iterate from the largest key to the smallest
+     * @return an iterator over a snapshot of the area, or null if the area does not exist
+     */
+    KVIterator iterator(String area, byte[] prefix, boolean reverse);
+
 }
@@ -0,0 +1,108 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.db.transactional;
+
+import io.nuls.core.utils.log.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The synchronizations registered while the @DbSession method starting a transaction runs.
+ * The method committing or rolling back the transaction calls them, in the order registered,
+ * a synchronization registered outside of a transaction is committed right away.
+ */
+public final class TransactionSynchronizationManager {
+
+    private static final ThreadLocal<List<TransactionSynchronization>> SYNCHRONIZATIONS = new ThreadLocal<>();
+
+    private TransactionSynchronizationManager() {
+    }
+
+    /**
+     * start collecting the synchronizations of the thread
+     *
+     * @return false if a transaction of the thread already collects them
+     */
+    public static boolean begin() {
+        if (null != SYNCHRONIZATIONS.get()) {
+            return false;
+        }
+        SYNCHRONIZATIONS.set(new ArrayList<TransactionSynchronization>());
+        return true;
+    }
+
+    public static boolean isActive() {
+        return null != SYNCHRONIZATIONS.get();
+    }
+
+    public static void register(TransactionSynchronization synchronization) {
+        List<TransactionSynchronization> list = SYNCHRONIZATIONS.get();
+        if (null == list) {
+            synchronization.afterCommit();
+            return;
+        }
+        list.add(synchronization);
+    }
+
+    /**
+     * the transaction committed, a failing synchronization does not stop the others, the first failure is thrown
+     */
+    public static void afterCommit() {
+        List<TransactionSynchronization> list = end();
+        RuntimeException failure = null;
+        for (TransactionSynchronization synchronization : list) {
+            try {
+                synchronization.afterCommit();
+            } catch (RuntimeException e) {
+                Log.error(e);
+                if (null == failure) {
+                    failure = e;
+                }
+            }
+        }
+        if (null != failure) {
+            throw failure;
+        }
+    }
+
+    public static void afterRollback() {
+        for (TransactionSynchronization synchronization : end()) {
+            try {
+                synchronization.afterRollback();
+            } catch (RuntimeException e) {
+                Log.error(e);
+            }
+        }
+    }
+
+    private static List<TransactionSynchronization> end() {
+        List<TransactionSynchronization> list = SYNCHRONIZATIONS.get();
+        SYNCHRONIZATIONS.remove();
+        if (null == list) {
+            return new ArrayList<>();
+        }
+        return list;
+    }
+}
@@ -31,7 +31,14 @@ package io.nuls.db.transactional.annotation;
 public enum  PROPAGATION {
     NONE("none"),
     REQUIRED("required"),
-    INDEPENDENT("independent");
+    INDEPENDENT("independent"),
+    /**
+     * The unit of work of a block: joins the transaction of the caller like REQUIRED,
+     * but the statements of the method are queued in JDBC batches and committed with the caller's transaction.
+     * The rows a DAO saves are sent before the save returns, so it reports the real count and throws its failure.
+     * Other updates and deletes are sent with the next query or when the method returns, their counts are not known.
+     */
+    BATCH("batch");
 
 
     PROPAGATION(String value) {
@@ -41,6 +41,11 @@ public class CommonDigestHandler extends AbstractEventHandler<CommonDigestEvent>
     public void onEvent(CommonDigestEvent event, String fromId) {
         GetEventBodyEvent getEventBodyEvent = new GetEventBodyEvent();
         getEventBodyEvent.setEventBody(event.getEventBody());
-        eventBroadcaster.sendToNode(getEventBodyEvent, fromId);
+        eventBroadcaster.sendToNodeAysn(getEventBodyEvent, fromId);
+    }
+
+    @Override
+    public boolean isNonBlocking() {
+        return true;
     }
 }
@@ -46,6 +46,11 @@ public class GetEventBodyHandler extends AbstractEventHandler<GetEventBodyEvent>
             Log.warn("get event faild,node:" + fromId + ",event:" + event.getEventBody().getDigestHex());
             return;
         }
-        eventBroadcaster.sendToNode(eventBody, fromId);
+        eventBroadcaster.sendToNodeAysn(eventBody, fromId);
+    }
+
+    @Override
+    public boolean isNonBlocking() {
+        return true;
     }
 }
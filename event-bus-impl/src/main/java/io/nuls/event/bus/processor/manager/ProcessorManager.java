@@ -23,7 +23,10 @@
  */
 package io.nuls.event.bus.processor.manager;
 
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.WorkHandler;
+import com.lmax.disruptor.dsl.ProducerType;
 import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.constant.NulsConstant;
 import io.nuls.core.exception.NulsRuntimeException;
@@ -51,20 +54,30 @@ import java.util.concurrent.ExecutorService;
 public class ProcessorManager<E extends io.nuls.protocol.event.base.BaseEvent, H extends NulsEventHandler<? extends BaseEvent>> {
     private final Map<String, H> handlerMap = new HashMap<>();
     private final Map<Class, Set<String>> eventHandlerMapping = new HashMap<>();
+    private volatile Map<Class, NulsEventHandler[]> dispatchTable = new HashMap<>();
     private DisruptorUtil<DisruptorEvent<ProcessData<E>>> disruptorService = DisruptorUtil.getInstance();
     private ExecutorService pool;
     private String disruptorName;
 
     public ProcessorManager(String disruptorName, boolean eventChecking) {
+        this(disruptorName, eventChecking, EventBusConstant.DEFAULT_RING_BUFFER_SIZE, new BlockingWaitStrategy());
+    }
+
+    /**
+     * @param ringBufferSize the size of the ring buffer, a power of 2
+     * @param waitStrategy   how the dispatch threads wait for events
+     */
+    public ProcessorManager(String disruptorName, boolean eventChecking, int ringBufferSize, WaitStrategy waitStrategy) {
         this.disruptorName = disruptorName;
-        this.init(eventChecking);
+        this.init(eventChecking, ringBufferSize, waitStrategy);
     }
 
-    public final void init(boolean eventChecking) {
+    public final void init(boolean eventChecking, int ringBufferSize, WaitStrategy waitStrategy) {
 
         pool = TaskManager.createThreadPool(EventBusConstant.THREAD_COUNT, 0,
                 new NulsThreadFactory(NulsConstant.MODULE_ID_EVENT_BUS, EventBusConstant.THREAD_POOL_NAME));
-        disruptorService.createDisruptor(disruptorName, EventBusConstant.DEFAULT_RING_BUFFER_SIZE);
+        //events are offered by the netty io threads and by any task thread
+        disruptorService.createDisruptor(disruptorName, ringBufferSize, ProducerType.MULTI, waitStrategy);
 
         List<EventDispatchThread> handlerList = new ArrayList<>();
         for (int i = 0; i < EventBusConstant.THREAD_COUNT; i++) {
@@ -92,7 +105,14 @@ public class ProcessorManager<E extends io.nuls.protocol.event.base.BaseEvent, H
         disruptorService.offer(disruptorName, data);
     }
 
-    public String registerEventHandler(String handlerId, Class<E> eventClass, H handler) {
+    public void offer(Collection<ProcessData<E>> dataList) {
+        for (ProcessData<E> data : dataList) {
+            EventManager.care(data.getData().getClass());
+        }
+        disruptorService.offer(disruptorName, dataList);
+    }
+
+    public synchronized String registerEventHandler(String handlerId, Class<E> eventClass, H handler) {
         EventManager.putEvent(eventClass);
         AssertUtil.canNotEmpty(eventClass, "registerEventHandler faild");
         AssertUtil.canNotEmpty(handler, "registerEventHandler faild");
@@ -101,6 +121,7 @@ public class ProcessorManager<E extends io.nuls.protocol.event.base.BaseEvent, H
         }
         handlerMap.put(handlerId, handler);
         cacheHandlerMapping(eventClass, handlerId);
+        rebuildDispatchTable();
         return handlerId;
     }
 
@@ -108,43 +129,69 @@ public class ProcessorManager<E extends io.nuls.protocol.event.base.BaseEvent, H
 
         Set<String> ids = eventHandlerMapping.get(eventClass);
         if (null == ids) {
-            ids = new HashSet<>();
+            ids = new LinkedHashSet<>();
         }
-//        boolean b =
         ids.add(handlerId);
         eventHandlerMapping.put(eventClass, ids);
-//        if (!b) {
-//            throw new NulsRuntimeException(ErrorCode.FAILED, "registerEventHandler faild");
-//        }
-//        cacheHandlerMapping((Class<E>) eventClass.getSuperclass(), handlerId);
     }
 
-    public void removeEventHandler(String handlerId) {
-        handlerMap.remove(handlerId);
+    public synchronized void removeEventHandler(String handlerId) {
+        if (null == handlerMap.remove(handlerId)) {
+            return;
+        }
+        for (Set<String> ids : eventHandlerMapping.values()) {
+            ids.remove(handlerId);
+        }
+        rebuildDispatchTable();
     }
 
-    private Set<NulsEventHandler> getHandlerList(Class<E> clazz) {
-        Set<String> ids = eventHandlerMapping.get(clazz);
-        Set<NulsEventHandler> set = new HashSet<>();
-        do {
-            if (null == ids || ids.isEmpty()) {
-                break;
-            }
-            for (String id : ids) {
-                if (StringUtils.isBlank(id)) {
-                    continue;
-                }
-                NulsEventHandler handler = handlerMap.get(id);
-                if (null == handler) {
-                    continue;
+    /**
+     * Recomputes the handlers of every event class dispatched so far, the table is replaced and never changed,
+     * so the dispatching threads read it without a lock.
+     */
+    private void rebuildDispatchTable() {
+        Map<Class, NulsEventHandler[]> table = new HashMap<>();
+        for (Class clazz : dispatchTable.keySet()) {
+            table.put(clazz, collectHandlers(clazz));
+        }
+        for (Class clazz : eventHandlerMapping.keySet()) {
+            table.put(clazz, collectHandlers(clazz));
+        }
+        dispatchTable = table;
+    }
+
+    private synchronized NulsEventHandler[] addToDispatchTable(Class clazz) {
+        NulsEventHandler[] handlers = dispatchTable.get(clazz);
+        if (null != handlers) {
+            return handlers;
+        }
+        handlers = collectHandlers(clazz);
+        Map<Class, NulsEventHandler[]> table = new HashMap<>(dispatchTable);
+        table.put(clazz, handlers);
+        dispatchTable = table;
+        return handlers;
+    }
+
+    /**
+     * The handlers of the class and of its super classes up to BaseEvent, each one once
+     */
+    private NulsEventHandler[] collectHandlers(Class clazz) {
+        Set<NulsEventHandler> set = new LinkedHashSet<>();
+        for (Class c = clazz; null != c; c = c.getSuperclass()) {
+            Set<String> ids = eventHandlerMapping.get(c);
+            if (null != ids) {
+                for (String id : ids) {
+                    NulsEventHandler handler = handlerMap.get(id);
+                    if (null != handler) {
+                        set.add(handler);
+                    }
                 }
-                set.add(handler);
             }
-        } while (false);
-        if (!clazz.equals(BaseEvent.class)) {
-            set.addAll(getHandlerList((Class<E>) clazz.getSuperclass()));
+            if (c.equals(BaseEvent.class)) {
+                break;
+            }
         }
-        return set;
+        return set.toArray(new NulsEventHandler[set.size()]);
     }
 
 
@@ -152,9 +199,26 @@ public class ProcessorManager<E extends io.nuls.protocol.event.base.BaseEvent, H
         if (null == data) {
             throw new NulsRuntimeException(ErrorCode.FAILED, "execute event handler faild,the event is null!");
         }
-        Set<NulsEventHandler> handlerSet = this.getHandlerList((Class<E>) data.getData().getClass());
-        for (NulsEventHandler handler : handlerSet) {
-            pool.execute(new NulsEventCall(data, handler));
+        Class clazz = data.getData().getClass();
+        NulsEventHandler[] handlers = dispatchTable.get(clazz);
+        if (null == handlers) {
+            handlers = addToDispatchTable(clazz);
+        }
+        boolean hasNonBlocking = false;
+        for (NulsEventHandler handler : handlers) {
+            if (handler.isNonBlocking()) {
+                hasNonBlocking = true;
+            } else {
+                pool.execute(new NulsEventCall(data, handler));
+            }
+        }
+        if (!hasNonBlocking) {
+            return;
+        }
+        for (NulsEventHandler handler : handlers) {
+            if (handler.isNonBlocking()) {
+                NulsEventCall.call(data, handler);
+            }
         }
     }
 }
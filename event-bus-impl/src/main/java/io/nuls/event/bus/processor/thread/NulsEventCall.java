@@ -42,6 +42,13 @@ public class NulsEventCall<T extends io.nuls.protocol.event.base.BaseEvent> impl
 
     @Override
     public void run() {
+        call(data, handler);
+    }
+
+    /**
+     * Runs the filters and the handler on the current thread
+     */
+    public static <T extends io.nuls.protocol.event.base.BaseEvent> void call(ProcessData<T> data, NulsEventHandler<T> handler) {
         if (null == data || null == handler) {
             return;
         }
@@ -56,6 +63,5 @@ public class NulsEventCall<T extends io.nuls.protocol.event.base.BaseEvent> impl
         } catch (Exception e) {
             Log.error(e);
         }
-        return;
     }
 }
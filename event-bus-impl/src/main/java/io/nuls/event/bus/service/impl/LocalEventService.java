@@ -23,12 +23,14 @@
  */
 package io.nuls.event.bus.service.impl;
 
+import io.nuls.core.cfg.NulsConfig;
 import io.nuls.protocol.event.base.BaseEvent;
 import io.nuls.core.utils.log.Log;
 import io.nuls.event.bus.constant.EventBusConstant;
 import io.nuls.event.bus.handler.AbstractEventHandler;
 import io.nuls.event.bus.processor.manager.ProcessData;
 import io.nuls.event.bus.processor.manager.ProcessorManager;
+import io.nuls.event.bus.utils.disruptor.DisruptorUtil;
 
 /**
  * @author Niels
@@ -40,7 +42,12 @@ public class LocalEventService {
     private final ProcessorManager processorManager;
 
     private LocalEventService() {
-        this.processorManager = new ProcessorManager(EventBusConstant.DISRUPTOR_NAME_LOCAL,false);
+        int ringBufferSize = NulsConfig.MODULES_CONFIG.getCfgValue(EventBusConstant.CFG_EVENT_BUS_SECTION,
+                EventBusConstant.CFG_LOCAL_RING_SIZE, EventBusConstant.DEFAULT_RING_BUFFER_SIZE);
+        String waitStrategy = NulsConfig.MODULES_CONFIG.getCfgValue(EventBusConstant.CFG_EVENT_BUS_SECTION,
+                EventBusConstant.CFG_LOCAL_WAIT_STRATEGY, EventBusConstant.WAIT_STRATEGY_BLOCKING);
+        this.processorManager = new ProcessorManager(EventBusConstant.DISRUPTOR_NAME_LOCAL, false, ringBufferSize,
+                DisruptorUtil.getWaitStrategy(waitStrategy));
     }
 
     public static LocalEventService getInstance() {
@@ -23,6 +23,7 @@
  */
 package io.nuls.event.bus.service.impl;
 
+import io.nuls.core.cfg.NulsConfig;
 import io.nuls.protocol.event.base.BaseEvent;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.utils.log.Log;
@@ -30,6 +31,7 @@ import io.nuls.event.bus.constant.EventBusConstant;
 import io.nuls.event.bus.handler.AbstractEventHandler;
 import io.nuls.event.bus.processor.manager.ProcessData;
 import io.nuls.event.bus.processor.manager.ProcessorManager;
+import io.nuls.event.bus.utils.disruptor.DisruptorUtil;
 import io.nuls.protocol.event.manager.EventManager;
 
 /**
@@ -42,7 +44,12 @@ public class NetworkEventService {
     private final ProcessorManager processorManager;
 
     private NetworkEventService() {
-        this.processorManager = new ProcessorManager(EventBusConstant.DISRUPTOR_NAME_NETWORK,true);
+        int ringBufferSize = NulsConfig.MODULES_CONFIG.getCfgValue(EventBusConstant.CFG_EVENT_BUS_SECTION,
+                EventBusConstant.CFG_NETWORK_RING_SIZE, EventBusConstant.DEFAULT_RING_BUFFER_SIZE);
+        String waitStrategy = NulsConfig.MODULES_CONFIG.getCfgValue(EventBusConstant.CFG_EVENT_BUS_SECTION,
+                EventBusConstant.CFG_NETWORK_WAIT_STRATEGY, EventBusConstant.WAIT_STRATEGY_BLOCKING);
+        this.processorManager = new ProcessorManager(EventBusConstant.DISRUPTOR_NAME_NETWORK, true, ringBufferSize,
+                DisruptorUtil.getWaitStrategy(waitStrategy));
     }
 
     public static NetworkEventService getInstance() {
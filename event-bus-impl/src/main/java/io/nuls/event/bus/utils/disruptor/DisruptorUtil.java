@@ -33,11 +33,14 @@ import io.nuls.core.module.service.ModuleService;
 import io.nuls.core.thread.manager.NulsThreadFactory;
 import io.nuls.core.utils.log.Log;
 import io.nuls.core.utils.param.AssertUtil;
+import io.nuls.event.bus.constant.EventBusConstant;
 import io.nuls.event.bus.module.impl.EventBusModuleBootstrap;
 import io.nuls.event.bus.processor.manager.ProcessData;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Niels
@@ -45,7 +48,7 @@ import java.util.Map;
  */
 public class DisruptorUtil<T extends DisruptorEvent> {
     private static final DisruptorUtil INSTANCE = new DisruptorUtil();
-    private static final Map<String, Disruptor<DisruptorEvent>> DISRUPTOR_MAP = new HashMap<>();
+    private static final Map<String, Disruptor<DisruptorEvent>> DISRUPTOR_MAP = new ConcurrentHashMap<>();
 
     public static DisruptorUtil getInstance() {
         return INSTANCE;
@@ -62,30 +65,51 @@ public class DisruptorUtil<T extends DisruptorEvent> {
     };
 
     /**
-     * create a disruptor
+     * create a disruptor, which takes events from any thread and blocks its consumers while it is empty
      *
      * @param name           The title of the disruptor
      * @param ringBufferSize The size of ringBuffer
      */
     public void createDisruptor(String name, int ringBufferSize) {
+        createDisruptor(name, ringBufferSize, ProducerType.MULTI, new BlockingWaitStrategy());
+    }
+
+    /**
+     * create a disruptor
+     *
+     * @param name           The title of the disruptor
+     * @param ringBufferSize The size of ringBuffer, a power of 2
+     * @param producerType   SINGLE only if all events are offered by one and the same thread
+     * @param waitStrategy   How the consumers wait for the next event
+     */
+    public void createDisruptor(String name, int ringBufferSize, ProducerType producerType, WaitStrategy waitStrategy) {
         if (DISRUPTOR_MAP.keySet().contains(name)) {
             throw new NulsRuntimeException(ErrorCode.FAILED, "create disruptor faild,the name is repetitive!");
         }
 
         Disruptor<DisruptorEvent> disruptor = new Disruptor<DisruptorEvent>(EVENT_FACTORY,
-                ringBufferSize, new NulsThreadFactory(ModuleService.getInstance().getModuleId(EventBusModuleBootstrap.class), name), ProducerType.SINGLE,
-                new BlockingWaitStrategy());
+                ringBufferSize, new NulsThreadFactory(ModuleService.getInstance().getModuleId(EventBusModuleBootstrap.class), name), producerType,
+                waitStrategy);
         disruptor.setDefaultExceptionHandler(new IgnoreExceptionHandler());
-        //SleepingWaitStrategy
-//        disruptor.handleEventsWith(new EventHandler<DisruptorEvent>() {
-//            @Override
-//            public void onEvent(DisruptorEvent disruptorEvent, long l, boolean b) throws Exception {
-//                Log.debug(disruptorEvent.getData() + "");
-//            }
-//        });
         DISRUPTOR_MAP.put(name, disruptor);
     }
 
+    /**
+     * get the wait strategy by its name in the config, see {@link EventBusConstant#WAIT_STRATEGY_BLOCKING}
+     */
+    public static WaitStrategy getWaitStrategy(String name) {
+        if (EventBusConstant.WAIT_STRATEGY_YIELDING.equals(name)) {
+            return new YieldingWaitStrategy();
+        } else if (EventBusConstant.WAIT_STRATEGY_SLEEPING.equals(name)) {
+            return new SleepingWaitStrategy();
+        } else if (EventBusConstant.WAIT_STRATEGY_BUSY_SPIN.equals(name)) {
+            return new BusySpinWaitStrategy();
+        } else if (!EventBusConstant.WAIT_STRATEGY_BLOCKING.equals(name)) {
+            Log.warn("unknown wait strategy:" + name + ", use " + EventBusConstant.WAIT_STRATEGY_BLOCKING);
+        }
+        return new BlockingWaitStrategy();
+    }
+
     /**
      * start a disruptor service
      *
@@ -133,6 +157,36 @@ public class DisruptorUtil<T extends DisruptorEvent> {
         }
     }
 
+    /**
+     * add all the data objs to the disruptor named the field name,
+     * the sequences are claimed as one range for as many objs as the ring buffer holds
+     *
+     * @param name
+     * @param objs
+     */
+    public void offer(String name, Collection<?> objs) {
+        Disruptor<DisruptorEvent> disruptor = DISRUPTOR_MAP.get(name);
+        AssertUtil.canNotEmpty(disruptor, "the disruptor is not exist!name:" + name);
+        RingBuffer<DisruptorEvent> ringBuffer = disruptor.getRingBuffer();
+        Iterator<?> iterator = objs.iterator();
+        int remaining = objs.size();
+        while (remaining > 0) {
+            int count = Math.min(remaining, ringBuffer.getBufferSize());
+            long hi = ringBuffer.next(count);
+            long lo = hi - (count - 1);
+            try {
+                for (long sequence = lo; sequence <= hi; sequence++) {
+                    ringBuffer.get(sequence).setData(iterator.hasNext() ? iterator.next() : null);
+                }
+            } catch (Exception e) {
+                Log.error(e);
+            } finally {
+                ringBuffer.publish(lo, hi);
+            }
+            remaining -= count;
+        }
+    }
+
     /**
      * add some handler to worker pool of the disruptor
      *
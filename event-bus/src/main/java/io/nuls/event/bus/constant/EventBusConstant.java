@@ -36,5 +36,20 @@ public interface EventBusConstant {
     String THREAD_POOL_NAME = "nuls-process-dispatcher";
     int DEFAULT_RING_BUFFER_SIZE = 1 << 20;
 
+    /**
+     * --------[event-bus configs in modules.ini] -------
+     * ring sizes must be a power of 2, the wait strategy is one of blocking, yielding, sleeping, busy-spin
+     */
+    String CFG_EVENT_BUS_SECTION = "event-bus";
+    String CFG_LOCAL_RING_SIZE = "local.ring.size";
+    String CFG_LOCAL_WAIT_STRATEGY = "local.wait.strategy";
+    String CFG_NETWORK_RING_SIZE = "network.ring.size";
+    String CFG_NETWORK_WAIT_STRATEGY = "network.wait.strategy";
+
+    String WAIT_STRATEGY_BLOCKING = "blocking";
+    String WAIT_STRATEGY_YIELDING = "yielding";
+    String WAIT_STRATEGY_SLEEPING = "sleeping";
+    String WAIT_STRATEGY_BUSY_SPIN = "busy-spin";
+
 
 }
@@ -46,4 +46,9 @@ public abstract class AbstractEventHandler<T extends BaseEvent> implements NulsE
     public NulsEventFilterChain getFilterChain() {
         return filterChain;
     }
+
+    @Override
+    public boolean isNonBlocking() {
+        return false;
+    }
 }
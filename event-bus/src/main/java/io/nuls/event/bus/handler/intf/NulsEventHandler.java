@@ -43,4 +43,11 @@ public interface NulsEventHandler<T extends BaseEvent> {
      * @param fromId hash of the node who send this event!
      */
     void onEvent(T event, String fromId) throws NulsException;
+
+    /**
+     * A non-blocking handler is called on the event bus thread that dispatches the event,
+     * the others are handed to the handler pool.
+     * Return true only when onEvent never waits for io, locks or other threads.
+     */
+    boolean isNonBlocking();
 }
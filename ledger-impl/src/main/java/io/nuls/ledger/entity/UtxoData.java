@@ -36,6 +36,7 @@ import io.nuls.protocol.utils.io.NulsOutputStreamBuffer;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -125,6 +126,18 @@ public class UtxoData extends CoinData {
 
     }
 
+    @Override
+    public Set<String> getFromTxHashes() {
+        if (null == inputs || inputs.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> hashSet = new HashSet<>();
+        for (UtxoInput input : inputs) {
+            hashSet.add(input.getFromHash().getDigestHex());
+        }
+        return hashSet;
+    }
+
     @Override
     public Na getTotalNa() throws NulsException {
         if (null == this.totalNa) {
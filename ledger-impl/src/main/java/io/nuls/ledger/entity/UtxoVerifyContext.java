@@ -0,0 +1,106 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.entity;
+
+import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
+import io.nuls.protocol.model.Transaction;
+
+import java.util.*;
+
+public class UtxoVerifyContext implements CoinVerifyContext {
+
+    private final List<Transaction> txList = new ArrayList<>();
+
+    /**
+     * outputs created by the accepted txs and not spent by any of them
+     */
+    private final Map<String, UtxoOutput> outputMap = new HashMap<>();
+
+    /**
+     * inputs of the accepted txs
+     */
+    private final Set<String> spentSet = new HashSet<>();
+
+    public UtxoVerifyContext() {
+    }
+
+    public UtxoVerifyContext(List<Transaction> txList) {
+        if (null != txList) {
+            for (Transaction tx : txList) {
+                accept(tx);
+            }
+        }
+    }
+
+    @Override
+    public void accept(Transaction tx) {
+        txList.add(tx);
+        if (!(tx instanceof AbstractCoinTransaction)) {
+            return;
+        }
+        UtxoData utxoData = (UtxoData) ((AbstractCoinTransaction) tx).getCoinData();
+        if (null == utxoData) {
+            return;
+        }
+        if (null != utxoData.getInputs()) {
+            for (UtxoInput input : utxoData.getInputs()) {
+                spentSet.add(input.getKey());
+                outputMap.remove(input.getKey());
+            }
+        }
+        if (null != utxoData.getOutputs()) {
+            String txHash = tx.getHash().getDigestHex();
+            for (UtxoOutput output : utxoData.getOutputs()) {
+                String key = txHash + "-" + output.getIndex();
+                if (!spentSet.contains(key)) {
+                    outputMap.put(key, output);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the output created by an accepted tx, null if there is none or it is already spent
+     */
+    public UtxoOutput getOutput(String key) {
+        return outputMap.get(key);
+    }
+
+    /**
+     * @return true if an accepted tx already spends the output
+     */
+    public boolean isSpent(String key) {
+        return spentSet.contains(key);
+    }
+
+    @Override
+    public List<Transaction> getTxList() {
+        return Collections.unmodifiableList(txList);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return txList.isEmpty();
+    }
+}
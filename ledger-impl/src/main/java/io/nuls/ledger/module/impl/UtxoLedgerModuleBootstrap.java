@@ -23,8 +23,11 @@
  */
 package io.nuls.ledger.module.impl;
 
+import io.nuls.core.cfg.NulsConfig;
+import io.nuls.core.constant.ModuleStatusEnum;
 import io.nuls.core.constant.NulsConstant;
 import io.nuls.core.thread.manager.TaskManager;
+import io.nuls.ledger.constant.LedgerConstant;
 import io.nuls.ledger.entity.listener.CoinDataTxService;
 import io.nuls.ledger.entity.tx.CoinBaseTransaction;
 import io.nuls.ledger.entity.tx.LockNulsTransaction;
@@ -33,6 +36,7 @@ import io.nuls.ledger.entity.tx.UnlockNulsTransaction;
 import io.nuls.ledger.entity.validator.CoinTransactionValidatorManager;
 import io.nuls.ledger.event.notice.BalanceChangeNotice;
 import io.nuls.ledger.module.AbstractLedgerModule;
+import io.nuls.ledger.selection.CoinSelectors;
 import io.nuls.ledger.service.impl.UtxoCoinDataProvider;
 import io.nuls.ledger.service.impl.UtxoCoinManager;
 import io.nuls.ledger.service.impl.UtxoLedgerServiceImpl;
@@ -40,6 +44,7 @@ import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.ledger.thread.ReSendTxThread;
 import io.nuls.ledger.thread.SmallChangeThread;
 import io.nuls.ledger.validator.TxFieldValidator;
+import io.nuls.ledger.validator.SignVerifiedCache;
 import io.nuls.ledger.validator.TxSignValidator;
 import io.nuls.ledger.validator.UtxoTxInputsValidator;
 import io.nuls.ledger.validator.UtxoTxOutputsValidator;
@@ -69,6 +74,8 @@ public class UtxoLedgerModuleBootstrap extends AbstractLedgerModule {
         registerService();
         ledgerService = NulsContext.getServiceBean(LedgerService.class);
         coinManager = UtxoCoinManager.getInstance();
+        coinManager.setCoinSelector(CoinSelectors.getSelector(NulsConfig.MODULES_CONFIG.getCfgValue(
+                LedgerConstant.CFG_LEDGER_SECTION, LedgerConstant.CFG_COIN_SELECTION, LedgerConstant.COIN_SELECTION_BNB)));
         addNormalTxValidator();
     }
 
@@ -116,8 +123,10 @@ public class UtxoLedgerModuleBootstrap extends AbstractLedgerModule {
 
     @Override
     public String getInfo() {
-        //todo
-        return null;
+        if (this.getStatus() == ModuleStatusEnum.UNINITIALIZED || this.getStatus() == ModuleStatusEnum.INITIALIZING) {
+            return "";
+        }
+        return "module:[ledger]:\n" + SignVerifiedCache.getInstance().getInfo();
     }
 
 }
@@ -0,0 +1,145 @@
+/**
+ * MIT License
+ * *
+ * Copyright (c) 2017-2018 nuls.io
+ * *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.selection;
+
+import io.nuls.ledger.entity.UtxoOutput;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * Looks for outputs that add up to the target exactly, so the tx needs no change output.
+ * A depth first search over the {@link #MAX_OUTPUTS} largest outputs below the target, largest first, cut off when the outputs left
+ * can not reach the target and given up after {@link #MAX_TRIES} steps.
+ * Without an exact match the smallest output covering the target alone is spent,
+ * and when there is none the largest outputs are spent first.
+ */
+public class BranchAndBoundSelector implements CoinSelector {
+
+    private static final BranchAndBoundSelector INSTANCE = new BranchAndBoundSelector();
+
+    private static final int MAX_TRIES = 100000;
+
+    /**
+     * only the largest outputs below the target are searched, a sub set of a large set is not counted in constant time
+     */
+    private static final int MAX_OUTPUTS = 1000;
+
+    private BranchAndBoundSelector() {
+    }
+
+    public static BranchAndBoundSelector getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public List<UtxoOutput> select(NavigableSet<UtxoOutput> candidates, long target, int maxInputs) {
+        if (target <= 0) {
+            return new ArrayList<>();
+        }
+        if (maxInputs <= 0) {
+            return null;
+        }
+        UtxoOutput covering = candidates.ceiling(CoinSelectors.probe(target));
+        if (covering != null && covering.getValue() == target) {
+            return Collections.singletonList(covering);
+        }
+
+        List<UtxoOutput> exact = search(candidates.headSet(CoinSelectors.probe(target), false), target, maxInputs);
+        if (exact != null) {
+            return exact;
+        }
+        if (covering != null) {
+            return Collections.singletonList(covering);
+        }
+        return LargestFirstSelector.getInstance().select(candidates, target, maxInputs);
+    }
+
+    private List<UtxoOutput> search(NavigableSet<UtxoOutput> smaller, long target, int maxInputs) {
+        List<UtxoOutput> list = new ArrayList<>();
+        for (Iterator<UtxoOutput> iterator = smaller.descendingIterator(); iterator.hasNext() && list.size() < MAX_OUTPUTS; ) {
+            list.add(iterator.next());
+        }
+        int size = list.size();
+        UtxoOutput[] outputs = list.toArray(new UtxoOutput[size]);
+        long[] values = new long[size];
+        long[] rest = new long[size + 1];
+        for (int i = size - 1; i >= 0; i--) {
+            values[i] = outputs[i].getValue();
+            rest[i] = rest[i + 1] + values[i];
+        }
+        if (rest[0] < target) {
+            return null;
+        }
+
+        int[] path = new int[Math.min(size, maxInputs)];
+        int depth = 0;
+        long sum = 0;
+        int index = 0;
+        for (int tries = 0; tries < MAX_TRIES; tries++) {
+            if (sum == target) {
+                List<UtxoOutput> selected = new ArrayList<>(depth);
+                for (int i = 0; i < depth; i++) {
+                    selected.add(outputs[path[i]]);
+                }
+                return selected;
+            }
+            //the outputs too large for what is missing are jumped over
+            index = firstNotAbove(values, index, target - sum);
+            if (index >= size || sum + rest[index] < target || depth == path.length) {
+                if (depth == 0) {
+                    return null;
+                }
+                //leave the last output out and go on with the next smaller one
+                int last = path[--depth];
+                sum -= values[last];
+                index = firstNotAbove(values, last + 1, values[last] - 1);
+                continue;
+            }
+            path[depth++] = index;
+            sum += values[index++];
+        }
+        return null;
+    }
+
+    /**
+     * the first index from the given one with a value not above the limit, the values are in descending order
+     */
+    private static int firstNotAbove(long[] values, int from, long limit) {
+        int low = from;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] > limit) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
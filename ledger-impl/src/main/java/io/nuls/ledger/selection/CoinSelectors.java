@@ -0,0 +1,62 @@
+/**
+ * MIT License
+ * *
+ * Copyright (c) 2017-2018 nuls.io
+ * *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.selection;
+
+import io.nuls.core.utils.log.Log;
+import io.nuls.ledger.constant.LedgerConstant;
+import io.nuls.ledger.entity.UtxoOutput;
+
+public final class CoinSelectors {
+
+    private CoinSelectors() {
+    }
+
+    /**
+     * the selector configured by coin.selection in the ledger section of modules.ini
+     */
+    public static CoinSelector getSelector(String name) {
+        if (LedgerConstant.COIN_SELECTION_LARGEST_FIRST.equals(name)) {
+            return LargestFirstSelector.getInstance();
+        } else if (LedgerConstant.COIN_SELECTION_CONSOLIDATE_SMALL.equals(name)) {
+            return ConsolidateSmallSelector.getInstance();
+        } else if (!LedgerConstant.COIN_SELECTION_BNB.equals(name)) {
+            Log.warn("unknown coin selection:" + name + ", use " + LedgerConstant.COIN_SELECTION_BNB);
+        }
+        return BranchAndBoundSelector.getInstance();
+    }
+
+    /**
+     * an output ordered before every candidate of the given value, to look up a value in the candidates
+     */
+    static UtxoOutput probe(long value) {
+        UtxoOutput probe = new UtxoOutput() {
+            @Override
+            public String getKey() {
+                return "";
+            }
+        };
+        probe.setValue(value);
+        return probe;
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * MIT License
+ * *
+ * Copyright (c) 2017-2018 nuls.io
+ * *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.selection;
+
+import io.nuls.ledger.entity.UtxoOutput;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * Spends the smallest outputs first to clean up the small change of a wallet.
+ * When the smallest maxInputs outputs do not cover the target, the largest of them are swapped
+ * for the largest outputs left until the target is covered.
+ */
+public class ConsolidateSmallSelector implements CoinSelector {
+
+    private static final ConsolidateSmallSelector INSTANCE = new ConsolidateSmallSelector();
+
+    private ConsolidateSmallSelector() {
+    }
+
+    public static ConsolidateSmallSelector getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public List<UtxoOutput> select(NavigableSet<UtxoOutput> candidates, long target, int maxInputs) {
+        List<UtxoOutput> selected = new ArrayList<>();
+        if (target <= 0) {
+            return selected;
+        }
+        if (maxInputs <= 0) {
+            return null;
+        }
+        long sum = 0;
+        for (UtxoOutput output : candidates) {
+            if (selected.size() == maxInputs) {
+                break;
+            }
+            selected.add(output);
+            sum += output.getValue();
+            if (sum >= target) {
+                return selected;
+            }
+        }
+        if (selected.size() < maxInputs) {
+            return null;
+        }
+
+        List<UtxoOutput> large = new ArrayList<>();
+        Iterator<UtxoOutput> iterator = candidates.tailSet(selected.get(selected.size() - 1), false).descendingIterator();
+        while (iterator.hasNext() && !selected.isEmpty()) {
+            UtxoOutput small = selected.remove(selected.size() - 1);
+            UtxoOutput output = iterator.next();
+            large.add(output);
+            sum += output.getValue() - small.getValue();
+            if (sum >= target) {
+                selected.addAll(large);
+                return selected;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * MIT License
+ * *
+ * Copyright (c) 2017-2018 nuls.io
+ * *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.selection;
+
+import io.nuls.ledger.entity.UtxoOutput;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * Spends the largest outputs first, so the tx has as few inputs as possible.
+ */
+public class LargestFirstSelector implements CoinSelector {
+
+    private static final LargestFirstSelector INSTANCE = new LargestFirstSelector();
+
+    private LargestFirstSelector() {
+    }
+
+    public static LargestFirstSelector getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public List<UtxoOutput> select(NavigableSet<UtxoOutput> candidates, long target, int maxInputs) {
+        List<UtxoOutput> selected = new ArrayList<>();
+        if (target <= 0) {
+            return selected;
+        }
+        long sum = 0;
+        Iterator<UtxoOutput> iterator = candidates.descendingIterator();
+        while (iterator.hasNext() && selected.size() < maxInputs) {
+            UtxoOutput output = iterator.next();
+            selected.add(output);
+            sum += output.getValue();
+            if (sum >= target) {
+                return selected;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,441 @@
+/**
+ * MIT License
+ * *
+ * Copyright (c) 2017-2018 nuls.io
+ * *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.service.impl;
+
+import io.nuls.core.constant.NulsConstant;
+import io.nuls.core.utils.date.TimeService;
+import io.nuls.ledger.entity.Balance;
+import io.nuls.ledger.entity.OutPutStatusEnum;
+import io.nuls.ledger.entity.UtxoData;
+import io.nuls.ledger.entity.UtxoInput;
+import io.nuls.ledger.entity.UtxoOutput;
+import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
+import io.nuls.ledger.selection.CoinSelector;
+import io.nuls.ledger.util.UtxoComparator;
+import io.nuls.ledger.util.UtxoTransferTool;
+import io.nuls.protocol.context.NulsContext;
+import io.nuls.protocol.model.Na;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The usable and locked amount of the addresses of the local wallet, changed with each unspent output added or removed
+ * instead of summed up from the outputs on every query.
+ * An address is loaded from its unspent outputs the first time it is used, see {@link LedgerCacheService#loadBalanceBook},
+ * the outputs of the addresses not loaded are not kept.
+ * <p>
+ * The unconfirmed local txs are applied on top of the confirmed outputs: the outputs they spend are not counted,
+ * the outputs they create are counted until the tx is confirmed or dropped.
+ * Outputs locked until a height or a time wait in an unlock queue ordered by the lock,
+ * they are moved to the usable amount when a balance is read after the lock expired.
+ * The usable outputs of an address are also kept ordered by value for the coin selection.
+ */
+public class BalanceBook {
+
+    private static final BalanceBook INSTANCE = new BalanceBook();
+
+    private static final Comparator<Entry> LOCK_COMPARATOR = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry o1, Entry o2) {
+            return Long.compare(o1.lockTime, o2.lockTime);
+        }
+    };
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private final Map<String, AddressBalance> balances = new HashMap<>();
+
+    /**
+     * the addresses whose unspent outputs are being read, see {@link #startLoading}
+     */
+    private final Set<String> loading = new HashSet<>();
+
+    /**
+     * output key -> hash of the unconfirmed local tx spending it
+     */
+    private final Map<String, String> localSpent = new HashMap<>();
+
+    /**
+     * hash of an unconfirmed local tx -> its coin data
+     */
+    private final Map<String, UtxoData> localTxs = new HashMap<>();
+
+    private final PriorityQueue<Entry> heightLocks = new PriorityQueue<>(LOCK_COMPARATOR);
+
+    private final PriorityQueue<Entry> timeLocks = new PriorityQueue<>(LOCK_COMPARATOR);
+
+    private long lastHeight;
+
+    private BalanceBook() {
+    }
+
+    public static BalanceBook getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return the balance of the address, null when it is not loaded
+     */
+    public synchronized Balance getBalance(String address) {
+        AddressBalance balance = balances.get(address);
+        if (balance == null || loading.contains(address)) {
+            return null;
+        }
+        unlockExpired();
+        return new Balance(Na.valueOf(balance.usable), Na.valueOf(balance.locked));
+    }
+
+    /**
+     * Select the usable outputs of the addresses a new tx spends, the addresses must be loaded
+     *
+     * @return copies of the selected outputs, null when they can not cover the target
+     */
+    public synchronized List<UtxoOutput> select(List<String> addresses, long target, int maxInputs, CoinSelector selector) {
+        unlockExpired();
+        NavigableSet<UtxoOutput> candidates;
+        if (addresses.size() == 1) {
+            AddressBalance balance = balances.get(addresses.get(0));
+            candidates = balance == null ? Collections.<UtxoOutput>emptyNavigableSet() : balance.usableOutputs;
+        } else {
+            candidates = new TreeSet<>(UtxoComparator.getInstance());
+            for (String address : addresses) {
+                AddressBalance balance = balances.get(address);
+                if (balance != null) {
+                    candidates.addAll(balance.usableOutputs);
+                }
+            }
+        }
+        List<UtxoOutput> selected = selector.select(candidates, target, maxInputs);
+        if (selected == null) {
+            return null;
+        }
+        List<UtxoOutput> copies = new ArrayList<>(selected.size());
+        for (UtxoOutput output : selected) {
+            copies.add(UtxoTransferTool.copyOutput(output));
+        }
+        return copies;
+    }
+
+    public synchronized boolean isLoaded(String address) {
+        return balances.containsKey(address) && !loading.contains(address);
+    }
+
+    /**
+     * Start keeping the balance of an address, the outputs added and removed from now on are applied to it.
+     * The caller then reads the unspent outputs of the address and passes them to {@link #finishLoading},
+     * or calls {@link #removeAddress} when it could not read them.
+     *
+     * @return false when the address is already loaded or another caller is loading it
+     */
+    public synchronized boolean startLoading(String address) {
+        if (balances.containsKey(address)) {
+            return false;
+        }
+        balances.put(address, new AddressBalance());
+        loading.add(address);
+        return true;
+    }
+
+    /**
+     * Add the unspent outputs read after {@link #startLoading}, except the ones removed since,
+     * and the outputs the unconfirmed local txs create for the address
+     */
+    public synchronized void finishLoading(String address, List<UtxoOutput> unSpends) {
+        AddressBalance balance = balances.get(address);
+        if (balance == null || !loading.remove(address)) {
+            return;
+        }
+        for (UtxoOutput output : unSpends) {
+            Entry entry = entries.get(output.getKey());
+            if (!balance.removedWhileLoading.contains(output.getKey()) && (entry == null || entry.local)) {
+                put(output, false);
+            }
+        }
+        balance.removedWhileLoading = null;
+        for (UtxoData utxoData : localTxs.values()) {
+            if (utxoData.getOutputs() == null) {
+                continue;
+            }
+            for (UtxoOutput output : utxoData.getOutputs()) {
+                if (address.equals(output.getAddress())) {
+                    put(output, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop keeping the balance of an address, when it left the wallet
+     */
+    public synchronized void removeAddress(String address) {
+        if (balances.remove(address) == null) {
+            return;
+        }
+        loading.remove(address);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (address.equals(entry.address)) {
+                entry.removed = true;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * add a confirmed output, or replace the one with the same key when its status changed,
+     * nothing is kept when its address is not loaded
+     */
+    public synchronized void putUtxo(UtxoOutput output) {
+        put(output, false);
+    }
+
+    public synchronized void removeUtxo(String key) {
+        for (String address : loading) {
+            balances.get(address).removedWhileLoading.add(key);
+        }
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        entry.removed = true;
+        if (entry.counted) {
+            count(entry, -1);
+        }
+    }
+
+    /**
+     * Apply an unconfirmed local tx, nothing changes when it is already applied
+     */
+    public synchronized void addLocalTx(AbstractCoinTransaction tx) {
+        UtxoData utxoData = (UtxoData) tx.getCoinData();
+        String txHash = tx.getHash().getDigestHex();
+        if (utxoData == null || localTxs.containsKey(txHash)) {
+            return;
+        }
+        localTxs.put(txHash, utxoData);
+        if (utxoData.getInputs() != null) {
+            for (UtxoInput input : utxoData.getInputs()) {
+                localSpent.put(input.getKey(), txHash);
+                Entry entry = entries.get(input.getKey());
+                if (entry != null && entry.counted) {
+                    entry.counted = false;
+                    count(entry, -1);
+                }
+            }
+        }
+        if (utxoData.getOutputs() != null) {
+            for (UtxoOutput output : utxoData.getOutputs()) {
+                put(output, true);
+            }
+        }
+    }
+
+    /**
+     * Take back an unconfirmed local tx when it is confirmed or dropped,
+     * the outputs a block already confirmed stay
+     */
+    public synchronized void removeLocalTx(String txHash) {
+        UtxoData utxoData = localTxs.remove(txHash);
+        if (utxoData == null) {
+            return;
+        }
+        if (utxoData.getOutputs() != null) {
+            for (UtxoOutput output : utxoData.getOutputs()) {
+                Entry entry = entries.get(output.getKey());
+                if (entry != null && entry.local) {
+                    removeUtxo(output.getKey());
+                }
+            }
+        }
+        if (utxoData.getInputs() != null) {
+            for (UtxoInput input : utxoData.getInputs()) {
+                if (!localSpent.remove(input.getKey(), txHash)) {
+                    continue;
+                }
+                Entry entry = entries.get(input.getKey());
+                if (entry != null && !entry.counted) {
+                    entry.counted = true;
+                    count(entry, 1);
+                }
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        balances.clear();
+        loading.clear();
+        localSpent.clear();
+        localTxs.clear();
+        heightLocks.clear();
+        timeLocks.clear();
+    }
+
+    private void put(UtxoOutput output, boolean local) {
+        if (!balances.containsKey(output.getAddress())) {
+            return;
+        }
+        String key = output.getKey();
+        Entry old = entries.get(key);
+        if (old != null) {
+            if (local && !old.local) {
+                return;
+            }
+            removeUtxo(key);
+        }
+        Entry entry = new Entry(output, OutPutStatusEnum.UTXO_CONSENSUS_LOCK == output.getStatus(), local);
+        entries.put(key, entry);
+        lock(entry, NulsContext.getInstance().getBestHeight(), TimeService.currentTimeMillis());
+        entry.counted = !localSpent.containsKey(key);
+        if (entry.counted) {
+            count(entry, 1);
+        }
+    }
+
+    /**
+     * same rule as {@link UtxoOutput#isLocked(long)}, a locked entry waits in the queue of its lock
+     */
+    private void lock(Entry entry, long height, long time) {
+        if (entry.consensusLock) {
+            entry.locked = true;
+        } else if (entry.lockTime <= NulsConstant.BlOCKHEIGHT_TIME_DIVIDE && entry.lockTime >= height) {
+            entry.locked = true;
+            heightLocks.add(entry);
+        } else if (entry.lockTime > NulsConstant.BlOCKHEIGHT_TIME_DIVIDE && entry.lockTime >= time) {
+            entry.locked = true;
+            timeLocks.add(entry);
+        } else {
+            entry.locked = false;
+        }
+    }
+
+    private void unlockExpired() {
+        long height = NulsContext.getInstance().getBestHeight();
+        if (height < lastHeight) {
+            relock(height);
+        }
+        lastHeight = height;
+        unlockExpired(heightLocks, height);
+        unlockExpired(timeLocks, TimeService.currentTimeMillis());
+    }
+
+    private void unlockExpired(PriorityQueue<Entry> queue, long current) {
+        Entry entry;
+        while ((entry = queue.peek()) != null && (entry.removed || entry.lockTime < current)) {
+            queue.poll();
+            if (entry.removed) {
+                continue;
+            }
+            if (entry.counted) {
+                count(entry, -1);
+            }
+            entry.locked = false;
+            if (entry.counted) {
+                count(entry, 1);
+            }
+        }
+    }
+
+    /**
+     * the best height went back with a rollback, the outputs unlocked by the height may be locked again
+     */
+    private void relock(long height) {
+        heightLocks.clear();
+        long time = TimeService.currentTimeMillis();
+        for (Entry entry : entries.values()) {
+            if (entry.consensusLock || entry.lockTime > NulsConstant.BlOCKHEIGHT_TIME_DIVIDE) {
+                continue;
+            }
+            if (entry.counted) {
+                count(entry, -1);
+            }
+            lock(entry, height, time);
+            if (entry.counted) {
+                count(entry, 1);
+            }
+        }
+    }
+
+    private void count(Entry entry, int sign) {
+        AddressBalance balance = balances.get(entry.address);
+        if (entry.locked) {
+            balance.locked += sign * entry.value;
+        } else if (sign > 0) {
+            balance.usable += entry.value;
+            balance.usableOutputs.add(entry.output);
+        } else {
+            balance.usable -= entry.value;
+            balance.usableOutputs.remove(entry.output);
+        }
+    }
+
+    private static class AddressBalance {
+        private long usable;
+        private long locked;
+        private final TreeSet<UtxoOutput> usableOutputs = new TreeSet<>(UtxoComparator.getInstance());
+        /**
+         * the keys removed while the address is loading, null once it is loaded
+         */
+        private Set<String> removedWhileLoading = new HashSet<>();
+    }
+
+    private static class Entry {
+        private final UtxoOutput output;
+        private final String address;
+        private final long value;
+        private final long lockTime;
+        private final boolean consensusLock;
+        /**
+         * created by an unconfirmed local tx
+         */
+        private final boolean local;
+        /**
+         * false while an unconfirmed local tx spends it
+         */
+        private boolean counted;
+        private boolean locked;
+        private boolean removed;
+
+        Entry(UtxoOutput output, boolean consensusLock, boolean local) {
+            this.output = output;
+            this.address = output.getAddress();
+            this.value = output.getValue();
+            this.lockTime = output.getLockTime();
+            this.consensusLock = consensusLock;
+            this.local = local;
+        }
+    }
+}
@@ -23,6 +23,7 @@
  */
 package io.nuls.ledger.service.impl;
 
+import io.nuls.cache.entity.CacheConfig;
 import io.nuls.cache.service.intf.CacheService;
 import io.nuls.core.utils.log.Log;
 import io.nuls.core.utils.str.StringUtils;
@@ -45,13 +46,15 @@ public class LedgerCacheService {
     private CacheService<String, Balance> cacheService;
     private CacheService<String, UtxoOutput> utxoCacheService;
 
+    private BalanceBook balanceBook = BalanceBook.getInstance();
+
     private boolean initCache = true;
 
     private LedgerCacheService() {
         cacheService = NulsContext.getServiceBean(CacheService.class);
-        cacheService.createCache(LedgerConstant.LEDGER_BOOK, 1024);
+        cacheService.createCache(LedgerConstant.LEDGER_BOOK, new CacheConfig(LedgerConstant.LEDGER_BOOK_CACHE_ENTRIES));
         utxoCacheService = NulsContext.getServiceBean(CacheService.class);
-        utxoCacheService.createCache(LedgerConstant.UTXO, 1024);
+        utxoCacheService.createCache(LedgerConstant.UTXO, new CacheConfig(LedgerConstant.UTXO_CACHE_ENTRIES));
     }
 
     public static LedgerCacheService getInstance() {
@@ -61,6 +64,7 @@ public class LedgerCacheService {
     public void clear() {
         this.cacheService.clearCache(LedgerConstant.LEDGER_BOOK);
         this.utxoCacheService.clearCache(LedgerConstant.UTXO);
+        this.balanceBook.clear();
     }
 
     public void destroy() {
@@ -95,6 +99,7 @@ public class LedgerCacheService {
         }
         balance.addUtxo(key);
         putBalance(address, balance);
+        balanceBook.putUtxo(output);
     }
 
     public List<UtxoOutput> getUnSpends(String address) {
@@ -113,6 +118,31 @@ public class LedgerCacheService {
         return unSpends;
     }
 
+    /**
+     * Load an address of the local wallet into the balance book, the first time it is used
+     *
+     * @return true when the book has the balance of the address, false when the address is not in the wallet
+     * or another thread is still loading it
+     */
+    public boolean loadBalanceBook(String address) {
+        if (!NulsContext.LOCAL_ADDRESS_LIST.contains(address)) {
+            balanceBook.removeAddress(address);
+            return false;
+        }
+        if (balanceBook.startLoading(address)) {
+            boolean loaded = false;
+            try {
+                balanceBook.finishLoading(address, getUnSpends(address));
+                loaded = true;
+            } finally {
+                if (!loaded) {
+                    balanceBook.removeAddress(address);
+                }
+            }
+        }
+        return balanceBook.isLoaded(address);
+    }
+
     public UtxoOutput getUtxo(String key) {
         while (initCache){
             try {
@@ -121,16 +151,25 @@ public class LedgerCacheService {
                 Log.error(e);
             }
         }
-        return utxoCacheService.getElement(LedgerConstant.UTXO, key);
+        UtxoOutput output = utxoCacheService.getElement(LedgerConstant.UTXO, key);
+        if (output == null) {
+            output = UtxoSetStore.getInstance().getUtxo(key);
+            if (output != null) {
+                utxoCacheService.putElement(LedgerConstant.UTXO, key, output);
+            }
+        }
+        return output;
     }
 
     public void removeUtxo(String key) {
         UtxoOutput output = getUtxo(key);
         utxoCacheService.removeElement(LedgerConstant.UTXO, key);
+        balanceBook.removeUtxo(key);
         if (output != null) {
             UtxoBalance balance = (UtxoBalance) getBalance(output.getAddress());
             if (balance != null) {
-                balance.getUtxoKeys().remove(output);
+                balance.removeUtxo(key);
+                putBalance(output.getAddress(), balance);
             }
         }
     }
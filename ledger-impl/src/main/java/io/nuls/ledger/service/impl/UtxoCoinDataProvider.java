@@ -84,6 +84,8 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
 
     private LedgerCacheService ledgerCacheService = LedgerCacheService.getInstance();
 
+    private UtxoSetStore utxoSetStore = UtxoSetStore.getInstance();
+
     private static Lock lock = new ReentrantLock();
 
     @Override
@@ -199,6 +201,7 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
         try {
             processDataInput(utxoData, spends, inputPoList, spendPoList, addressSet, tx);
 
+            refreshStore(tx, spends, utxoData.getOutputs());
             refreshCache(spends, utxoData.getOutputs());
 
             List<UtxoOutputPo> outputPoList = new ArrayList<>();
@@ -210,19 +213,16 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
                 addressSet.add(Address.fromHashs(output.getAddress()).getBase58());
             }
 
+            String txHash = tx.getHash().getDigestHex();
             for (String address : addressSet) {
-                TxAccountRelationPo relationPo = new TxAccountRelationPo(tx.getHash().getDigestHex(), address);
-                if (relationDataService.getRelationCount(relationPo.getTxHash(), address) == 0) {
-                    relationDataService.save(relationPo);
-                }
-//                txRelations.add(relationPo);
+                txRelations.add(new TxAccountRelationPo(txHash, address));
             }
 
             outputDataService.updateStatus(spendPoList);
             inputDataService.save(inputPoList);
             outputDataService.save(outputPoList);
-
-//            relationDataService.save(txRelations);
+            // a relation may have been saved with the local tx or by the service of the tx
+            relationDataService.saveIfAbsent(txRelations);
 //
 //            for (String address : addressSet) {
 //                UtxoTransactionTool.getInstance().calcBalance(address, true);
@@ -232,6 +232,7 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
             Log.warn(e.getMessage(), e);
             for (UtxoOutput output : utxoData.getOutputs()) {
                 ledgerCacheService.removeUtxo(output.getKey());
+                utxoSetStore.removeUtxo(output);
             }
             for (UtxoOutput spend : spends) {
                 if (tx.getType() == TransactionConstant.TX_TYPE_STOP_AGENT) {
@@ -241,7 +242,9 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
                     spend.setStatus(OutPutStatusEnum.UTXO_UNSPENT);
                 }
                 ledgerCacheService.putUtxo(spend.getKey(), spend, true);
+                utxoSetStore.putUtxo(spend);
             }
+            utxoSetStore.takeSpent(tx.getHash());
             throw e;
         } finally {
             lock.unlock();
@@ -287,6 +290,19 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
         }
     }
 
+    /**
+     * stage the changes in the utxo set store, they are written when the whole block is saved
+     */
+    private void refreshStore(Transaction tx, List<UtxoOutput> spends, List<UtxoOutput> outputList) {
+        for (UtxoOutput spend : spends) {
+            utxoSetStore.removeUtxo(spend);
+        }
+        utxoSetStore.putSpent(tx.getHash(), spends);
+        for (UtxoOutput output : outputList) {
+            utxoSetStore.putUtxo(output);
+        }
+    }
+
     private void refreshCache(List<UtxoOutput> spends, List<UtxoOutput> outputList) {
         for (int i = 0; i < spends.size(); i++) {
             ledgerCacheService.removeUtxo(spends.get(i).getKey());
@@ -316,22 +332,31 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
                 Log.info("delete " + output.getKey() + " success");
             }
             ledgerCacheService.removeUtxo(output.getKey());
+            utxoSetStore.removeUtxo(output);
         }
 
+        Map<String, UtxoOutput> spentMap = new HashMap<>();
+        for (UtxoOutput spent : utxoSetStore.takeSpent(tx.getHash())) {
+            spentMap.put(spent.getKey(), spent);
+        }
         for (int i = utxoData.getInputs().size() - 1; i >= 0; i--) {
             UtxoInput input = utxoData.getInputs().get(i);
-            keyMap.put("txHash", input.getFromHash().getDigestHex());
-            keyMap.put("outIndex", input.getFromIndex());
-            UtxoOutputPo po = outputDataService.get(keyMap);
+            UtxoOutput output = spentMap.get(input.getKey());
+            if (output == null) {
+                //the tx was saved before the utxo set store existed
+                keyMap.put("txHash", input.getFromHash().getDigestHex());
+                keyMap.put("outIndex", input.getFromIndex());
+                output = UtxoTransferTool.toOutput(outputDataService.get(keyMap));
+            }
             if (tx.getType() == TransactionConstant.TX_TYPE_STOP_AGENT) {
-                po.setLockTime(0L);
-                po.setStatus(UtxoOutputPo.LOCKED);
+                output.setLockTime(0L);
+                output.setStatus(OutPutStatusEnum.UTXO_CONSENSUS_LOCK);
             } else {
-                po.setStatus(UtxoOutputPo.USABLE);
+                output.setStatus(OutPutStatusEnum.UTXO_UNSPENT);
             }
-            outputDataService.updateStatus(po);
-            UtxoOutput output = UtxoTransferTool.toOutput(po);
+            outputDataService.updateStatus(UtxoTransferTool.toOutputPojo(output));
             ledgerCacheService.putUtxo(output.getKey(), output, true);
+            utxoSetStore.putUtxo(output);
         }
 
         String txHash = tx.getHash().getDigestHex();
@@ -484,17 +509,13 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
         if (type == 1) {
             String lockTxHash = map.get("lockedTxHash").toString();
             Long lockTime = (Long) map.get("lockTime");
-            Map<String, Object> keyMap = new HashMap<>();
-            keyMap.put("txHash", lockTxHash);
-            keyMap.put("outIndex", 0);
-            UtxoOutputPo outputPo = outputDataService.get(keyMap);
-            if (outputPo == null) {
+            UtxoOutput output = utxoSetStore.getUtxo(NulsDigestData.fromDigestHex(lockTxHash), 0);
+            if (output == null) {
                 throw new NulsException(ErrorCode.UTXO_NOT_FOUND);
             }
-            if (outputPo.getStatus() != UtxoOutputPo.LOCKED) {
+            if (output.getStatus() != OutPutStatusEnum.UTXO_CONSENSUS_LOCK) {
                 throw new NulsException(ErrorCode.UTXO_STATUS_CHANGE);
             }
-            UtxoOutput output = UtxoTransferTool.toOutput(outputPo);
 
             UtxoInput input = new UtxoInput();
             input.setFrom(output);
@@ -573,25 +594,39 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
     }
 
     @Override
-    public ValidateResult verifyCoinData(AbstractCoinTransaction tx, List<Transaction> txList) {
+    public ValidateResult conflictDetect(Transaction tx, CoinVerifyContext context) {
+        UtxoData txUtxoData = (UtxoData) ((AbstractCoinTransaction) tx).getCoinData();
+        if (txUtxoData.getInputs() == null || txUtxoData.getInputs().isEmpty()) {
+            return ValidateResult.getSuccessResult();
+        }
+        UtxoVerifyContext utxoContext = (UtxoVerifyContext) context;
+        Set<String> inputSet = new HashSet<>();
+        for (UtxoInput input : txUtxoData.getInputs()) {
+            if (utxoContext.isSpent(input.getKey()) || !inputSet.add(input.getKey())) {
+                return ValidateResult.getFailedResult(ErrorCode.FAILED, "input conflict!");
+            }
+        }
+        return ValidateResult.getSuccessResult();
+    }
+
+    @Override
+    public ValidateResult verifyCoinData(AbstractCoinTransaction tx, CoinVerifyContext context) {
 
-        if (txList == null || txList.isEmpty()) {
+        if (context == null || context.isEmpty()) {
             //It's all an orphan that can go here
             return ValidateResult.getFailedResult(ErrorCode.ORPHAN_TX);
         }
 
         UtxoData data = (UtxoData) tx.getCoinData();
-
-
-        Map<String, UtxoOutput> outputMap = getAllOutputMap(txList);
-
+        UtxoVerifyContext utxoContext = (UtxoVerifyContext) context;
+        byte[] user = null;
 
         for (int i = 0; i < data.getInputs().size(); i++) {
             UtxoInput input = data.getInputs().get(i);
             UtxoOutput output = ledgerCacheService.getUtxo(input.getKey());
 
             if (output == null && tx.getStatus() == TxStatusEnum.UNCONFIRM) {
-                output = outputMap.get(input.getKey());
+                output = utxoContext.getOutput(input.getKey());
                 if (null == output) {
                     return ValidateResult.getFailedResult(ErrorCode.ORPHAN_TX);
                 }
@@ -619,49 +654,17 @@ public class UtxoCoinDataProvider implements CoinDataProvider {
 //            }
 
             byte[] owner = output.getOwner();
-            P2PKHScriptSig p2PKHScriptSig = null;
-            try {
-                p2PKHScriptSig = P2PKHScriptSig.createFromBytes(tx.getScriptSig());
-            } catch (NulsException e) {
-                return ValidateResult.getFailedResult(ErrorCode.DATA_ERROR);
+            if (null == user) {
+                try {
+                    user = P2PKHScriptSig.createFromBytes(tx.getScriptSig()).getSignerHash160();
+                } catch (NulsException e) {
+                    return ValidateResult.getFailedResult(ErrorCode.DATA_ERROR);
+                }
             }
-            byte[] user = p2PKHScriptSig.getSignerHash160();
             if (!Arrays.equals(owner, user)) {
                 return ValidateResult.getFailedResult(ErrorCode.INVALID_INPUT);
             }
         }
         return ValidateResult.getSuccessResult();
     }
-
-    private Map<String, UtxoOutput> getAllOutputMap(List<Transaction> txList) {
-        Map<String, UtxoOutput> map = new HashMap<>();
-        for (Transaction tx : txList) {
-            if (!(tx instanceof AbstractCoinTransaction)) {
-                continue;
-            }
-            List<UtxoOutput> outputs = ((UtxoData) ((AbstractCoinTransaction) tx).getCoinData()).getOutputs();
-            if (null == outputs) {
-                continue;
-            }
-            for (UtxoOutput output : outputs) {
-                if (output.getTxHash() == null) {
-                    output.setTxHash(tx.getHash());
-                }
-                map.put(output.getKey(), output);
-            }
-        }
-        for (Transaction tx : txList) {
-            if (!(tx instanceof AbstractCoinTransaction)) {
-                continue;
-            }
-            List<UtxoInput> inputs = ((UtxoData) ((AbstractCoinTransaction) tx).getCoinData()).getInputs();
-            if (null == inputs) {
-                continue;
-            }
-            for (UtxoInput input : inputs) {
-                map.remove(input.getKey());
-            }
-        }
-        return map;
-    }
 }
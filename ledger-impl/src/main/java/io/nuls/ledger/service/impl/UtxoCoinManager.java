@@ -24,17 +24,24 @@
 package io.nuls.ledger.service.impl;
 
 import io.nuls.core.utils.log.Log;
+import io.nuls.db.dao.BlockHeaderService;
 import io.nuls.db.dao.TransactionLocalDataService;
 import io.nuls.db.dao.UtxoOutputDataService;
 import io.nuls.db.entity.TransactionLocalPo;
 import io.nuls.db.entity.UtxoOutputPo;
+import io.nuls.db.transactional.TransactionSynchronization;
+import io.nuls.db.transactional.TransactionSynchronizationManager;
 import io.nuls.ledger.entity.*;
 import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
+import io.nuls.ledger.selection.BranchAndBoundSelector;
+import io.nuls.ledger.selection.CoinSelector;
 import io.nuls.ledger.util.UtxoComparator;
 import io.nuls.ledger.util.UtxoTransactionTool;
 import io.nuls.ledger.util.UtxoTransferTool;
+import io.nuls.ledger.validator.TxFieldValidator;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.model.Na;
+import io.nuls.protocol.model.Transaction;
 
 import java.util.*;
 import java.util.concurrent.locks.Lock;
@@ -45,6 +52,22 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class UtxoCoinManager {
 
+    /**
+     * size of an input with var int indexes below 65536 and a sha256 digest
+     */
+    private static final int INPUT_SIZE = 41;
+
+    /**
+     * room left in a tx for the outputs, the remark and the signature
+     */
+    private static final int RESERVED_TX_SIZE = 10 * 1024;
+
+    /**
+     * the most inputs a selection returns, so the tx stays below {@link TxFieldValidator#MAX_TX_SIZE},
+     * the smallest size limit a tx is validated against
+     */
+    public static final int MAX_INPUTS = (TxFieldValidator.MAX_TX_SIZE - RESERVED_TX_SIZE) / INPUT_SIZE;
+
     private static UtxoCoinManager instance = new UtxoCoinManager();
 
     private UtxoCoinManager() {
@@ -59,151 +82,289 @@ public class UtxoCoinManager {
 
     private TransactionLocalDataService localDataService = NulsContext.getServiceBean(TransactionLocalDataService.class);
 
+    private BlockHeaderService blockHeaderService = NulsContext.getServiceBean(BlockHeaderService.class);
+
     private LedgerCacheService ledgerCacheService = LedgerCacheService.getInstance();
 
+    private UtxoSetStore utxoSetStore = UtxoSetStore.getInstance();
+
+    private BalanceBook balanceBook = BalanceBook.getInstance();
+
+    private CoinSelector coinSelector = BranchAndBoundSelector.getInstance();
+
     private Lock lock = new ReentrantLock();
 
+    /**
+     * the unconfirmed local txs by hash, in the order they were added, parsed again for every caller
+     */
+    private final Map<String, TransactionLocalPo> localTxs = new LinkedHashMap<>();
+
+    /**
+     * the coin data of the unconfirmed local txs, never handed out
+     */
+    private final Map<String, UtxoData> localCoinData = new HashMap<>();
+
+    /**
+     * key of an output spent by an unconfirmed local tx -> hash of the tx
+     */
+    private final Map<String, String> localSpent = new HashMap<>();
+
+    /**
+     * the outputs created by the unconfirmed local txs, by address
+     */
+    private final Map<String, List<UtxoOutput>> localOutputs = new HashMap<>();
+
     public void cacheAllUnSpendUtxo() {
-        List<UtxoOutputPo> utxoOutputPos = outputDataService.getAllUnSpend();
-        Set<String> addressSet = new HashSet<>();
-        List<UtxoOutput> outputList = new ArrayList<>();
-        for (int i = 0; i < utxoOutputPos.size(); i++) {
-            UtxoOutputPo po = utxoOutputPos.get(i);
-            UtxoOutput output = UtxoTransferTool.toOutput(po);
-            outputList.add(output);
-            addressSet.add(po.getAddress());
+        long bestHeight = blockHeaderService.getBestHeight();
+        long storeHeight = utxoSetStore.getHeight();
+        List<UtxoOutput> outputList;
+        if (storeHeight == bestHeight) {
+            outputList = utxoSetStore.getAllUtxo();
+        } else {
+            if (storeHeight >= 0) {
+                Log.warn("utxo set store height " + storeHeight + " does not match best height " + bestHeight + ", reload it");
+            }
+            List<UtxoOutputPo> utxoOutputPos = outputDataService.getAllUnSpend();
+            outputList = new ArrayList<>(utxoOutputPos.size());
+            for (int i = 0; i < utxoOutputPos.size(); i++) {
+                outputList.add(UtxoTransferTool.toOutput(utxoOutputPos.get(i)));
+            }
+            utxoSetStore.importUtxo(outputList, bestHeight);
         }
         ledgerCacheService.putUtxoList(outputList);
-//        for (String str : addressSet) {
-//            UtxoTransactionTool.getInstance().calcBalance(str, false);
-//        }
+        loadLocalUnConfirmTxs();
     }
 
     /**
      * Utxo is used to ensure that each transaction will not double
      */
     public List<UtxoOutput> getAccountUnSpend(String address, Na value) {
-        List<UtxoOutput> unSpends = new ArrayList<>();
+        return getAccountsUnSpend(Collections.singletonList(address), value);
+    }
+
+    /**
+     * Select the usable outputs of the addresses covering the value with the configured {@link CoinSelector},
+     * from the balance book when it has all the addresses
+     *
+     * @return the selected outputs, an empty list when the balance is not enough
+     */
+    public List<UtxoOutput> getAccountsUnSpend(List<String> addressList, Na value) {
         try {
-            UtxoBalance balance = (UtxoBalance) ledgerCacheService.getBalance(address);
-            if (balance == null) {
+            boolean inBook = true;
+            for (String address : addressList) {
+                if (!ledgerCacheService.loadBalanceBook(address)) {
+                    inBook = false;
+                    break;
+                }
+            }
+            List<UtxoOutput> unSpends;
+            if (inBook) {
+                unSpends = balanceBook.select(addressList, value.getValue(), MAX_INPUTS, coinSelector);
+            } else {
+                unSpends = coinSelector.select(getUsableUnSpends(addressList), value.getValue(), MAX_INPUTS);
+            }
+            if (unSpends != null) {
                 return unSpends;
             }
+        } catch (Exception e) {
+            Log.error(e);
+        }
+        return new ArrayList<>();
+    }
 
+    private NavigableSet<UtxoOutput> getUsableUnSpends(List<String> addressList) {
+        NavigableSet<UtxoOutput> unSpends = new TreeSet<>(UtxoComparator.getInstance());
+        long bestHeight = NulsContext.getInstance().getBestHeight();
+        for (String address : addressList) {
             List<UtxoOutput> outputList = ledgerCacheService.getUnSpends(address);
             filterUtxoByLocalTxs(address, outputList);
-
-            Na amount = Na.ZERO;
-            boolean enough = false;
             for (UtxoOutput output : outputList) {
-                if (output.isLocked(NulsContext.getInstance().getBestHeight())) {
-                    continue;
-                }
-                unSpends.add(output);
-                amount = amount.add(Na.valueOf(output.getValue()));
-                if (amount.isGreaterOrEquals(value)) {
-                    enough = true;
-                    break;
+                if (!output.isLocked(bestHeight)) {
+                    unSpends.add(output);
                 }
             }
-            if (!enough) {
-                unSpends = new ArrayList<>();
-            }
-        } catch (Exception e) {
-            Log.error(e);
-            unSpends = new ArrayList<>();
         }
         return unSpends;
     }
 
-    public List<UtxoOutput> getAccountsUnSpend(List<String> addressList, Na value) {
-        List<UtxoOutput> unSpends = new ArrayList<>();
-        try {
-            //check use-able is enough , find unSpend utxo
-            Na amount = Na.ZERO;
-            boolean enough = false;
-            for (String address : addressList) {
-                List<UtxoOutput> outputList = ledgerCacheService.getUnSpends(address);
+    public CoinSelector getCoinSelector() {
+        return coinSelector;
+    }
 
-                filterUtxoByLocalTxs(address, outputList);
-                if (outputList.isEmpty()) {
-                    continue;
-                }
-                for (UtxoOutput output : outputList) {
-                    if (output.isLocked(NulsContext.getInstance().getBestHeight())) {
-                        continue;
-                    }
-                    unSpends.add(output);
-                    amount = amount.add(Na.valueOf(output.getValue()));
-                    if (amount.isGreaterOrEquals(value)) {
-                        enough = true;
-                        break;
-                    }
-                }
-                if (enough) {
-                    break;
-                }
-            }
-            if (!enough) {
-                unSpends = new ArrayList<>();
+    public void setCoinSelector(CoinSelector coinSelector) {
+        this.coinSelector = coinSelector;
+    }
+
+    private void loadLocalUnConfirmTxs() {
+        try {
+            for (TransactionLocalPo localPo : localDataService.getUnConfirmTxs()) {
+                indexLocalTx(localPo);
             }
         } catch (Exception e) {
             Log.error(e);
-            unSpends = new ArrayList<>();
         }
-        return unSpends;
     }
 
+    /**
+     * @return the unconfirmed local txs, new objects on every call
+     */
     public List<AbstractCoinTransaction> getLocalUnConfirmTxs() {
-        List<AbstractCoinTransaction> localTxs = new ArrayList<>();
+        List<TransactionLocalPo> poList;
+        lock.lock();
         try {
-            List<TransactionLocalPo> poList = localDataService.getUnConfirmTxs();
-            for (TransactionLocalPo localPo : poList) {
-                AbstractCoinTransaction tx = (AbstractCoinTransaction) UtxoTransferTool.toTransaction(localPo);
-                localTxs.add(tx);
+            poList = new ArrayList<>(localTxs.values());
+        } finally {
+            lock.unlock();
+        }
+        List<AbstractCoinTransaction> txList = new ArrayList<>(poList.size());
+        for (TransactionLocalPo localPo : poList) {
+            try {
+                txList.add((AbstractCoinTransaction) UtxoTransferTool.toTransaction(localPo));
+            } catch (Exception e) {
+                Log.error(e);
             }
-        } catch (Exception e) {
-            Log.error(e);
         }
-        return localTxs;
+        return txList;
     }
 
+    /**
+     * Index an unconfirmed local tx once the current transaction committed, right away without one
+     */
+    public void addLocalTx(final TransactionLocalPo localPo) {
+        TransactionSynchronizationManager.register(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indexLocalTx(localPo);
+            }
 
-    public void filterUtxoByLocalTxs(String address, List<UtxoOutput> unSpends) {
-        Collections.sort(unSpends, UtxoComparator.getInstance());
+            @Override
+            public void afterRollback() {
+            }
+        });
+    }
 
-        List<AbstractCoinTransaction> localTxs = getLocalUnConfirmTxs();
-        if (localTxs.isEmpty()) {
-            return;
-        }
+    /**
+     * Drop an unconfirmed local tx from the index once the current transaction committed, right away without one
+     */
+    public void removeLocalTx(final String txHash) {
+        TransactionSynchronizationManager.register(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                unindexLocalTx(txHash);
+            }
 
-        Set<String> inputKeySet = new HashSet<>();
-        for (AbstractCoinTransaction tx : localTxs) {
-            UtxoData utxoData = (UtxoData) tx.getCoinData();
+            @Override
+            public void afterRollback() {
+            }
+        });
+    }
 
-            for (int i = 0; i < utxoData.getOutputs().size(); i++) {
-                UtxoOutput output = utxoData.getOutputs().get(i);
-                if (output.getAddress().equals(address)) {
-                    if (!output.isLocked(NulsContext.getInstance().getBestHeight())) {
-                        unSpends.add(output);
+    /**
+     * nothing changes when the tx is already indexed
+     */
+    private void indexLocalTx(TransactionLocalPo localPo) {
+        AbstractCoinTransaction tx;
+        try {
+            Transaction transaction = UtxoTransferTool.toTransaction(localPo);
+            if (!(transaction instanceof AbstractCoinTransaction)) {
+                return;
+            }
+            tx = (AbstractCoinTransaction) transaction;
+        } catch (Exception e) {
+            Log.error(e);
+            return;
+        }
+        UtxoData utxoData = (UtxoData) tx.getCoinData();
+        String txHash = localPo.getHash();
+        lock.lock();
+        try {
+            if (localTxs.containsKey(txHash)) {
+                return;
+            }
+            localTxs.put(txHash, localPo);
+            balanceBook.addLocalTx(tx);
+            if (utxoData == null) {
+                return;
+            }
+            localCoinData.put(txHash, utxoData);
+            if (utxoData.getInputs() != null) {
+                for (UtxoInput input : utxoData.getInputs()) {
+                    localSpent.put(input.getKey(), txHash);
+                }
+            }
+            if (utxoData.getOutputs() != null) {
+                for (UtxoOutput output : utxoData.getOutputs()) {
+                    List<UtxoOutput> outputs = localOutputs.get(output.getAddress());
+                    if (outputs == null) {
+                        outputs = new ArrayList<>();
+                        localOutputs.put(output.getAddress(), outputs);
                     }
+                    outputs.add(output);
                 }
             }
-//            for (UtxoOutput output : utxoData.getOutputs()) {
-//                if (output.getAddress().equals(address)) {
-//                    unSpends.add(output);
-//                }
-//            }
-            for (UtxoInput input : utxoData.getInputs()) {
-                inputKeySet.add(input.getKey());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unindexLocalTx(String txHash) {
+        lock.lock();
+        try {
+            if (localTxs.remove(txHash) == null) {
+                return;
+            }
+            balanceBook.removeLocalTx(txHash);
+            UtxoData utxoData = localCoinData.remove(txHash);
+            if (utxoData == null) {
+                return;
             }
+            if (utxoData.getInputs() != null) {
+                for (UtxoInput input : utxoData.getInputs()) {
+                    localSpent.remove(input.getKey(), txHash);
+                }
+            }
+            if (utxoData.getOutputs() != null) {
+                for (UtxoOutput output : utxoData.getOutputs()) {
+                    List<UtxoOutput> outputs = localOutputs.get(output.getAddress());
+                    if (outputs == null) {
+                        continue;
+                    }
+                    outputs.remove(output);
+                    if (outputs.isEmpty()) {
+                        localOutputs.remove(output.getAddress());
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
         }
+    }
+
+    public void filterUtxoByLocalTxs(String address, List<UtxoOutput> unSpends) {
+        Collections.sort(unSpends, UtxoComparator.getInstance());
 
-        for (int i = unSpends.size() - 1; i >= 0; i--) {
-            UtxoOutput output = unSpends.get(i);
-            if (inputKeySet.contains(output.getKey())) {
-                unSpends.remove(i);
+        lock.lock();
+        try {
+            if (localTxs.isEmpty()) {
+                return;
+            }
+            List<UtxoOutput> outputs = localOutputs.get(address);
+            if (outputs != null) {
+                for (UtxoOutput output : outputs) {
+                    UtxoOutput copy = UtxoTransferTool.copyOutput(output);
+                    if (!copy.isLocked(NulsContext.getInstance().getBestHeight())) {
+                        unSpends.add(copy);
+                    }
+                }
+            }
+            for (int i = unSpends.size() - 1; i >= 0; i--) {
+                UtxoOutput output = unSpends.get(i);
+                if (localSpent.containsKey(output.getKey())) {
+                    unSpends.remove(i);
+                }
             }
+        } finally {
+            lock.unlock();
         }
     }
 }
@@ -41,6 +41,7 @@ import io.nuls.db.transactional.annotation.DbSession;
 import io.nuls.event.bus.service.intf.EventBroadcaster;
 import io.nuls.ledger.constant.LedgerConstant;
 import io.nuls.ledger.entity.*;
+import io.nuls.ledger.entity.listener.CoinDataTxService;
 import io.nuls.ledger.entity.params.Coin;
 import io.nuls.ledger.entity.params.CoinTransferData;
 import io.nuls.ledger.entity.params.OperationType;
@@ -50,6 +51,7 @@ import io.nuls.ledger.entity.tx.TransferTransaction;
 import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.ledger.util.UtxoTransactionTool;
 import io.nuls.ledger.util.UtxoTransferTool;
+import io.nuls.ledger.validator.TxSignValidator;
 import io.nuls.protocol.constant.TransactionConstant;
 import io.nuls.protocol.constant.TxStatusEnum;
 import io.nuls.protocol.context.NulsContext;
@@ -89,6 +91,12 @@ public class UtxoLedgerServiceImpl implements LedgerService {
 
     private LedgerCacheService ledgerCacheService = LedgerCacheService.getInstance();
 
+    private UtxoSetStore utxoSetStore = UtxoSetStore.getInstance();
+
+    private BalanceBook balanceBook = BalanceBook.getInstance();
+
+    private UtxoCoinManager coinManager = UtxoCoinManager.getInstance();
+
     private Lock lock = new ReentrantLock();
 
     @Override
@@ -272,11 +280,17 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         if (balance == null) {
             return null;
         }
+        if (ledgerCacheService.loadBalanceBook(address)) {
+            Balance bookBalance = balanceBook.getBalance(address);
+            if (bookBalance != null) {
+                return bookBalance;
+            }
+        }
         long usable = 0;
         long locked = 0;
 
         List<UtxoOutput> unSpends = ledgerCacheService.getUnSpends(address);
-        UtxoCoinManager.getInstance().filterUtxoByLocalTxs(address, unSpends);
+        coinManager.filterUtxoByLocalTxs(address, unSpends);
 
         for (UtxoOutput output : unSpends) {
             if (output.isLocked(NulsContext.getInstance().getBestHeight())) {
@@ -446,6 +460,10 @@ public class UtxoLedgerServiceImpl implements LedgerService {
             if (successCount != poList.size()) {
                 throw new NulsRuntimeException(ErrorCode.FAILED, "save block txs fail , totalCount : " + poList.size() + " , successCount : " + successCount);
             }
+            utxoSetStore.flush(blockHeight);
+            for (Transaction tx : txList) {
+                coinManager.removeLocalTx(tx.getHash().getDigestHex());
+            }
 
             for (TransactionLocalPo localPo : localPoList) {
                 TransactionLocalPo po = localTxDao.get(localPo.getHash());
@@ -490,6 +508,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
                 relationPo.setAddress(output.getAddress());
                 relationDataService.save(relationPo);
             }
+            coinManager.addLocalTx(localPo);
         }
 //        if (tx instanceof AbstractCoinTransaction) {
 //            AbstractCoinTransaction abstractTx = (AbstractCoinTransaction) tx;
@@ -511,7 +530,9 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         List<TxAccountRelationPo> relationList = relationDataService.selectByAddress(address);
         for (TxAccountRelationPo po : relationList) {
             localTxDao.delete(po.getTxHash());
+            coinManager.removeLocalTx(po.getTxHash());
         }
+        balanceBook.removeAddress(address);
     }
 
     @Override
@@ -632,6 +653,28 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         return result;
     }
 
+    @Override
+    public ValidateResult conflictDetectTx(Transaction tx, CoinVerifyContext context) throws NulsException {
+        AssertUtil.canNotEmpty(tx, ErrorCode.NULL_PARAMETER);
+        if (null == context || context.isEmpty()) {
+            return ValidateResult.getSuccessResult();
+        }
+        ValidateResult result = ValidateResult.getSuccessResult();
+        if (tx instanceof AbstractCoinTransaction) {
+            result = ((AbstractCoinTransaction) tx).getCoinDataProvider().conflictDetect(tx, context);
+        }
+        for (TransactionService service : getServiceList(tx.getClass())) {
+            if (result.isFailed()) {
+                break;
+            }
+            // the inputs are checked above, the other services look at the few txs of their own types
+            if (!(service instanceof CoinDataTxService)) {
+                result = service.conflictDetect(tx, context.getTxList());
+            }
+        }
+        return result;
+    }
+
     @Override
     public void deleteTx(Transaction tx) {
         txDao.delete(tx.getHash().getDigestHex());
@@ -640,6 +683,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
     @Override
     @DbSession
     public void deleteTx(long blockHeight) {
+        utxoSetStore.flush(blockHeight - 1);
         List<TransactionPo> txList = txDao.getTxs(blockHeight);
         for (TransactionPo tx : txList) {
             txDao.delete(tx.getHash());
@@ -650,6 +694,9 @@ public class UtxoLedgerServiceImpl implements LedgerService {
                 }
                 localPo.setTxStatus(TransactionLocalPo.UNCONFIRM);
                 localTxDao.update(localPo);
+                if (localPo.getType() != TransactionConstant.TX_TYPE_COIN_BASE) {
+                    coinManager.addLocalTx(localPo);
+                }
             }
         }
     }
@@ -706,6 +753,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         UtxoOutput output = ledgerCacheService.getUtxo(key);
         output.setStatus(OutPutStatusEnum.UTXO_UNSPENT);
         ledgerCacheService.putUtxo(key, output, true);
+        utxoSetStore.putUtxo(output);
 //        UtxoTransactionTool.getInstance().calcBalance(output.getAddress(), false);
     }
 
@@ -718,20 +766,25 @@ public class UtxoLedgerServiceImpl implements LedgerService {
 
         keyMap.put("txHash", txHash);
         keyMap.put("outIndex", 0);
-        UtxoOutputPo po = outputDataService.get(keyMap);
-        if (po != null) {
-            po.setStatus(UtxoOutputPo.LOCKED);
-            outputDataService.update(po);
-            UtxoOutput output = UtxoTransferTool.toOutput(po);
-            ledgerCacheService.putUtxo(output.getKey(), output, true);
+        UtxoOutput output = utxoSetStore.getUtxo(NulsDigestData.fromDigestHex(txHash), 0);
+        if (output == null) {
+            UtxoOutputPo po = outputDataService.get(keyMap);
+            if (po == null) {
+                return;
+            }
+            output = UtxoTransferTool.toOutput(po);
         }
+        output.setStatus(OutPutStatusEnum.UTXO_CONSENSUS_LOCK);
+        outputDataService.update(UtxoTransferTool.toOutputPojo(output));
+        ledgerCacheService.putUtxo(output.getKey(), output, true);
+        utxoSetStore.putUtxo(output);
     }
 
     @Override
     public Page<UtxoOutput> getLockUtxo(String address, Integer pageNumber, Integer pageSize) {
         List<UtxoOutput> lockOutputs = new ArrayList<>();
         long count = outputDataService.getLockUtxoCount(address, TimeService.currentTimeMillis(), NulsContext.getInstance().getBestHeight());
-        List<AbstractCoinTransaction> localTxs = UtxoCoinManager.getInstance().getLocalUnConfirmTxs();
+        List<AbstractCoinTransaction> localTxs = coinManager.getLocalUnConfirmTxs();
         for (int i = localTxs.size() - 1; i >= 0; i--) {
             AbstractCoinTransaction tx = localTxs.get(i);
             UtxoData utxoData = (UtxoData) tx.getCoinData();
@@ -774,7 +827,7 @@ public class UtxoLedgerServiceImpl implements LedgerService {
     @Override
     public Balance getAccountUtxo(String address, Na amount) {
         UtxoBalance balance = new UtxoBalance();
-        List<UtxoOutput> unSpends = UtxoCoinManager.getInstance().getAccountUnSpend(address, amount);
+        List<UtxoOutput> unSpends = coinManager.getAccountUnSpend(address, amount);
         balance.setUnSpends(unSpends);
         return balance;
     }
@@ -800,27 +853,27 @@ public class UtxoLedgerServiceImpl implements LedgerService {
 
     @Override
     public List<Transaction> getWaitingTxList() throws NulsException {
-        List<TransactionLocalPo> poList = localTxDao.getUnConfirmTxs();
-        List<Transaction> txList = new ArrayList<>();
-        for (TransactionLocalPo po : poList) {
-            Transaction tx = UtxoTransferTool.toTransaction(po);
-            txList.add(tx);
-        }
-        return txList;
+        return new ArrayList<Transaction>(coinManager.getLocalUnConfirmTxs());
     }
 
     @Override
     @DbSession
     public void deleteLocalTx(String txHash) {
         this.localTxDao.delete(txHash);
+        coinManager.removeLocalTx(txHash);
     }
 
     @Override
     public ValidateResult verifyTx(Transaction tx, List<Transaction> txList) {
+        return verifyTx(tx, new UtxoVerifyContext(txList));
+    }
+
+    @Override
+    public ValidateResult verifyTx(Transaction tx, CoinVerifyContext context) {
         ValidateResult result = tx.verify();
         if (result.isFailed() && result.getErrorCode() == ErrorCode.ORPHAN_TX) {
             AbstractCoinTransaction coinTx = (AbstractCoinTransaction) tx;
-            result = coinTx.getCoinDataProvider().verifyCoinData(coinTx, txList);
+            result = coinTx.getCoinDataProvider().verifyCoinData(coinTx, context);
             if (result.isSuccess()) {
                 coinTx.setSkipInputValidator(true);
                 result = coinTx.verify();
@@ -830,6 +883,16 @@ public class UtxoLedgerServiceImpl implements LedgerService {
         return result;
     }
 
+    @Override
+    public CoinVerifyContext createVerifyContext() {
+        return new UtxoVerifyContext();
+    }
+
+    @Override
+    public ValidateResult verifyTxSigns(List<Transaction> txList, boolean stopOnFailure) {
+        return TxSignValidator.getInstance().validateAll(txList, stopOnFailure);
+    }
+
     @Override
     public void verifyTxWithException(Transaction tx, List<Transaction> txList) {
         ValidateResult result = this.verifyTx(tx, txList);
@@ -0,0 +1,466 @@
+/**
+ * MIT License
+ * *
+ * Copyright (c) 2017-2018 nuls.io
+ * *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.service.impl;
+
+import io.nuls.core.constant.ErrorCode;
+import io.nuls.core.crypto.UnsafeByteArrayOutputStream;
+import io.nuls.core.exception.NulsException;
+import io.nuls.core.exception.NulsRuntimeException;
+import io.nuls.core.model.Result;
+import io.nuls.core.utils.crypto.Hex;
+import io.nuls.core.utils.log.Log;
+import io.nuls.db.service.intf.BatchOperation;
+import io.nuls.db.service.intf.KVIterator;
+import io.nuls.db.service.intf.KVStorageService;
+import io.nuls.db.transactional.TransactionSynchronization;
+import io.nuls.db.transactional.TransactionSynchronizationManager;
+import io.nuls.ledger.constant.LedgerConstant;
+import io.nuls.ledger.entity.OutPutStatusEnum;
+import io.nuls.ledger.entity.UtxoOutput;
+import io.nuls.protocol.context.NulsContext;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import io.nuls.protocol.utils.io.NulsOutputStreamBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * The unspent outputs kept in the key-value storage.
+ * All records live in one area, so everything a block changes is written with a single batch:
+ * <p>
+ * 'o' + txHash + index          : the output
+ * 'a' + owner + txHash + index  : address index of the output
+ * 'u' + spending txHash         : the outputs spent by the tx, used to restore them on rollback
+ * 'h'                           : height of the last block written
+ * <p>
+ * Changes are staged in memory per thread while a block is committed or rolled back. Inside a transaction they are
+ * written once it committed, outside of one by {@link #flush(long)}. Reads of a thread see its own staged changes
+ * over the records written, the changes staged by other threads are not visible until they are written.
+ */
+public class UtxoSetStore {
+
+    private static final byte PREFIX_OUTPUT = 'o';
+    private static final byte PREFIX_ADDRESS = 'a';
+    private static final byte PREFIX_UNDO = 'u';
+    private static final byte[] HEIGHT_KEY = new byte[]{'h'};
+
+    private static final byte[] EMPTY_VALUE = new byte[0];
+
+    private final KVStorageService kvStorageService;
+
+    private final ThreadLocal<Staging> staging = new ThreadLocal<Staging>() {
+        @Override
+        protected Staging initialValue() {
+            return new Staging();
+        }
+    };
+
+    private UtxoSetStore() {
+        this(NulsContext.getServiceBean(KVStorageService.class));
+    }
+
+    UtxoSetStore(KVStorageService kvStorageService) {
+        this.kvStorageService = kvStorageService;
+        Result result = kvStorageService.createArea(LedgerConstant.UTXO_SET_AREA);
+        if (result.isFailed()) {
+            throw new NulsRuntimeException(ErrorCode.DB_MODULE_START_FAIL, "create utxo area failed");
+        }
+    }
+
+    public static UtxoSetStore getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * creates the store on first use, once the storage service is available
+     */
+    private static class Holder {
+        private static final UtxoSetStore INSTANCE = new UtxoSetStore();
+    }
+
+    public UtxoOutput getUtxo(NulsDigestData txHash, int index) {
+        return toOutput(get(outputKey(hashBytes(txHash), index)));
+    }
+
+    /**
+     * @param key txHash + "-" + index, the same as {@link UtxoOutput#getKey()}
+     */
+    public UtxoOutput getUtxo(String key) {
+        int split = key.lastIndexOf('-');
+        if (split <= 0) {
+            return null;
+        }
+        return toOutput(get(outputKey(Hex.decode(key.substring(0, split)), Integer.parseInt(key.substring(split + 1)))));
+    }
+
+    public void putUtxo(UtxoOutput output) {
+        putUtxo(stagedChanges(), output);
+    }
+
+    private void putUtxo(Map<ByteBuffer, byte[]> changes, UtxoOutput output) {
+        byte[] hash = hashBytes(output.getTxHash());
+        changes.put(ByteBuffer.wrap(outputKey(hash, output.getIndex())), toRecord(output));
+        if (output.getP2PKHScript() != null) {
+            changes.put(ByteBuffer.wrap(addressKey(output.getOwner(), hash, output.getIndex())), EMPTY_VALUE);
+        }
+    }
+
+    public void removeUtxo(UtxoOutput output) {
+        byte[] hash = hashBytes(output.getTxHash());
+        stage(outputKey(hash, output.getIndex()), null);
+        if (output.getP2PKHScript() != null) {
+            stage(addressKey(output.getOwner(), hash, output.getIndex()), null);
+        }
+    }
+
+    /**
+     * keep the outputs spent by a tx until the block holding it is rolled back
+     */
+    public void putSpent(NulsDigestData txHash, List<UtxoOutput> spends) {
+        if (spends.isEmpty()) {
+            return;
+        }
+        UnsafeByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(spends.size() * 128);
+        NulsOutputStreamBuffer buffer = new NulsOutputStreamBuffer(bos);
+        try {
+            buffer.writeVarInt(spends.size());
+            for (UtxoOutput output : spends) {
+                buffer.writeBytesWithLength(toRecord(output));
+            }
+        } catch (IOException e) {
+            throw new NulsRuntimeException(e);
+        }
+        stage(undoKey(hashBytes(txHash)), bos.toByteArray());
+    }
+
+    /**
+     * read and remove the outputs spent by a tx
+     */
+    public List<UtxoOutput> takeSpent(NulsDigestData txHash) {
+        byte[] key = undoKey(hashBytes(txHash));
+        byte[] value = get(key);
+        List<UtxoOutput> spends = new ArrayList<>();
+        if (value == null || value.length == 0) {
+            return spends;
+        }
+        try {
+            NulsByteBuffer buffer = new NulsByteBuffer(value);
+            long count = buffer.readVarInt();
+            for (int i = 0; i < count; i++) {
+                spends.add(toOutput(buffer.readByLengthByte()));
+            }
+        } catch (NulsException e) {
+            throw new NulsRuntimeException(e);
+        }
+        stage(key, null);
+        return spends;
+    }
+
+    /**
+     * write the changes staged by the current thread atomically, together with the height of the block they belong to.
+     * Inside a transaction they are written once it committed and dropped if it rolled back,
+     * so the store never gets ahead of the block table.
+     */
+    public void flush(long height) {
+        Staging current = staging.get();
+        if (synchronizeWithTransaction(current)) {
+            current.flushHeight = height;
+            return;
+        }
+        write(current.changes, height);
+        staging.remove();
+    }
+
+    /**
+     * drop the changes the current thread staged since its last flush
+     */
+    public void discard() {
+        staging.remove();
+    }
+
+    /**
+     * The batch carries the outputs of a committed block, it is synced to disk so that a crash
+     * can not leave the store behind the block table.
+     */
+    private void write(Map<ByteBuffer, byte[]> changes, long height) {
+        BatchOperation batch = kvStorageService.createWriteBatch(LedgerConstant.UTXO_SET_AREA);
+        if (batch == null) {
+            throw new NulsRuntimeException(ErrorCode.DB_SAVE_ERROR, "utxo area not exist");
+        }
+        for (Map.Entry<ByteBuffer, byte[]> entry : changes.entrySet()) {
+            if (entry.getValue() == null) {
+                batch.delete(entry.getKey().array());
+            } else {
+                batch.put(entry.getKey().array(), entry.getValue());
+            }
+        }
+        batch.put(HEIGHT_KEY, longToBytes(height));
+        Result result = batch.executeBatch(true);
+        if (result.isFailed()) {
+            throw new NulsRuntimeException(ErrorCode.DB_SAVE_ERROR, result.getMessage());
+        }
+    }
+
+    /**
+     * registers the staging of the thread with the transaction of the thread, once
+     *
+     * @return false when there is no transaction to follow
+     */
+    private boolean synchronizeWithTransaction(final Staging current) {
+        if (!TransactionSynchronizationManager.isActive()) {
+            return false;
+        }
+        if (!current.synchronizing) {
+            current.synchronizing = true;
+            TransactionSynchronizationManager.register(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    staging.remove();
+                    //changes committed without a block keep the height of the store
+                    long height = null == current.flushHeight ? getHeight() : current.flushHeight;
+                    write(current.changes, height);
+                }
+
+                @Override
+                public void afterRollback() {
+                    staging.remove();
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * @return the height of the last block written, -1 if the store is empty
+     */
+    public long getHeight() {
+        byte[] value = get(HEIGHT_KEY);
+        if (value == null) {
+            return -1;
+        }
+        return ByteBuffer.wrap(value).getLong();
+    }
+
+    /**
+     * replace the content of the store with outputs loaded from elsewhere, e.g. the first start after upgrade
+     */
+    public void importUtxo(List<UtxoOutput> outputs, long height) {
+        Log.info("import " + outputs.size() + " utxo into utxo set store, height:" + height);
+        staging.remove();
+        clear();
+        Map<ByteBuffer, byte[]> changes = new LinkedHashMap<>();
+        for (UtxoOutput output : outputs) {
+            putUtxo(changes, output);
+        }
+        write(changes, height);
+    }
+
+    /**
+     * all unspent outputs in the store, staged changes are not included
+     */
+    public List<UtxoOutput> getAllUtxo() {
+        List<UtxoOutput> outputs = new ArrayList<>();
+        KVIterator iterator = kvStorageService.iterator(LedgerConstant.UTXO_SET_AREA, new byte[]{PREFIX_OUTPUT}, false);
+        if (iterator == null) {
+            return outputs;
+        }
+        try {
+            while (iterator.hasNext()) {
+                outputs.add(toOutput(iterator.next().getValue()));
+            }
+        } finally {
+            iterator.close();
+        }
+        return outputs;
+    }
+
+    /**
+     * the unspent outputs of an address, found by the address index, with the changes staged by the current thread
+     */
+    public List<UtxoOutput> getUtxoList(byte[] owner) {
+        byte[] prefix = ByteBuffer.allocate(1 + owner.length).put(PREFIX_ADDRESS).put(owner).array();
+        Set<ByteBuffer> addressKeys = new LinkedHashSet<>();
+        KVIterator iterator = kvStorageService.iterator(LedgerConstant.UTXO_SET_AREA, prefix, false);
+        if (iterator != null) {
+            try {
+                while (iterator.hasNext()) {
+                    addressKeys.add(ByteBuffer.wrap(iterator.next().getKey()));
+                }
+            } finally {
+                iterator.close();
+            }
+        }
+        Staging current = staging.get();
+        ByteBuffer wrapPrefix = ByteBuffer.wrap(prefix);
+        for (Map.Entry<ByteBuffer, byte[]> entry : current.changes.entrySet()) {
+            ByteBuffer key = entry.getKey();
+            if (key.remaining() <= prefix.length || !wrapPrefix.equals(ByteBuffer.wrap(key.array(), 0, prefix.length))) {
+                continue;
+            }
+            if (entry.getValue() == null) {
+                addressKeys.remove(key);
+            } else {
+                addressKeys.add(key);
+            }
+        }
+
+        List<UtxoOutput> outputs = new ArrayList<>();
+        for (ByteBuffer addressKey : addressKeys) {
+            byte[] key = addressKey.array();
+            byte[] outputKey = new byte[key.length - owner.length];
+            outputKey[0] = PREFIX_OUTPUT;
+            System.arraycopy(key, prefix.length, outputKey, 1, outputKey.length - 1);
+            UtxoOutput output = toOutput(get(outputKey));
+            if (output != null) {
+                outputs.add(output);
+            }
+        }
+        return outputs;
+    }
+
+    /**
+     * delete every record of the store in one batch
+     */
+    private void clear() {
+        KVIterator iterator = kvStorageService.iterator(LedgerConstant.UTXO_SET_AREA, null, false);
+        if (iterator == null) {
+            return;
+        }
+        BatchOperation batch = kvStorageService.createWriteBatch(LedgerConstant.UTXO_SET_AREA);
+        try {
+            while (iterator.hasNext()) {
+                batch.delete(iterator.next().getKey());
+            }
+        } finally {
+            iterator.close();
+        }
+        Result result = batch.executeBatch();
+        if (result.isFailed()) {
+            throw new NulsRuntimeException(ErrorCode.DB_SAVE_ERROR, result.getMessage());
+        }
+    }
+
+    private byte[] get(byte[] key) {
+        Map<ByteBuffer, byte[]> changes = staging.get().changes;
+        ByteBuffer wrapKey = ByteBuffer.wrap(key);
+        if (changes.containsKey(wrapKey)) {
+            return changes.get(wrapKey);
+        }
+        return kvStorageService.get(LedgerConstant.UTXO_SET_AREA, key);
+    }
+
+    /**
+     * the changes of the current thread, following its transaction if there is one
+     */
+    private Map<ByteBuffer, byte[]> stagedChanges() {
+        Staging current = staging.get();
+        synchronizeWithTransaction(current);
+        return current.changes;
+    }
+
+    private void stage(byte[] key, byte[] value) {
+        stagedChanges().put(ByteBuffer.wrap(key), value);
+    }
+
+    private byte[] toRecord(UtxoOutput output) {
+        UnsafeByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(output.size() + 48);
+        NulsOutputStreamBuffer buffer = new NulsOutputStreamBuffer(bos);
+        try {
+            buffer.writeBytesWithLength(hashBytes(output.getTxHash()));
+            buffer.writeBytesWithLength(output.serialize());
+            buffer.write(output.getStatus() == null ? -1 : output.getStatus().ordinal());
+            buffer.writeInt48(output.getCreateTime());
+            buffer.writeVarInt(output.getTxType());
+        } catch (IOException e) {
+            throw new NulsRuntimeException(e);
+        }
+        return bos.toByteArray();
+    }
+
+    private UtxoOutput toOutput(byte[] record) {
+        if (record == null || record.length == 0) {
+            return null;
+        }
+        try {
+            NulsByteBuffer buffer = new NulsByteBuffer(record);
+            NulsDigestData txHash = new NulsDigestData(buffer.readByLengthByte());
+            UtxoOutput output = new UtxoOutput(txHash);
+            output.parse(buffer.readByLengthByte());
+            byte status = buffer.readByte();
+            if (status >= 0) {
+                output.setStatus(OutPutStatusEnum.values()[status]);
+            }
+            output.setCreateTime(buffer.readInt48());
+            output.setTxType((int) buffer.readVarInt());
+            return output;
+        } catch (NulsException e) {
+            Log.error(e);
+            throw new NulsRuntimeException(ErrorCode.DB_DATA_ERROR, "utxo record parse failed");
+        }
+    }
+
+    private static byte[] hashBytes(NulsDigestData hash) {
+        try {
+            return hash.serialize();
+        } catch (IOException e) {
+            throw new NulsRuntimeException(e);
+        }
+    }
+
+    private static byte[] outputKey(byte[] hash, int index) {
+        return ByteBuffer.allocate(1 + hash.length + 4).put(PREFIX_OUTPUT).put(hash).putInt(index).array();
+    }
+
+    private static byte[] addressKey(byte[] owner, byte[] hash, int index) {
+        return ByteBuffer.allocate(1 + owner.length + hash.length + 4).put(PREFIX_ADDRESS).put(owner).put(hash).putInt(index).array();
+    }
+
+    private static byte[] undoKey(byte[] hash) {
+        return ByteBuffer.allocate(1 + hash.length).put(PREFIX_UNDO).put(hash).array();
+    }
+
+    private static byte[] longToBytes(long value) {
+        return ByteBuffer.allocate(8).putLong(value).array();
+    }
+
+    /**
+     * the changes of one thread since its last flush, a null value means the key is deleted
+     */
+    private static class Staging {
+
+        private final Map<ByteBuffer, byte[]> changes = new LinkedHashMap<>();
+
+        /**
+         * height given to {@link #flush(long)} in the current transaction
+         */
+        private Long flushHeight;
+
+        /**
+         * the changes wait for the current transaction to end
+         */
+        private boolean synchronizing;
+    }
+}
@@ -32,12 +32,13 @@ import io.nuls.db.dao.TransactionLocalDataService;
 import io.nuls.db.dao.UtxoInputDataService;
 import io.nuls.event.bus.service.intf.EventBroadcaster;
 import io.nuls.event.bus.service.intf.EventBusService;
+import io.nuls.ledger.entity.CoinVerifyContext;
+import io.nuls.ledger.service.impl.UtxoCoinManager;
 import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.TransactionEvent;
 import io.nuls.protocol.model.Transaction;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -83,22 +84,24 @@ public class ReSendTxThread implements Runnable {
 
     private void reSendLocalTx() throws NulsException {
         List<Transaction> txList = getLedgerService().getWaitingTxList();
-        List<Transaction> helpList = new ArrayList<>();
+        CoinVerifyContext context = getLedgerService().createVerifyContext();
         for (Transaction tx : txList) {
             if (TimeService.currentTimeMillis() - tx.getTime() < DateUtil.MINUTE_TIME * 2) {
                 continue;
             }
-            ValidateResult result = ledgerService.verifyTx(tx, helpList);
+            ValidateResult result = ledgerService.verifyTx(tx, context);
             if (result.isFailed()) {
                 getLocalDataService().deleteUnCofirmTx(tx.getHash().getDigestHex());
+                UtxoCoinManager.getInstance().removeLocalTx(tx.getHash().getDigestHex());
                 continue;
             }
             Transaction transaction = getLedgerService().getTx(tx.getHash());
             if (transaction != null) {
                 getLocalDataService().deleteUnCofirmTx(tx.getHash().getDigestHex());
+                UtxoCoinManager.getInstance().removeLocalTx(tx.getHash().getDigestHex());
                 continue;
             }
-            helpList.add(tx);
+            context.accept(tx);
             TransactionEvent event = new TransactionEvent();
             event.setEventBody(tx);
             getEventBroadcaster().publishToLocal(event);
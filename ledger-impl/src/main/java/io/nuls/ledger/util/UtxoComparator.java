@@ -16,12 +16,15 @@ public class UtxoComparator implements Comparator<UtxoOutput> {
         return instance;
     }
 
+    /**
+     * by value, outputs of the same value by key so a sorted set keeps all of them
+     */
     @Override
     public int compare(UtxoOutput o1, UtxoOutput o2) {
         if (o1.getValue() < o2.getValue()) {
             return -1;
         } else if (o1.getValue() == o2.getValue()) {
-            return 0;
+            return o1.getKey().compareTo(o2.getKey());
         }
         return 1;
     }
@@ -91,6 +91,22 @@ public class UtxoTransferTool {
         return output;
     }
 
+    /**
+     * a copy of an output held by a cache or an index, so the caller can change its status
+     */
+    public static UtxoOutput copyOutput(UtxoOutput output) {
+        UtxoOutput copy = new UtxoOutput(output.getTxHash());
+        copy.setIndex(output.getIndex());
+        copy.setValue(output.getValue());
+        copy.setAddress(output.getAddress());
+        copy.setLockTime(output.getLockTime());
+        copy.setP2PKHScript(output.getP2PKHScript());
+        copy.setStatus(output.getStatus());
+        copy.setCreateTime(output.getCreateTime());
+        copy.setTxType(output.getTxType());
+        return copy;
+    }
+
     public static UtxoOutputPo toOutputPojo(UtxoOutput output) {
         UtxoOutputPo po = new UtxoOutputPo();
         po.setTxHash(output.getTxHash().getDigestHex());
@@ -0,0 +1,101 @@
+/**
+ * MIT License
+ **
+ * Copyright (c) 2017-2018 nuls.io
+ **
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ **
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ **
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.validator;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The signatures already verified, keyed by tx hash and the digest of the scriptSig,
+ * so a tx seen as a new tx, then packed, then in a block is verified only once.
+ * The oldest entries are dropped when it is full.
+ */
+public class SignVerifiedCache {
+
+    private static final SignVerifiedCache INSTANCE = new SignVerifiedCache();
+
+    private static final int MAX_SIZE = 100000;
+
+    private final Map<String, Boolean> verifiedMap = new ConcurrentHashMap<>();
+
+    private final Queue<String> keyQueue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private SignVerifiedCache() {
+    }
+
+    public static SignVerifiedCache getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean contains(String key) {
+        if (verifiedMap.containsKey(key)) {
+            hitCount.incrementAndGet();
+            return true;
+        }
+        missCount.incrementAndGet();
+        return false;
+    }
+
+    public void add(String key) {
+        if (verifiedMap.put(key, Boolean.TRUE) != null) {
+            return;
+        }
+        keyQueue.offer(key);
+        while (verifiedMap.size() > MAX_SIZE) {
+            String eldest = keyQueue.poll();
+            if (eldest == null) {
+                break;
+            }
+            verifiedMap.remove(eldest);
+        }
+    }
+
+    public void clear() {
+        verifiedMap.clear();
+        keyQueue.clear();
+    }
+
+    public int size() {
+        return verifiedMap.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public String getInfo() {
+        return "sign cache size:" + size() + ", hit:" + getHitCount() + ", miss:" + getMissCount();
+    }
+}
@@ -34,6 +34,11 @@ import io.nuls.protocol.script.P2PKHScriptSig;
 import io.nuls.protocol.utils.io.NulsByteBuffer;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Niels
@@ -42,7 +47,25 @@ import java.util.Arrays;
 public class TxSignValidator implements NulsDataValidator<Transaction> {
     private static final TxSignValidator INSTANCE = new TxSignValidator();
 
+    /**
+     * the most txs one fork join task verifies without splitting
+     */
+    private static final int TASK_TX_COUNT = 2;
+
+    private final ForkJoinPool pool;
+
+    private final SignVerifiedCache verifiedCache = SignVerifiedCache.getInstance();
+
     private TxSignValidator() {
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("sign-verify-" + thread.getPoolIndex());
+                return thread;
+            }
+        };
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), factory, null, false);
     }
 
     public static TxSignValidator getInstance() {
@@ -55,20 +78,32 @@ public class TxSignValidator implements NulsDataValidator<Transaction> {
         if (tx.getType() == TransactionConstant.TX_TYPE_COIN_BASE || tx.getType() == TransactionConstant.TX_TYPE_YELLOW_PUNISH) {
             return ValidateResult.getSuccessResult();
         }
-
+        // read before anything else, setting the hash or the scriptSig clears it
+        boolean signVerified = tx.isSignVerified();
         byte[] scriptSig = tx.getScriptSig();
-        tx.setScriptSig(null);
         NulsDigestData nulsDigestData;
         try {
-            nulsDigestData = NulsDigestData.calcDigestData(tx.serialize());
+            nulsDigestData = tx.calcHash();
         } catch (Exception e) {
             return ValidateResult.getFailedResult(ErrorCode.DATA_ERROR);
-        } finally {
-            tx.setScriptSig(scriptSig);
         }
         if (!Arrays.equals(nulsDigestData.getDigestBytes(), tx.getHash().getDigestBytes())) {
             return ValidateResult.getFailedResult(ErrorCode.DATA_ERROR);
         }
+        // the flag only skips the signature check, the hash above is recomputed every time
+        // so a tx changed after it was verified is still caught
+        if (signVerified) {
+            return ValidateResult.getSuccessResult();
+        }
+
+        if (null == scriptSig) {
+            return ValidateResult.getFailedResult(ErrorCode.SIGNATURE_ERROR);
+        }
+        String cacheKey = tx.getHash().getDigestHex() + NulsDigestData.calcDigestData(scriptSig).getDigestHex();
+        if (verifiedCache.contains(cacheKey)) {
+            tx.setSignVerified(true);
+            return ValidateResult.getSuccessResult();
+        }
 
         P2PKHScriptSig p2PKHScriptSig = null;
         try {
@@ -76,6 +111,64 @@ public class TxSignValidator implements NulsDataValidator<Transaction> {
         } catch (NulsException e) {
             return ValidateResult.getFailedResult(ErrorCode.SIGNATURE_ERROR);
         }
-        return p2PKHScriptSig.verifySign(tx.getHash());
+        ValidateResult result = p2PKHScriptSig.verifySign(tx.getHash());
+        if (result.isSuccess()) {
+            verifiedCache.add(cacheKey);
+            tx.setSignVerified(true);
+        }
+        return result;
+    }
+
+    /**
+     * Verify the signatures of many txs on all cores, the txs passed are marked so {@link #validate(Transaction)}
+     * only recomputes their hash and skips the signature check.
+     *
+     * @param stopOnFailure stop the rest once a tx fails, for a block that is rejected anyway
+     * @return the first failure found, or success
+     */
+    public ValidateResult validateAll(List<Transaction> txList, boolean stopOnFailure) {
+        if (null == txList || txList.isEmpty()) {
+            return ValidateResult.getSuccessResult();
+        }
+        AtomicReference<ValidateResult> failure = new AtomicReference<>();
+        pool.invoke(new SignTask(txList, 0, txList.size(), stopOnFailure, failure));
+        ValidateResult result = failure.get();
+        return result == null ? ValidateResult.getSuccessResult() : result;
+    }
+
+    private class SignTask extends RecursiveAction {
+
+        private final List<Transaction> txList;
+        private final int start;
+        private final int end;
+        private final boolean stopOnFailure;
+        private final AtomicReference<ValidateResult> failure;
+
+        SignTask(List<Transaction> txList, int start, int end, boolean stopOnFailure, AtomicReference<ValidateResult> failure) {
+            this.txList = txList;
+            this.start = start;
+            this.end = end;
+            this.stopOnFailure = stopOnFailure;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > TASK_TX_COUNT) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new SignTask(txList, start, middle, stopOnFailure, failure),
+                        new SignTask(txList, middle, end, stopOnFailure, failure));
+                return;
+            }
+            for (int i = start; i < end; i++) {
+                if (stopOnFailure && failure.get() != null) {
+                    return;
+                }
+                ValidateResult result = validate(txList.get(i));
+                if (result.isFailed()) {
+                    failure.compareAndSet(null, result);
+                }
+            }
+        }
     }
 }
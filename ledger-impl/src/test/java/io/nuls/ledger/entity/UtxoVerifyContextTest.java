@@ -0,0 +1,66 @@
+package io.nuls.ledger.entity;
+
+import io.nuls.ledger.entity.tx.TransferTransaction;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.Transaction;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The spent outputs and the outputs created by the accepted txs are indexed as they are accepted.
+ */
+public class UtxoVerifyContextTest {
+
+    @Test
+    public void testSpentIndex() {
+        NulsDigestData fromHash = NulsDigestData.calcDigestData("from".getBytes());
+        UtxoVerifyContext context = new UtxoVerifyContext();
+        Assert.assertTrue(context.isEmpty());
+
+        TransferTransaction first = newTx("first", fromHash);
+        context.accept(first);
+        Assert.assertTrue(context.isSpent(fromHash.getDigestHex() + "-0"));
+        Assert.assertFalse(context.isSpent(fromHash.getDigestHex() + "-1"));
+        String created = first.getHash().getDigestHex() + "-0";
+        Assert.assertNotNull(context.getOutput(created));
+
+        context.accept(newTx("second", first.getHash()));
+        Assert.assertTrue(context.isSpent(created));
+        Assert.assertNull(context.getOutput(created));
+        Assert.assertEquals(2, context.getTxList().size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testTxListIsReadOnly() {
+        UtxoVerifyContext context = new UtxoVerifyContext();
+        context.accept(newTx("first", NulsDigestData.calcDigestData("from".getBytes())));
+        List<Transaction> txList = context.getTxList();
+        txList.clear();
+    }
+
+    private static TransferTransaction newTx(String seed, NulsDigestData fromHash) {
+        TransferTransaction tx = new TransferTransaction();
+        tx.setHash(NulsDigestData.calcDigestData(seed.getBytes()));
+
+        UtxoInput input = new UtxoInput(tx.getHash());
+        input.setFromHash(fromHash);
+        input.setFromIndex(0);
+        List<UtxoInput> inputs = new ArrayList<>();
+        inputs.add(input);
+
+        UtxoOutput output = new UtxoOutput(tx.getHash());
+        output.setIndex(0);
+        output.setValue(100);
+        List<UtxoOutput> outputs = new ArrayList<>();
+        outputs.add(output);
+
+        UtxoData utxoData = new UtxoData();
+        utxoData.setInputs(inputs);
+        utxoData.setOutputs(outputs);
+        tx.setCoinData(utxoData);
+        return tx;
+    }
+}
@@ -0,0 +1,139 @@
+package io.nuls.ledger.selection;
+
+import io.nuls.ledger.entity.UtxoOutput;
+import io.nuls.ledger.service.impl.UtxoCoinManager;
+import io.nuls.ledger.util.UtxoComparator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Exact matches, the input limit, missing funds and large candidate sets for each coin selector.
+ */
+public class CoinSelectorTest {
+
+    private final CoinSelector bnb = BranchAndBoundSelector.getInstance();
+
+    private final CoinSelector largestFirst = LargestFirstSelector.getInstance();
+
+    private final CoinSelector consolidateSmall = ConsolidateSmallSelector.getInstance();
+
+    @Test
+    public void testBranchAndBoundExactMatch() {
+        assertValues(bnb.select(candidates(1, 3, 5, 10), 5, 10), 5);
+        assertValues(bnb.select(candidates(2, 3, 7, 20), 10, 10), 7, 3);
+    }
+
+    @Test
+    public void testBranchAndBoundWithoutExactMatch() {
+        // the smallest output covering the target alone
+        assertValues(bnb.select(candidates(3, 7, 20, 50), 11, 10), 20);
+        // no output covers it alone, the largest first
+        assertValues(bnb.select(candidates(4, 5, 6), 14, 10), 6, 5, 4);
+    }
+
+    @Test
+    public void testBranchAndBoundMaxInputs() {
+        Assert.assertNull(bnb.select(candidates(1, 2, 3, 4), 9, 2));
+        assertValues(bnb.select(candidates(1, 2, 3, 4), 9, 3), 4, 3, 2);
+        Assert.assertNull(bnb.select(candidates(1, 2, 3, 4), 1, 0));
+    }
+
+    @Test
+    public void testBranchAndBoundInsufficientFunds() {
+        Assert.assertNull(bnb.select(candidates(1, 2), 10, 10));
+        Assert.assertNull(bnb.select(candidates(), 1, 10));
+        Assert.assertTrue(bnb.select(candidates(1, 2), 0, 10).isEmpty());
+    }
+
+    @Test
+    public void testLargestFirstExactMatch() {
+        assertValues(largestFirst.select(candidates(1, 5, 10), 10, 10), 10);
+        assertValues(largestFirst.select(candidates(1, 2, 3, 7), 10, 10), 7, 3);
+    }
+
+    @Test
+    public void testLargestFirstMaxInputs() {
+        Assert.assertNull(largestFirst.select(candidates(1, 2, 3, 4), 9, 2));
+        assertValues(largestFirst.select(candidates(1, 2, 3, 4), 9, 3), 4, 3, 2);
+    }
+
+    @Test
+    public void testLargestFirstInsufficientFunds() {
+        Assert.assertNull(largestFirst.select(candidates(1, 2, 3), 7, 10));
+        Assert.assertTrue(largestFirst.select(candidates(1, 2), 0, 10).isEmpty());
+    }
+
+    @Test
+    public void testConsolidateSmallExactMatch() {
+        assertValues(consolidateSmall.select(candidates(1, 2, 3, 10), 6, 10), 1, 2, 3);
+    }
+
+    @Test
+    public void testConsolidateSmallMaxInputs() {
+        // the smallest three do not cover it, the largest of them is swapped for the largest output
+        assertValues(consolidateSmall.select(candidates(1, 2, 3, 10, 20), 12, 3), 1, 2, 20);
+        Assert.assertNull(consolidateSmall.select(candidates(1, 2, 3, 4), 9, 2));
+        Assert.assertNull(consolidateSmall.select(candidates(1, 2, 3, 4), 1, 0));
+    }
+
+    @Test
+    public void testConsolidateSmallInsufficientFunds() {
+        Assert.assertNull(consolidateSmall.select(candidates(1, 2, 3), 7, 10));
+        Assert.assertTrue(consolidateSmall.select(candidates(1, 2), 0, 10).isEmpty());
+    }
+
+    @Test
+    public void testManySmallOutputs() {
+        Random random = new Random(1);
+        long[] values = new long[100000];
+        long total = 0;
+        for (int i = 0; i < values.length; i++) {
+            // mostly small change, a few large outputs
+            values[i] = random.nextInt(10) == 0 ? 1 + random.nextInt(10000) : 1 + random.nextInt(100);
+            total += values[i];
+        }
+        NavigableSet<UtxoOutput> candidates = candidates(values);
+        for (CoinSelector selector : new CoinSelector[]{bnb, largestFirst, consolidateSmall}) {
+            for (long target = total / 1000; target < total / 10; target *= 3) {
+                List<UtxoOutput> selected = selector.select(candidates, target, UtxoCoinManager.MAX_INPUTS);
+                Assert.assertNotNull(selected);
+                Assert.assertTrue(selected.size() <= UtxoCoinManager.MAX_INPUTS);
+                long sum = 0;
+                for (UtxoOutput output : selected) {
+                    sum += output.getValue();
+                }
+                Assert.assertTrue(sum >= target);
+            }
+        }
+    }
+
+    private static void assertValues(List<UtxoOutput> selected, long... values) {
+        Assert.assertNotNull(selected);
+        List<Long> actual = new ArrayList<>();
+        for (UtxoOutput output : selected) {
+            actual.add(output.getValue());
+        }
+        List<Long> expected = new ArrayList<>();
+        for (long value : values) {
+            expected.add(value);
+        }
+        Assert.assertEquals(expected, actual);
+    }
+
+    private static NavigableSet<UtxoOutput> candidates(long... values) {
+        NavigableSet<UtxoOutput> candidates = new TreeSet<>(UtxoComparator.getInstance());
+        for (int i = 0; i < values.length; i++) {
+            UtxoOutput output = new UtxoOutput();
+            output.setKey(String.format("%064x-0", i));
+            output.setValue(values[i]);
+            candidates.add(output);
+        }
+        return candidates;
+    }
+}
@@ -0,0 +1,189 @@
+package io.nuls.ledger.service.impl;
+
+import io.nuls.core.utils.date.TimeService;
+import io.nuls.ledger.entity.Balance;
+import io.nuls.ledger.entity.OutPutStatusEnum;
+import io.nuls.ledger.entity.UtxoData;
+import io.nuls.ledger.entity.UtxoInput;
+import io.nuls.ledger.entity.UtxoOutput;
+import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
+import io.nuls.ledger.selection.LargestFirstSelector;
+import io.nuls.protocol.context.NulsContext;
+import io.nuls.protocol.model.BaseNulsData;
+import io.nuls.protocol.model.Block;
+import io.nuls.protocol.model.BlockHeader;
+import io.nuls.protocol.model.NulsDigestData;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lock expiry, unconfirmed local txs and rollbacks in the balance book.
+ */
+public class BalanceBookTest {
+
+    private static final String ADDRESS = "Ns1";
+
+    private static final String OTHER_ADDRESS = "Ns2";
+
+    private final BalanceBook book = BalanceBook.getInstance();
+
+    @Before
+    public void init() {
+        book.clear();
+        setBestHeight(10);
+        Assert.assertTrue(book.startLoading(ADDRESS));
+        book.finishLoading(ADDRESS, new ArrayList<UtxoOutput>());
+    }
+
+    @Test
+    public void testHeightLockExpires() {
+        book.putUtxo(newOutput("a", 0, ADDRESS, 100, 11));
+        assertBalance(0, 100);
+
+        setBestHeight(11);
+        assertBalance(0, 100);
+
+        setBestHeight(12);
+        assertBalance(100, 0);
+    }
+
+    @Test
+    public void testTimeLockIsKept() {
+        book.putUtxo(newOutput("a", 0, ADDRESS, 100, TimeService.currentTimeMillis() + 3600000L));
+        book.putUtxo(newOutput("b", 0, ADDRESS, 50, TimeService.currentTimeMillis() - 1));
+        assertBalance(50, 100);
+    }
+
+    @Test
+    public void testRollbackRelocks() {
+        book.putUtxo(newOutput("a", 0, ADDRESS, 100, 10));
+        setBestHeight(11);
+        assertBalance(100, 0);
+
+        setBestHeight(9);
+        assertBalance(0, 100);
+
+        setBestHeight(11);
+        assertBalance(100, 0);
+    }
+
+    @Test
+    public void testDroppedLocalTxIsTakenBack() {
+        UtxoOutput spent = newOutput("a", 0, ADDRESS, 100, 0);
+        book.putUtxo(spent);
+        AbstractCoinTransaction tx = newTx("tx", spent, newOutput("tx", 0, ADDRESS, 60, 0), newOutput("tx", 1, OTHER_ADDRESS, 40, 0));
+
+        book.addLocalTx(tx);
+        assertBalance(60, 0);
+        Assert.assertNull(book.getBalance(OTHER_ADDRESS));
+
+        book.removeLocalTx(tx.getHash().getDigestHex());
+        assertBalance(100, 0);
+    }
+
+    @Test
+    public void testConfirmedLocalTxKeepsItsOutputs() {
+        UtxoOutput spent = newOutput("a", 0, ADDRESS, 100, 0);
+        book.putUtxo(spent);
+        UtxoOutput change = newOutput("tx", 0, ADDRESS, 60, 0);
+        AbstractCoinTransaction tx = newTx("tx", spent, change);
+        book.addLocalTx(tx);
+
+        // the block with the tx
+        book.removeUtxo(spent.getKey());
+        book.putUtxo(newOutput("tx", 0, ADDRESS, 60, 0));
+        book.removeLocalTx(tx.getHash().getDigestHex());
+
+        assertBalance(60, 0);
+        List<UtxoOutput> selected = book.select(Collections.singletonList(ADDRESS), 60, 10, LargestFirstSelector.getInstance());
+        Assert.assertEquals(1, selected.size());
+        Assert.assertEquals(change.getKey(), selected.get(0).getKey());
+    }
+
+    @Test
+    public void testConsensusLockCountsAsLocked() {
+        UtxoOutput output = newOutput("a", 0, ADDRESS, 100, 0);
+        output.setStatus(OutPutStatusEnum.UTXO_CONSENSUS_LOCK);
+        book.putUtxo(output);
+        assertBalance(0, 100);
+
+        book.putUtxo(newOutput("a", 0, ADDRESS, 100, 0));
+        assertBalance(100, 0);
+    }
+
+    @Test
+    public void testOnlyLoadedAddressesAreKept() {
+        book.putUtxo(newOutput("a", 0, OTHER_ADDRESS, 100, 0));
+        Assert.assertNull(book.getBalance(OTHER_ADDRESS));
+        Assert.assertFalse(book.isLoaded(OTHER_ADDRESS));
+
+        UtxoOutput spentWhileLoading = newOutput("b", 0, OTHER_ADDRESS, 30, 0);
+        UtxoOutput local = newOutput("tx", 0, OTHER_ADDRESS, 7, 0);
+        book.addLocalTx(newTx("tx", newOutput("c", 0, ADDRESS, 1, 0), local));
+
+        Assert.assertTrue(book.startLoading(OTHER_ADDRESS));
+        Assert.assertFalse(book.startLoading(OTHER_ADDRESS));
+        Assert.assertNull(book.getBalance(OTHER_ADDRESS));
+        List<UtxoOutput> unSpends = Arrays.asList(newOutput("a", 0, OTHER_ADDRESS, 100, 0), spentWhileLoading);
+        book.removeUtxo(spentWhileLoading.getKey());
+        book.putUtxo(newOutput("d", 0, OTHER_ADDRESS, 5, 0));
+        book.finishLoading(OTHER_ADDRESS, unSpends);
+
+        Assert.assertTrue(book.isLoaded(OTHER_ADDRESS));
+        Balance balance = book.getBalance(OTHER_ADDRESS);
+        Assert.assertEquals(112, balance.getUsable().getValue());
+
+        book.removeAddress(OTHER_ADDRESS);
+        Assert.assertNull(book.getBalance(OTHER_ADDRESS));
+    }
+
+    private void assertBalance(long usable, long locked) {
+        Balance balance = book.getBalance(ADDRESS);
+        Assert.assertEquals(usable, balance.getUsable().getValue());
+        Assert.assertEquals(locked, balance.getLocked().getValue());
+    }
+
+    private static void setBestHeight(long height) {
+        BlockHeader header = new BlockHeader();
+        header.setHeight(height);
+        Block block = new Block();
+        block.setHeader(header);
+        NulsContext.getInstance().setBestBlock(block);
+    }
+
+    private static UtxoOutput newOutput(String tx, int index, String address, long value, long lockTime) {
+        UtxoOutput output = new UtxoOutput(NulsDigestData.calcDigestData(tx.getBytes()));
+        output.setIndex(index);
+        output.setAddress(address);
+        output.setValue(value);
+        output.setLockTime(lockTime);
+        output.setStatus(OutPutStatusEnum.UTXO_UNSPENT);
+        return output;
+    }
+
+    private static AbstractCoinTransaction newTx(String name, UtxoOutput spent, UtxoOutput... outputs) {
+        TestTransaction tx = new TestTransaction();
+        tx.setHash(NulsDigestData.calcDigestData(name.getBytes()));
+        UtxoInput input = new UtxoInput(tx.getHash(), spent);
+        input.setFromHash(spent.getTxHash());
+        input.setFromIndex(spent.getIndex());
+        UtxoData utxoData = new UtxoData();
+        utxoData.getInputs().add(input);
+        utxoData.getOutputs().addAll(Arrays.asList(outputs));
+        tx.setCoinData(utxoData);
+        return tx;
+    }
+
+    private static class TestTransaction extends AbstractCoinTransaction<BaseNulsData> {
+
+        TestTransaction() {
+            super(100);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package io.nuls.ledger.service.impl;
+
+import io.nuls.core.model.Result;
+import io.nuls.db.service.intf.BatchOperation;
+import io.nuls.db.service.intf.KVIterator;
+import io.nuls.db.service.intf.KVStorageService;
+import io.nuls.db.transactional.TransactionSynchronizationManager;
+import io.nuls.ledger.entity.OutPutStatusEnum;
+import io.nuls.ledger.entity.UtxoOutput;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.script.P2PKHScript;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Changes staged per thread and transaction, written on commit and dropped on rollback.
+ */
+public class UtxoSetStoreTest {
+
+    private static final byte[] OWNER = owner(1);
+
+    private MemoryStorage storage;
+
+    private UtxoSetStore store;
+
+    @Before
+    public void init() {
+        storage = new MemoryStorage();
+        store = new UtxoSetStore(storage);
+    }
+
+    @After
+    public void endTransaction() {
+        if (TransactionSynchronizationManager.isActive()) {
+            TransactionSynchronizationManager.afterRollback();
+        }
+    }
+
+    @Test
+    public void testCommitWritesOnlyOwnChanges() throws Exception {
+        final UtxoOutput mine = newOutput("mine", OWNER);
+        final UtxoOutput other = newOutput("other", OWNER);
+
+        TransactionSynchronizationManager.begin();
+        store.putUtxo(mine);
+        store.flush(1);
+        // another thread stages and flushes outside a transaction meanwhile
+        call(new Callable<Object>() {
+            @Override
+            public Object call() {
+                Assert.assertNull(store.getUtxo(mine.getKey()));
+                store.putUtxo(other);
+                store.flush(0);
+                return null;
+            }
+        });
+        Assert.assertEquals(0, store.getHeight());
+        Assert.assertNotNull(store.getUtxo(mine.getKey()));
+        Assert.assertNotNull(store.getUtxo(other.getKey()));
+        Assert.assertEquals(1, storage.batches);
+
+        TransactionSynchronizationManager.afterCommit();
+        Assert.assertEquals(1, store.getHeight());
+        Assert.assertEquals(2, storage.batches);
+        assertCommitted(mine, true);
+        assertCommitted(other, true);
+    }
+
+    @Test
+    public void testRollbackDropsOnlyOwnChanges() throws Exception {
+        final UtxoOutput mine = newOutput("mine", OWNER);
+        final UtxoOutput other = newOutput("other", OWNER);
+
+        TransactionSynchronizationManager.begin();
+        store.putUtxo(mine);
+        store.flush(1);
+        call(new Callable<Object>() {
+            @Override
+            public Object call() {
+                TransactionSynchronizationManager.begin();
+                store.putUtxo(other);
+                store.flush(2);
+                TransactionSynchronizationManager.afterCommit();
+                return null;
+            }
+        });
+        TransactionSynchronizationManager.afterRollback();
+
+        Assert.assertEquals(2, store.getHeight());
+        assertCommitted(mine, false);
+        assertCommitted(other, true);
+        Assert.assertNull(store.getUtxo(mine.getKey()));
+    }
+
+    @Test
+    public void testAddressListSeesStagedChanges() throws Exception {
+        UtxoOutput kept = newOutput("kept", OWNER);
+        UtxoOutput spent = newOutput("spent", OWNER);
+        store.putUtxo(kept);
+        store.putUtxo(spent);
+        store.putUtxo(newOutput("foreign", owner(2)));
+        store.flush(1);
+
+        TransactionSynchronizationManager.begin();
+        UtxoOutput added = newOutput("added", OWNER);
+        store.removeUtxo(spent);
+        store.putUtxo(added);
+        Assert.assertEquals(Arrays.asList(kept.getKey(), added.getKey()), keys(store.getUtxoList(OWNER)));
+        List<String> committed = call(new Callable<List<String>>() {
+            @Override
+            public List<String> call() {
+                return keys(store.getUtxoList(OWNER));
+            }
+        });
+        Assert.assertEquals(2, committed.size());
+        Assert.assertTrue(committed.contains(spent.getKey()));
+        TransactionSynchronizationManager.afterCommit();
+
+        Assert.assertEquals(Arrays.asList(kept.getKey(), added.getKey()), keys(store.getUtxoList(OWNER)));
+    }
+
+    private void assertCommitted(final UtxoOutput output, final boolean exist) throws Exception {
+        // read from a thread without staged changes
+        call(new Callable<Object>() {
+            @Override
+            public Object call() {
+                Assert.assertEquals(exist, null != store.getUtxo(output.getKey()));
+                return null;
+            }
+        });
+    }
+
+    private static <T> T call(Callable<T> callable) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(callable).get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<String> keys(List<UtxoOutput> outputs) {
+        List<String> keys = new ArrayList<>();
+        for (UtxoOutput output : outputs) {
+            keys.add(output.getKey());
+        }
+        return keys;
+    }
+
+    private static byte[] owner(int seed) {
+        byte[] owner = new byte[20];
+        Arrays.fill(owner, (byte) seed);
+        return owner;
+    }
+
+    private static UtxoOutput newOutput(String tx, byte[] owner) {
+        UtxoOutput output = new UtxoOutput(NulsDigestData.calcDigestData(tx.getBytes()));
+        output.setValue(100);
+        output.setStatus(OutPutStatusEnum.UTXO_UNSPENT);
+        output.setP2PKHScript(new P2PKHScript(new NulsDigestData(NulsDigestData.DIGEST_ALG_SHA160, owner)));
+        return output;
+    }
+
+    /**
+     * one area kept in memory, the iterators work on a copy
+     */
+    private static class MemoryStorage implements KVStorageService {
+
+        private final TreeMap<ByteBuffer, byte[]> records = new TreeMap<>();
+
+        private int batches;
+
+        @Override
+        public Result createArea(String areaName) {
+            return Result.getSuccess();
+        }
+
+        @Override
+        public String[] listArea() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized Result put(String area, byte[] key, byte[] value) {
+            records.put(ByteBuffer.wrap(key), value);
+            return Result.getSuccess();
+        }
+
+        @Override
+        public Result put(String area, String key, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Result put(String area, byte[] key, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Result delete(String area, String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized Result delete(String area, byte[] key) {
+            records.remove(ByteBuffer.wrap(key));
+            return Result.getSuccess();
+        }
+
+        @Override
+        public byte[] get(String area, String key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public synchronized byte[] get(String area, byte[] key) {
+            return records.get(ByteBuffer.wrap(key));
+        }
+
+        @Override
+        public BatchOperation createWriteBatch(String area) {
+            final Map<ByteBuffer, byte[]> changes = new LinkedHashMap<>();
+            return new BatchOperation() {
+                @Override
+                public void put(byte[] key, byte[] value) {
+                    changes.put(ByteBuffer.wrap(key), value);
+                }
+
+                @Override
+                public void delete(byte[] key) {
+                    changes.put(ByteBuffer.wrap(key), null);
+                }
+
+                @Override
+                public Result executeBatch() {
+                    return executeBatch(false);
+                }
+
+                @Override
+                public Result executeBatch(boolean sync) {
+                    synchronized (MemoryStorage.this) {
+                        for (Map.Entry<ByteBuffer, byte[]> entry : changes.entrySet()) {
+                            if (entry.getValue() == null) {
+                                records.remove(entry.getKey());
+                            } else {
+                                records.put(entry.getKey(), entry.getValue());
+                            }
+                        }
+                        batches++;
+                    }
+                    return Result.getSuccess();
+                }
+            };
+        }
+
+        @Override
+        public synchronized KVIterator iterator(String area, byte[] prefix, boolean reverse) {
+            final List<Map.Entry<byte[], byte[]>> entries = new ArrayList<>();
+            for (Map.Entry<ByteBuffer, byte[]> entry : records.entrySet()) {
+                byte[] key = entry.getKey().array();
+                if (null == prefix || (key.length >= prefix.length
+                        && ByteBuffer.wrap(key, 0, prefix.length).equals(ByteBuffer.wrap(prefix)))) {
+                    entries.add(new AbstractMap.SimpleEntry<>(key, entry.getValue()));
+                }
+            }
+            final Iterator<Map.Entry<byte[], byte[]>> iterator = entries.iterator();
+            return new KVIterator() {
+                @Override
+                public void seek(byte[] key) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void close() {
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Map.Entry<byte[], byte[]> next() {
+                    return iterator.next();
+                }
+            };
+        }
+    }
+}
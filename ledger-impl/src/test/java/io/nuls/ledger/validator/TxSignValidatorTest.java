@@ -0,0 +1,98 @@
+package io.nuls.ledger.validator;
+
+import io.nuls.core.crypto.ECKey;
+import io.nuls.core.exception.NulsException;
+import io.nuls.protocol.model.Na;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.model.NulsSignData;
+import io.nuls.protocol.model.Transaction;
+import io.nuls.protocol.script.P2PKHScriptSig;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parallel pre-pass marks the txs, so the serial pass only recomputes their hash.
+ */
+public class TxSignValidatorTest {
+
+    private final TxSignValidator validator = TxSignValidator.getInstance();
+
+    private final SignVerifiedCache cache = SignVerifiedCache.getInstance();
+
+    private final ECKey key = new ECKey();
+
+    @Before
+    public void init() {
+        cache.clear();
+    }
+
+    @Test
+    public void testSecondPassSkipsSignCheck() throws Exception {
+        List<Transaction> txList = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            txList.add(newSignedTx(i));
+        }
+        long misses = cache.getMissCount();
+        Assert.assertTrue(validator.validateAll(txList, true).isSuccess());
+        Assert.assertEquals(misses + txList.size(), cache.getMissCount());
+
+        long hits = cache.getHitCount();
+        misses = cache.getMissCount();
+        for (Transaction tx : txList) {
+            Assert.assertTrue(tx.isSignVerified());
+            Assert.assertTrue(validator.validate(tx).isSuccess());
+            Assert.assertTrue(tx.isSignVerified());
+        }
+        // neither the cache nor ECDSA was asked again
+        Assert.assertEquals(hits, cache.getHitCount());
+        Assert.assertEquals(misses, cache.getMissCount());
+    }
+
+    @Test
+    public void testFlagDoesNotHideChangedTx() throws Exception {
+        TestTransaction tx = newSignedTx(1);
+        Assert.assertTrue(validator.validate(tx).isSuccess());
+        Assert.assertTrue(tx.isSignVerified());
+
+        tx.setTime(tx.getTime() + 1);
+        Assert.assertTrue(validator.validate(tx).isFailed());
+    }
+
+    @Test
+    public void testWrongSignFails() throws Exception {
+        TestTransaction tx = newSignedTx(1);
+        tx.setScriptSig(newSignedTx(2).getScriptSig());
+        Assert.assertTrue(validator.validate(tx).isFailed());
+        Assert.assertFalse(tx.isSignVerified());
+    }
+
+    private TestTransaction newSignedTx(int index) throws Exception {
+        TestTransaction tx = new TestTransaction();
+        tx.setTime(1527000000000L + index);
+        tx.setFee(Na.valueOf(100000));
+        tx.setTxData(NulsDigestData.calcDigestData(new byte[]{(byte) index}));
+        tx.setHash(tx.calcHash());
+        NulsSignData signData = new NulsSignData();
+        signData.setSignAlgType(NulsSignData.SIGN_ALG_ECC);
+        signData.setSignBytes(key.sign(tx.getHash().getDigestBytes()));
+        tx.setScriptSig(new P2PKHScriptSig(signData, key.getPubKey()).serialize());
+        return tx;
+    }
+
+    private static class TestTransaction extends Transaction<NulsDigestData> {
+
+        TestTransaction() {
+            super(100);
+        }
+
+        @Override
+        public NulsDigestData parseTxData(NulsByteBuffer byteBuffer) throws NulsException {
+            return byteBuffer.readHash();
+        }
+    }
+}
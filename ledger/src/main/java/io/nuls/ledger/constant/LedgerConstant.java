@@ -37,10 +37,29 @@ public interface LedgerConstant {
 
     String UTXO = "UTXO";
 
+    /**
+     * the ledger caches are bounded by entries, every unspent output and every address with one must fit
+     */
+    int LEDGER_BOOK_CACHE_ENTRIES = 1000000;
+    int UTXO_CACHE_ENTRIES = 4000000;
+
+    String UTXO_SET_AREA = "utxo";
+
     short EVENT_TYPE_TRANSACTION = 1;
     short NOTICE_BALANCE_CHANGE = 2;
 
 
     long BLOCK_COUNT_OF_YEAR = 3153600;
     Na TRANSACTION_FEE = Na.CENT;
+
+    /**
+     * --------[ledger configs in modules.ini] -------
+     * the coin selection is one of bnb, largest-first, consolidate-small
+     */
+    String CFG_LEDGER_SECTION = "ledger";
+    String CFG_COIN_SELECTION = "coin.selection";
+
+    String COIN_SELECTION_BNB = "bnb";
+    String COIN_SELECTION_LARGEST_FIRST = "largest-first";
+    String COIN_SELECTION_CONSOLIDATE_SMALL = "consolidate-small";
 }
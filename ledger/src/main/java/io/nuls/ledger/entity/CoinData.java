@@ -27,6 +27,9 @@ import io.nuls.core.exception.NulsException;
 import io.nuls.protocol.model.BaseNulsData;
 import io.nuls.protocol.model.Na;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * @author Niels
  * @date 2017/12/21
@@ -40,4 +43,11 @@ public abstract class CoinData extends BaseNulsData {
     public void setTotalNa(Na totalNa) {
         this.totalNa = totalNa;
     }
+
+    /**
+     * the hashes of the txs this coin data spends from, empty if it spends nothing
+     */
+    public Set<String> getFromTxHashes() {
+        return Collections.emptySet();
+    }
 }
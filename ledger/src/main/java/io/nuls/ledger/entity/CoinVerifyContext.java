@@ -0,0 +1,48 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.ledger.entity;
+
+import io.nuls.protocol.model.Transaction;
+
+import java.util.List;
+
+/**
+ * The transactions already accepted into a block (or a block being packed), in order.
+ * Keeps the outputs they create and the inputs they spend, so a transaction spending
+ * an output of an earlier one in the same block is verified without rescanning the block.
+ * <p>
+ * Create it with {@link io.nuls.ledger.service.intf.LedgerService#createVerifyContext()} once per block,
+ * and call {@link #accept(Transaction)} after each transaction passes verification.
+ */
+public interface CoinVerifyContext {
+
+    void accept(Transaction tx);
+
+    /**
+     * @return a read only view of the accepted transactions, in the order they were accepted
+     */
+    List<Transaction> getTxList();
+
+    boolean isEmpty();
+}
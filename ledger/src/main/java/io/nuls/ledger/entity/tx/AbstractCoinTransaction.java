@@ -29,7 +29,6 @@ import io.nuls.core.exception.NulsException;
 import io.nuls.core.exception.NulsRuntimeException;
 import io.nuls.core.utils.crypto.Utils;
 import io.nuls.core.utils.date.TimeService;
-import io.nuls.core.utils.log.Log;
 import io.nuls.core.validate.NulsDataValidator;
 import io.nuls.ledger.entity.CoinData;
 import io.nuls.ledger.entity.params.CoinTransferData;
@@ -38,7 +37,6 @@ import io.nuls.ledger.entity.validator.CoinTransactionValidatorManager;
 import io.nuls.ledger.service.intf.CoinDataProvider;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.model.BaseNulsData;
-import io.nuls.protocol.model.NulsDigestData;
 import io.nuls.protocol.model.Transaction;
 import io.nuls.protocol.utils.io.NulsByteBuffer;
 import io.nuls.protocol.utils.io.NulsOutputStreamBuffer;
@@ -65,24 +63,17 @@ public abstract class AbstractCoinTransaction<T extends BaseNulsData> extends Tr
             this.registerValidator(validator);
         }
         this.registerValidator(CoinDataValidator.getInstance());
-        initCoinDataProvider();
     }
 
     public AbstractCoinTransaction(int type, CoinTransferData coinParam, String password) throws NulsException {
         this(type);
         if (null != coinParam) {
-            this.coinData = coinDataProvider.createByTransferData(this, coinParam, password);
+            this.coinData = getCoinDataProvider().createByTransferData(this, coinParam, password);
             this.fee = coinParam.getFee();
         }
         this.time = TimeService.currentTimeMillis();
     }
 
-    private void initCoinDataProvider() {
-        if (null == coinDataProvider) {
-            coinDataProvider = NulsContext.getServiceBean(CoinDataProvider.class);
-        }
-    }
-
     @Override
     public int size() {
         int size = super.size();
@@ -91,34 +82,32 @@ public abstract class AbstractCoinTransaction<T extends BaseNulsData> extends Tr
     }
 
     @Override
-    protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
-        super.serializeToStream(stream);
+    protected void serializeAfterScriptSig(NulsOutputStreamBuffer stream) throws IOException {
         stream.writeNulsData(coinData);
     }
 
     @Override
     protected void parse(NulsByteBuffer byteBuffer) throws NulsException {
         super.parse(byteBuffer);
-        this.coinData = coinDataProvider.parse(byteBuffer);
-        byte[] scriptsigCache = this.getScriptSig();
-        this.setScriptSig(null);
-        //NulsSignData cache = this.sign;
-        //this.sign = null;
-        try {
-            hash = NulsDigestData.calcDigestData(this.serialize());
-        } catch (IOException e) {
-            Log.error(e);
-        }
-        this.setScriptSig(scriptsigCache);
-        //sign = cache;
-        coinDataProvider.afterParse(coinData, this);
+        getCoinDataProvider().afterParse(coinData, this);
+    }
+
+    @Override
+    protected void parseAfterScriptSig(NulsByteBuffer byteBuffer) throws NulsException {
+        this.coinData = getCoinDataProvider().parse(byteBuffer);
     }
 
     public void parseCoinData(NulsByteBuffer byteBuffer) throws NulsException {
-        this.coinData = coinDataProvider.parse(byteBuffer);
+        this.coinData = getCoinDataProvider().parse(byteBuffer);
     }
 
+    /**
+     * looked up on first use, a tx that never touches its coin data does not need the service
+     */
     public CoinDataProvider getCoinDataProvider() {
+        if (null == coinDataProvider) {
+            coinDataProvider = NulsContext.getServiceBean(CoinDataProvider.class);
+        }
         return coinDataProvider;
     }
 
@@ -26,6 +26,7 @@ package io.nuls.ledger.service.intf;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.validate.ValidateResult;
 import io.nuls.ledger.entity.CoinData;
+import io.nuls.ledger.entity.CoinVerifyContext;
 import io.nuls.ledger.entity.params.CoinTransferData;
 import io.nuls.ledger.entity.tx.AbstractCoinTransaction;
 import io.nuls.protocol.model.Transaction;
@@ -51,5 +52,10 @@ public interface CoinDataProvider {
 
     ValidateResult conflictDetect( Transaction tx, List<Transaction> txList);
 
-    ValidateResult verifyCoinData(AbstractCoinTransaction coinTx, List<Transaction> packingTxList);
+    /**
+     * Check that the tx spends nothing an accepted tx of the context already spends
+     */
+    ValidateResult conflictDetect(Transaction tx, CoinVerifyContext context);
+
+    ValidateResult verifyCoinData(AbstractCoinTransaction coinTx, CoinVerifyContext context);
 }
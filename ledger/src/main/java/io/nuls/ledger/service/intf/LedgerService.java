@@ -28,6 +28,7 @@ import io.nuls.core.exception.NulsException;
 import io.nuls.core.model.Result;
 import io.nuls.core.validate.ValidateResult;
 import io.nuls.ledger.entity.Balance;
+import io.nuls.ledger.entity.CoinVerifyContext;
 import io.nuls.protocol.model.Block;
 import io.nuls.protocol.model.Na;
 import io.nuls.protocol.model.NulsDigestData;
@@ -102,6 +103,12 @@ public interface LedgerService {
 
     ValidateResult conflictDetectTx(Transaction tx, List<Transaction> txList) throws NulsException;
 
+    /**
+     * Same as {@link #conflictDetectTx(Transaction, List)} against the txs accepted into the context,
+     * the inputs are looked up in the outputs the context has seen spent instead of rescanning the txs
+     */
+    ValidateResult conflictDetectTx(Transaction tx, CoinVerifyContext context) throws NulsException;
+
     List<Transaction> getWaitingTxList() throws NulsException;
 
     void deleteTx(Transaction tx);
@@ -135,5 +142,19 @@ public interface LedgerService {
 
     ValidateResult verifyTx(Transaction tx,List<Transaction> txList);
 
+    /**
+     * verify a tx against the txs accepted before it in the same block
+     */
+    ValidateResult verifyTx(Transaction tx, CoinVerifyContext context);
+
+    CoinVerifyContext createVerifyContext();
+
+    /**
+     * check the signatures of the txs in parallel, so verifying them one by one later skips the signature
+     *
+     * @param stopOnFailure stop checking the rest once one fails
+     */
+    ValidateResult verifyTxSigns(List<Transaction> txList, boolean stopOnFailure);
+
     void verifyTxWithException(Transaction tx, List<Transaction> txList);
 }
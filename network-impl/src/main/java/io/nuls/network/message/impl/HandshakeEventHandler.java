@@ -11,7 +11,9 @@ import io.nuls.network.message.entity.HandshakeEvent;
 import io.nuls.network.message.entity.VersionEvent;
 import io.nuls.network.message.handler.NetWorkEventHandler;
 import io.nuls.network.service.NetworkService;
+import io.nuls.network.service.impl.netty.NettyTransport;
 import io.nuls.network.service.impl.netty.NioChannelMap;
+import io.nuls.network.service.impl.netty.NulsMessageCompressor;
 import io.nuls.protocol.model.Block;
 
 public class HandshakeEventHandler implements NetWorkEventHandler {
@@ -58,6 +60,10 @@ public class HandshakeEventHandler implements NetWorkEventHandler {
             }
         }
 
+        if (socketChannel != null) {
+            NulsMessageCompressor.setCompression(socketChannel, handshakeEvent.getCompression());
+        }
+
         node.setFailCount(0);
         node.setSeverPort(handshakeEvent.getSeverPort());
         getNetworkService().saveNode(node);
@@ -66,6 +72,7 @@ public class HandshakeEventHandler implements NetWorkEventHandler {
             Block bestBlock = NulsContext.getInstance().getBestBlock();
             handshakeEvent = new HandshakeEvent(NetworkConstant.HANDSHAKE_CLIENT_TYPE, getNetworkService().getNetworkParam().getPort(),
                     bestBlock.getHeader().getHeight(), bestBlock.getHeader().getHash().getDigestHex());
+            handshakeEvent.setCompression(NettyTransport.getInstance().getCompression());
             return new NetworkEventResult(true, handshakeEvent);
         }
         return null;
@@ -34,7 +34,7 @@ import io.nuls.network.message.entity.*;
 import io.nuls.network.module.AbstractNetworkModule;
 import io.nuls.network.service.NetworkService;
 import io.nuls.network.service.impl.NetworkServiceImpl;
-import io.nuls.network.service.impl.netty.NettyClient;
+import io.nuls.network.service.impl.netty.NettyTransport;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.manager.EventManager;
 
@@ -83,7 +83,7 @@ public class NetworkModuleBootstrap extends AbstractNetworkModule {
     @Override
     public void shutdown() {
         networkService.shutdown();
-        NettyClient.worker.shutdownGracefully();
+        NettyTransport.getInstance().shutdown();
     }
 
     @Override
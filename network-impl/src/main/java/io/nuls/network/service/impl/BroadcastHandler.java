@@ -23,11 +23,13 @@
  */
 package io.nuls.network.service.impl;
 
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.socket.SocketChannel;
 import io.nuls.protocol.event.base.BaseEvent;
 import io.nuls.protocol.mesasge.NulsMessage;
+import io.nuls.protocol.mesasge.NulsMessageHeader;
 import io.nuls.core.utils.log.Log;
 import io.nuls.network.entity.BroadcastResult;
 import io.nuls.network.entity.Node;
@@ -99,25 +101,25 @@ public class BroadcastHandler {
     }
 
     public BroadcastResult broadcastToNode(BaseEvent event, String nodeId, boolean asyn) {
-        try {
-            NulsMessage message = new NulsMessage(network.getPacketMagic(), event.serialize());
-            Node node = nodesManager.getNode(nodeId);
-            if (node == null) {
-                return new BroadcastResult(false, "node not found");
-            }
-            return broadcast(message, node, asyn);
-        } catch (IOException e) {
-            return new BroadcastResult(false, "event.serialize() error");
+        Node node = nodesManager.getNode(nodeId);
+        if (node == null) {
+            return new BroadcastResult(false, "node not found");
         }
+        return broadcastToNode(event, node, asyn);
     }
 
     public BroadcastResult broadcastToNode(BaseEvent event, Node node, boolean asyn) {
+        ByteBuf buffer;
         try {
-            NulsMessage message = new NulsMessage(network.getPacketMagic(), event.serialize());
-            return broadcast(message, node, asyn);
+            buffer = encode(event);
         } catch (IOException e) {
             return new BroadcastResult(false, "event.serialize() error");
         }
+        try {
+            return broadcast(buffer, node, asyn);
+        } finally {
+            buffer.release();
+        }
     }
 
 //
@@ -335,16 +337,20 @@ public class BroadcastHandler {
 //    }
 
     private BroadcastResult broadcastToList(Collection<Node> nodeList, BaseEvent event, String excludeNodeId, boolean asyn) {
-        NulsMessage message;
         BroadcastResult result = new BroadcastResult();
+        ByteBuf buffer;
+        try {
+            buffer = encode(event);
+        } catch (IOException e) {
+            return new BroadcastResult(false, "event.serialize() error");
+        }
         try {
-            message = new NulsMessage(network.getPacketMagic(), event.serialize());
             int successCount = 0;
             for (Node node : nodeList) {
                 if (excludeNodeId != null && node.getId().equals(excludeNodeId)) {
                     continue;
                 }
-                BroadcastResult br = broadcast(message, node, asyn);
+                BroadcastResult br = broadcast(buffer, node, asyn);
                 if (br.isSuccess()) {
                     successCount++;
                     result.getBroadcastNodes().add(node);
@@ -353,15 +359,31 @@ public class BroadcastHandler {
             if (successCount == 0) {
                 return new BroadcastResult(false, "send message failed");
             }
-        } catch (IOException e) {
-            return new BroadcastResult(false, "event.serialize() error");
+        } finally {
+            buffer.release();
         }
         result.setSuccess(true);
         result.setMessage("OK");
         return result;
     }
 
-    private BroadcastResult broadcast(NulsMessage message, Node node, boolean asyn) throws IOException {
+    /**
+     * Serialize the message of the event once, into a pooled buffer shared by all the channels it is sent to
+     */
+    private ByteBuf encode(BaseEvent event) throws IOException {
+        NulsMessage message = new NulsMessage(network.getPacketMagic(), event.serialize());
+        byte[] data = message.getData();
+        ByteBuf buffer = PooledByteBufAllocator.DEFAULT.directBuffer(NulsMessageHeader.MESSAGE_HEADER_SIZE + data.length);
+        buffer.writeBytes(message.getHeader().serialize());
+        buffer.writeBytes(data);
+        return buffer;
+    }
+
+    /**
+     * Write a duplicate of the buffer to the channel of the node, the buffer itself is released by the caller.
+     * A channel holding more than the high water mark of unsent bytes takes no more messages until it drains.
+     */
+    private BroadcastResult broadcast(ByteBuf buffer, Node node, boolean asyn) {
         try {
             if (!node.isAlive() && node.getChannelId() == null) {
                 return new BroadcastResult(false, "node not found");
@@ -370,7 +392,11 @@ public class BroadcastHandler {
             if (channel == null) {
                 return new BroadcastResult(false, "node not found");
             }
-            ChannelFuture future = channel.writeAndFlush(Unpooled.wrappedBuffer(message.serialize()));
+            if (!channel.isWritable()) {
+                Log.debug("the write buffer of node is full: " + node.getId());
+                return new BroadcastResult(false, "send message failed");
+            }
+            ChannelFuture future = channel.writeAndFlush(buffer.retainedDuplicate());
             if (!asyn) {
                 future.await();
                 boolean success = future.isSuccess();
@@ -378,8 +404,6 @@ public class BroadcastHandler {
                     return new BroadcastResult(false, "send message failed");
                 }
             }
-        } catch (IOException e) {
-            throw e;
         } catch (Exception e) {
             Log.error(e);
             return new BroadcastResult(false, "send message failed");
@@ -45,10 +45,7 @@ import io.nuls.protocol.mesasge.NulsMessage;
 import io.nuls.protocol.mesasge.NulsMessageHeader;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * @author vivi
@@ -107,42 +104,29 @@ public class ConnectionManager {
     }
 
 
-    public void receiveMessage(ByteBuffer buffer, Node node) {
-        List<NulsMessage> list;
+    public void receiveMessage(NulsMessage message, Node node) {
         try {
-            buffer.flip();
             if (!node.isAlive()) {
-                buffer.clear();
                 return;
             }
-            list = new ArrayList<>();
-            while (buffer.hasRemaining()) {
-                NulsMessage message = new NulsMessage(buffer);
-                list.add(message);
-            }
-            for (NulsMessage message : list) {
-                if (MessageFilterChain.getInstance().doFilter(message)) {
-                    NulsMessageHeader header = message.getHeader();
-                    if (node.getMagicNumber() == 0) {
-                        node.setMagicNumber(header.getMagicNumber());
-                    }
-
-                    BaseEvent event = EventManager.getInstance(message.getData());
-                    processMessage(event, node);
-                } else {
-                    node.setStatus(Node.BAD);
-//                    System.out.println("-------------------- receive message filter remove node ---------------------------");
-                    networkService.removeNode(node.getId());
+            if (MessageFilterChain.getInstance().doFilter(message)) {
+                NulsMessageHeader header = message.getHeader();
+                if (node.getMagicNumber() == 0) {
+                    node.setMagicNumber(header.getMagicNumber());
                 }
+
+                BaseEvent event = EventManager.getInstance(message.getData());
+                processMessage(event, node);
+            } else {
+                node.setStatus(Node.BAD);
+//                System.out.println("-------------------- receive message filter remove node ---------------------------");
+                networkService.removeNode(node.getId());
             }
         } catch (NulsException e) {
             Log.error("remoteAddress: " + node.getId());
             Log.error(e);
         } catch (Exception e) {
             Log.error(e);
-            return;
-        } finally {
-            buffer.clear();
         }
     }
 
@@ -42,8 +42,8 @@ import io.nuls.network.message.filter.NulsMessageFilter;
 import io.nuls.network.service.NetworkService;
 import io.nuls.protocol.context.NulsContext;
 import io.nuls.protocol.event.base.BaseEvent;
+import io.nuls.protocol.mesasge.NulsMessage;
 
-import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
@@ -261,8 +261,8 @@ public class NetworkServiceImpl implements NetworkService {
     }
 
     @Override
-    public void receiveMessage(ByteBuffer buffer, Node node) {
-        connectionManager.receiveMessage(buffer, node);
+    public void receiveMessage(NulsMessage message, Node node) {
+        connectionManager.receiveMessage(message, node);
     }
 
     @Override
@@ -1,6 +1,5 @@
 package io.nuls.network.service.impl.netty;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.socket.SocketChannel;
@@ -12,9 +11,9 @@ import io.nuls.core.utils.spring.lite.annotation.Autowired;
 import io.nuls.network.entity.Node;
 import io.nuls.network.service.NetworkService;
 import io.nuls.protocol.context.NulsContext;
+import io.nuls.protocol.mesasge.NulsMessage;
 
 import java.io.UnsupportedEncodingException;
-import java.nio.ByteBuffer;
 import java.util.Map;
 
 public class ClientChannelHandler extends ChannelInboundHandlerAdapter {
@@ -100,13 +99,7 @@ public class ClientChannelHandler extends ChannelInboundHandlerAdapter {
 //        Log.debug(" ---------------------- client channelRead ---------------------- " + nodeId);
         Node node = getNetworkService().getNode(nodeId);
         if (node != null && node.isAlive()) {
-            ByteBuf buf = (ByteBuf) msg;
-            byte[] bytes = new byte[buf.readableBytes()];
-            buf.readBytes(bytes);
-            buf.release();
-            ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
-            buffer.put(bytes);
-            getNetworkService().receiveMessage(buffer, node);
+            getNetworkService().receiveMessage((NulsMessage) msg, node);
         }
     }
 
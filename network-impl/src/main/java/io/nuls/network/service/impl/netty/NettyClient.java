@@ -4,10 +4,7 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.AttributeKey;
 import io.nuls.core.utils.log.Log;
 import io.nuls.network.entity.Node;
@@ -17,8 +14,6 @@ import io.nuls.protocol.context.NulsContext;
 
 public class NettyClient {
 
-    public static EventLoopGroup worker = new NioEventLoopGroup();
-
     Bootstrap boot;
 
     private SocketChannel socketChannel;
@@ -41,10 +36,7 @@ public class NettyClient {
         }
         boot.attr(key, node);
 
-        boot.group(worker)
-                .channel(NioSocketChannel.class)
-                .option(ChannelOption.TCP_NODELAY, true)
-                .option(ChannelOption.SO_KEEPALIVE, true)
+        NettyTransport.getInstance().configure(boot)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
                 .handler(new NulsChannelInitializer<>(new ClientChannelHandler()));
     }
@@ -0,0 +1,184 @@
+package io.nuls.network.service.impl.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.nuls.core.constant.NulsConstant;
+import io.nuls.core.thread.manager.NulsThreadFactory;
+import io.nuls.core.utils.cfg.PropertiesEntity;
+import io.nuls.core.utils.log.Log;
+import io.nuls.network.NetworkContext;
+import io.nuls.network.constant.NetworkConstant;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The event loops and socket options shared by the inbound server and every outbound client.
+ * Uses the native epoll transport when it is enabled and available, and falls back to NIO otherwise.
+ * All settings are read from network.properties, see {@link NetworkConstant} for the keys.
+ */
+public class NettyTransport {
+
+    private static final NettyTransport INSTANCE = new NettyTransport();
+
+    private final boolean epoll;
+    private final int bossThreads;
+    private final int workerThreads;
+    private final ByteBufAllocator allocator;
+    private final int receiveBufferSize;
+    private final int sendBufferSize;
+    private final int backlog;
+    private final WriteBufferWaterMark waterMark;
+    private final int compression;
+    private final int compressionThreshold;
+
+    private volatile EventLoopGroup boss;
+    private volatile EventLoopGroup worker;
+
+    private NettyTransport() {
+        this(NetworkContext.getNetworkConfig());
+    }
+
+    NettyTransport(PropertiesEntity config) {
+        boolean useEpoll = getValue(config, NetworkConstant.NETTY_EPOLL, true);
+        this.epoll = useEpoll && Epoll.isAvailable();
+        if (useEpoll && !this.epoll) {
+            Log.info("Epoll transport is unavailable, fall back to NIO: " + Epoll.unavailabilityCause());
+        }
+        this.bossThreads = getValue(config, NetworkConstant.NETTY_BOSS_THREADS, 1);
+        this.workerThreads = getValue(config, NetworkConstant.NETTY_WORKER_THREADS, 0);
+        this.allocator = getValue(config, NetworkConstant.NETTY_POOLED_ALLOCATOR, true) ?
+                PooledByteBufAllocator.DEFAULT : UnpooledByteBufAllocator.DEFAULT;
+        this.receiveBufferSize = getValue(config, NetworkConstant.NETTY_SO_RCVBUF, 0);
+        this.sendBufferSize = getValue(config, NetworkConstant.NETTY_SO_SNDBUF, 0);
+        this.backlog = getValue(config, NetworkConstant.NETTY_SO_BACKLOG, 128);
+        this.waterMark = new WriteBufferWaterMark(
+                getValue(config, NetworkConstant.NETTY_WRITE_BUFFER_LOW_WATER_MARK, NetworkConstant.WRITE_BUFFER_LOW_WATER_MARK),
+                getValue(config, NetworkConstant.NETTY_WRITE_BUFFER_HIGH_WATER_MARK, NetworkConstant.WRITE_BUFFER_HIGH_WATER_MARK));
+        this.compression = getValue(config, NetworkConstant.NETTY_COMPRESSION, true) ?
+                NetworkConstant.COMPRESSION_SNAPPY : NetworkConstant.COMPRESSION_NONE;
+        this.compressionThreshold = getValue(config, NetworkConstant.NETTY_COMPRESSION_THRESHOLD, 4096);
+    }
+
+    public static NettyTransport getInstance() {
+        return INSTANCE;
+    }
+
+    private static <T> T getValue(PropertiesEntity config, String name, T defaultValue) {
+        if (null == config) {
+            return defaultValue;
+        }
+        return config.getPropValue(name, defaultValue);
+    }
+
+    public boolean isEpoll() {
+        return epoll;
+    }
+
+    /**
+     * the compression codecs offered to the peers in the handshake
+     */
+    public int getCompression() {
+        return compression;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public synchronized EventLoopGroup getBoss() {
+        if (boss == null) {
+            boss = newGroup(bossThreads, "netty-boss");
+        }
+        return boss;
+    }
+
+    public synchronized EventLoopGroup getWorker() {
+        if (worker == null) {
+            worker = newGroup(workerThreads, "netty-worker");
+        }
+        return worker;
+    }
+
+    private EventLoopGroup newGroup(int threads, String poolName) {
+        ThreadFactory factory = new NulsThreadFactory(NulsConstant.MODULE_ID_NETWORK, poolName);
+        if (epoll) {
+            return new EpollEventLoopGroup(threads, factory);
+        }
+        return new NioEventLoopGroup(threads, factory);
+    }
+
+    public Class<? extends ServerChannel> getServerChannelClass() {
+        return epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    public Class<? extends SocketChannel> getChannelClass() {
+        return epoll ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    /**
+     * Applies the shared event loops and socket options to the server bootstrap
+     */
+    public ServerBootstrap configure(ServerBootstrap bootstrap) {
+        bootstrap.group(getBoss(), getWorker())
+                .channel(getServerChannelClass())
+                .option(ChannelOption.SO_BACKLOG, backlog)
+                .option(ChannelOption.ALLOCATOR, allocator)
+                .childOption(ChannelOption.ALLOCATOR, allocator)
+                .childOption(ChannelOption.TCP_NODELAY, true)            //Send messages immediately
+                .childOption(ChannelOption.SO_KEEPALIVE, true)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, waterMark);
+        if (receiveBufferSize > 0) {
+            bootstrap.option(ChannelOption.SO_RCVBUF, receiveBufferSize);
+            bootstrap.childOption(ChannelOption.SO_RCVBUF, receiveBufferSize);
+        }
+        if (sendBufferSize > 0) {
+            bootstrap.childOption(ChannelOption.SO_SNDBUF, sendBufferSize);
+        }
+        return bootstrap;
+    }
+
+    /**
+     * Applies the shared worker loops and socket options to an outbound connection bootstrap
+     */
+    public Bootstrap configure(Bootstrap bootstrap) {
+        bootstrap.group(getWorker())
+                .channel(getChannelClass())
+                .option(ChannelOption.ALLOCATOR, allocator)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.WRITE_BUFFER_WATER_MARK, waterMark);
+        if (receiveBufferSize > 0) {
+            bootstrap.option(ChannelOption.SO_RCVBUF, receiveBufferSize);
+        }
+        if (sendBufferSize > 0) {
+            bootstrap.option(ChannelOption.SO_SNDBUF, sendBufferSize);
+        }
+        return bootstrap;
+    }
+
+    public synchronized void shutdown() {
+        if (boss != null) {
+            boss.shutdownGracefully();
+            boss = null;
+        }
+        if (worker != null) {
+            worker.shutdownGracefully();
+            worker = null;
+        }
+    }
+}
@@ -16,6 +16,10 @@ public class NulsChannelInitializer<T extends ChannelInboundHandlerAdapter> exte
     private static final int WRITE_IDEL_TIME_OUT = 30;
     private static final int ALL_IDEL_TIME_OUT = 30;
 
+    private static final NulsMessageDecoder MESSAGE_DECODER = new NulsMessageDecoder();
+    private static final NulsMessageCompressor MESSAGE_COMPRESSOR =
+            new NulsMessageCompressor(NettyTransport.getInstance().getCompressionThreshold());
+
     private T t;
 
     public NulsChannelInitializer(T t) {
@@ -27,7 +31,9 @@ public class NulsChannelInitializer<T extends ChannelInboundHandlerAdapter> exte
         ChannelPipeline p = socketChannel.pipeline();
         p.addLast("idle", new IdleStateHandler(READ_IDEL_TIME_OUT, WRITE_IDEL_TIME_OUT, ALL_IDEL_TIME_OUT, TimeUnit.SECONDS));
         p.addLast("decoder", new LengthFieldBasedFrameDecoder(10 * 1024 * 1024, 0, 8, 0, 8));
+        p.addLast("messageDecoder", MESSAGE_DECODER);
         p.addLast("encoder0", new LengthFieldPrepender(8, false));
+        p.addLast("compressor", MESSAGE_COMPRESSOR);
         p.addLast("heartbeat", new HeartbeatServerHandler());
         p.addLast(t);
     }
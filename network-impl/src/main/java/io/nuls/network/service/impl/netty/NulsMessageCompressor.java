@@ -0,0 +1,79 @@
+package io.nuls.network.service.impl.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.handler.codec.compression.Snappy;
+import io.netty.util.AttributeKey;
+import io.nuls.network.constant.NetworkConstant;
+import io.nuls.protocol.mesasge.NulsMessageHeader;
+
+import java.util.List;
+
+/**
+ * Compresses the data of an outbound message when the peer offered a codec in its handshake.
+ * The codec goes to the arithmetic byte of the header, the xor stays the one of the plain data,
+ * so the message {@link NulsMessageDecoder} hands to the handlers is the same as without compression.
+ */
+@ChannelHandler.Sharable
+public class NulsMessageCompressor extends MessageToMessageEncoder<ByteBuf> {
+
+    private static final AttributeKey<Integer> COMPRESSION = AttributeKey.valueOf("compression");
+
+    private static final int LENGTH_INDEX = 4;
+    private static final int ARITHMETIC_INDEX = 9;
+
+    /**
+     * The snappy encoder addresses its matches with 16 bit offsets, so the data is compressed in chunks,
+     * each one prefixed by its compressed length.
+     */
+    private static final int MAX_CHUNK_LENGTH = Short.MAX_VALUE;
+
+    private final int threshold;
+
+    public NulsMessageCompressor(int threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Compress the messages to the channel with the codecs both sides support
+     */
+    public static void setCompression(Channel channel, int peerCompression) {
+        int compression = peerCompression & NettyTransport.getInstance().getCompression();
+        channel.attr(COMPRESSION).set(compression);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception {
+        Integer compression = ctx.channel().attr(COMPRESSION).get();
+        int start = msg.readerIndex();
+        int length = msg.readableBytes() - NulsMessageHeader.MESSAGE_HEADER_SIZE;
+        if (null == compression || (compression & NetworkConstant.COMPRESSION_SNAPPY) == 0 || length <= threshold
+                || msg.getByte(start + ARITHMETIC_INDEX) != NetworkConstant.COMPRESSION_NONE) {
+            out.add(msg.retain());
+            return;
+        }
+        ByteBuf compressed = ctx.alloc().buffer(NulsMessageHeader.MESSAGE_HEADER_SIZE + length);
+        compressed.writeBytes(msg, start, NulsMessageHeader.MESSAGE_HEADER_SIZE);
+        Snappy snappy = new Snappy();
+        for (int offset = 0; offset < length; offset += MAX_CHUNK_LENGTH) {
+            int chunkLength = Math.min(MAX_CHUNK_LENGTH, length - offset);
+            int lengthIndex = compressed.writerIndex();
+            compressed.writeIntLE(0);
+            snappy.encode(msg.slice(start + NulsMessageHeader.MESSAGE_HEADER_SIZE + offset, chunkLength), compressed, chunkLength);
+            snappy.reset();
+            compressed.setIntLE(lengthIndex, compressed.writerIndex() - lengthIndex - 4);
+        }
+        int compressedLength = compressed.readableBytes() - NulsMessageHeader.MESSAGE_HEADER_SIZE;
+        if (compressedLength >= length) {
+            compressed.release();
+            out.add(msg.retain());
+            return;
+        }
+        compressed.setIntLE(LENGTH_INDEX, compressedLength);
+        compressed.setByte(ARITHMETIC_INDEX, NetworkConstant.COMPRESSION_SNAPPY);
+        out.add(compressed);
+    }
+}
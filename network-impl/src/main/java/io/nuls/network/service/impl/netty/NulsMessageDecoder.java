@@ -0,0 +1,77 @@
+package io.nuls.network.service.impl.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.compression.Snappy;
+import io.nuls.network.constant.NetworkConstant;
+import io.nuls.protocol.mesasge.NulsMessage;
+import io.nuls.protocol.mesasge.NulsMessageHeader;
+
+import java.util.List;
+
+/**
+ * Reads the NulsMessages of a frame straight from the pooled buffer,
+ * the data of each message is the only copy made.
+ * Messages compressed by the {@link NulsMessageCompressor} of the peer are decompressed here.
+ */
+@ChannelHandler.Sharable
+public class NulsMessageDecoder extends MessageToMessageDecoder<ByteBuf> {
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        while (in.isReadable()) {
+            if (in.readableBytes() < NulsMessageHeader.MESSAGE_HEADER_SIZE) {
+                throw new CorruptedFrameException("incomplete message header: " + in.readableBytes());
+            }
+            int magicNumber = in.readIntLE();
+            int length = in.readIntLE();
+            byte xor = in.readByte();
+            byte arithmetic = in.readByte();
+            if (length < 0 || length > in.readableBytes()) {
+                throw new CorruptedFrameException("wrong message length: " + length + ", readable: " + in.readableBytes());
+            }
+            byte[] data;
+            if (arithmetic == NetworkConstant.COMPRESSION_SNAPPY) {
+                data = decompress(ctx, in.readSlice(length));
+                length = data.length;
+                arithmetic = NetworkConstant.COMPRESSION_NONE;
+            } else {
+                data = new byte[length];
+                in.readBytes(data);
+            }
+
+            NulsMessage message = new NulsMessage(new NulsMessageHeader(magicNumber, length, xor, arithmetic));
+            message.setData(data);
+            out.add(message);
+        }
+    }
+
+    private byte[] decompress(ChannelHandlerContext ctx, ByteBuf compressed) {
+        ByteBuf buffer = ctx.alloc().heapBuffer(compressed.readableBytes() * 2, NetworkConstant.MESSAGE_MAX_SIZE);
+        try {
+            Snappy snappy = new Snappy();
+            while (compressed.isReadable()) {
+                int chunkLength = compressed.readableBytes() < 4 ? -1 : compressed.readIntLE();
+                if (chunkLength < 0 || chunkLength > compressed.readableBytes()) {
+                    throw new CorruptedFrameException("wrong compressed chunk length: " + chunkLength);
+                }
+                ByteBuf chunk = compressed.readSlice(chunkLength);
+                snappy.decode(chunk, buffer);
+                snappy.reset();
+                if (chunk.isReadable()) {
+                    throw new CorruptedFrameException("incomplete compressed chunk");
+                }
+            }
+            byte[] data = new byte[buffer.readableBytes()];
+            buffer.readBytes(data);
+            return data;
+        } catch (IndexOutOfBoundsException e) {
+            throw new CorruptedFrameException("compressed message is too large", e);
+        } finally {
+            buffer.release();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package io.nuls.network.service.impl.netty;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -13,11 +12,11 @@ import io.nuls.network.entity.Node;
 import io.nuls.network.message.entity.HandshakeEvent;
 import io.nuls.network.service.NetworkService;
 import io.nuls.protocol.context.NulsContext;
+import io.nuls.protocol.mesasge.NulsMessage;
 import io.nuls.protocol.model.Block;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
 import java.util.Map;
 
 /**
@@ -86,6 +85,7 @@ public class ServerChannelHandler extends ChannelInboundHandlerAdapter {
         Block bestBlock = NulsContext.getInstance().getBestBlock();
         HandshakeEvent event = new HandshakeEvent(NetworkConstant.HANDSHAKE_SEVER_TYPE, getNetworkService().getNetworkParam().getPort(),
                 bestBlock.getHeader().getHeight(), bestBlock.getHeader().getHash().getDigestHex());
+        event.setCompression(NettyTransport.getInstance().getCompression());
         getNetworkService().sendToNode(event, nodeId, false);
     }
 
@@ -129,13 +129,7 @@ public class ServerChannelHandler extends ChannelInboundHandlerAdapter {
 //        Log.debug(" ---------------------- server channelRead ------------------------- " + nodeId);
         Node node = getNetworkService().getNode(nodeId);
         if (node != null && node.isAlive()) {
-            ByteBuf buf = (ByteBuf) msg;
-            byte[] bytes = new byte[buf.readableBytes()];
-            buf.readBytes(bytes);
-            buf.release();
-            ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
-            buffer.put(bytes);
-            getNetworkService().receiveMessage(buffer, node);
+            getNetworkService().receiveMessage((NulsMessage) msg, node);
         }
     }
 
@@ -0,0 +1,131 @@
+package io.nuls.network.service.impl.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.nuls.core.utils.cfg.PropertiesEntity;
+import io.nuls.network.constant.NetworkConstant;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The transport choice and the event loops shared by the server and the outbound clients, over loopback.
+ */
+public class NettyTransportTest {
+
+    private static final int MESSAGE_SIZE = 1024;
+
+    private static final int MESSAGE_COUNT = 10000;
+
+    @Test
+    public void testEpollFollowsConfig() {
+        Assert.assertFalse(newTransport(false).isEpoll());
+        Assert.assertEquals(Epoll.isAvailable(), newTransport(true).isEpoll());
+
+        NettyTransport nio = newTransport(false);
+        Assert.assertEquals(NioServerSocketChannel.class, nio.getServerChannelClass());
+        Assert.assertEquals(NioSocketChannel.class, nio.getChannelClass());
+    }
+
+    @Test
+    public void testNioLoopback() throws Exception {
+        loopback(newTransport(false));
+    }
+
+    @Test
+    public void testEpollLoopback() throws Exception {
+        NettyTransport transport = newTransport(true);
+        if (transport.isEpoll()) {
+            loopback(transport);
+        }
+    }
+
+    @Test
+    public void testShutdownCreatesNewLoops() {
+        NettyTransport transport = newTransport(false);
+        try {
+            Assert.assertSame(transport.getWorker(), transport.getWorker());
+            transport.shutdown();
+            Assert.assertFalse(transport.getWorker().isShuttingDown());
+        } finally {
+            transport.shutdown();
+        }
+    }
+
+    private static void loopback(NettyTransport transport) throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long total = (long) MESSAGE_SIZE * MESSAGE_COUNT;
+        final AtomicLong received = new AtomicLong();
+        final AtomicReference<Channel> accepted = new AtomicReference<>();
+        try {
+            ServerBootstrap server = transport.configure(new ServerBootstrap());
+            server.childHandler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(SocketChannel ch) {
+                    accepted.set(ch);
+                    ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            if (received.addAndGet(((ByteBuf) msg).readableBytes()) >= total) {
+                                latch.countDown();
+                            }
+                            ReferenceCountUtil.release(msg);
+                        }
+                    });
+                }
+            });
+            Channel serverChannel = server.bind("127.0.0.1", 0).sync().channel();
+            int port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+
+            Bootstrap client = transport.configure(new Bootstrap());
+            client.handler(new ChannelInboundHandlerAdapter());
+            Channel channel = client.connect("127.0.0.1", port).sync().channel();
+
+            byte[] payload = new byte[MESSAGE_SIZE];
+            for (int i = 0; i < MESSAGE_COUNT; i++) {
+                ByteBuf buffer = channel.alloc().buffer(MESSAGE_SIZE);
+                buffer.writeBytes(payload);
+                if (channel.isWritable()) {
+                    channel.write(buffer, channel.voidPromise());
+                } else {
+                    channel.writeAndFlush(buffer).sync();
+                }
+            }
+            channel.flush();
+            Assert.assertTrue(latch.await(1, TimeUnit.MINUTES));
+            Assert.assertEquals(total, received.get());
+
+            // the inbound and the outbound connection run on the same worker loops
+            Assert.assertSame(transport.getWorker(), channel.eventLoop().parent());
+            Assert.assertSame(transport.getWorker(), accepted.get().eventLoop().parent());
+            Assert.assertSame(transport.getBoss(), serverChannel.eventLoop().parent());
+
+            channel.close().sync();
+            serverChannel.close().sync();
+        } finally {
+            transport.shutdown();
+        }
+    }
+
+    private static NettyTransport newTransport(boolean epoll) {
+        Properties properties = new Properties();
+        properties.setProperty(NetworkConstant.NETTY_EPOLL, String.valueOf(epoll));
+        return new NettyTransport(new PropertiesEntity(properties));
+    }
+}
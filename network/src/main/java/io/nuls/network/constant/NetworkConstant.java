@@ -33,6 +33,13 @@ public interface NetworkConstant {
 
     int MESSAGE_MAX_SIZE = NulsMessageHeader.MESSAGE_HEADER_SIZE + 2<<21;
 
+    /**
+     * A channel with more bytes waiting to be written than the high mark takes no more messages,
+     * until it is below the low mark again
+     */
+    int WRITE_BUFFER_LOW_WATER_MARK = 4 * 1024 * 1024;
+    int WRITE_BUFFER_HIGH_WATER_MARK = 16 * 1024 * 1024;
+
     /**
      * --------[network configs] -------
      */
@@ -46,6 +53,29 @@ public interface NetworkConstant {
     String NETWORK_NODE_MAX_OUT = "network.max.out";
     String NETWORK_SEED_IP = "network.seed.ip";
 
+    /**
+     * --------[netty transport, read from network.properties] -------
+     */
+    String NETTY_EPOLL = "netty.epoll";
+    String NETTY_BOSS_THREADS = "netty.boss.threads";
+    String NETTY_WORKER_THREADS = "netty.worker.threads";
+    String NETTY_POOLED_ALLOCATOR = "netty.allocator.pooled";
+    String NETTY_SO_BACKLOG = "netty.so.backlog";
+    String NETTY_SO_RCVBUF = "netty.so.rcvbuf";
+    String NETTY_SO_SNDBUF = "netty.so.sndbuf";
+    String NETTY_WRITE_BUFFER_LOW_WATER_MARK = "netty.write.buffer.low";
+    String NETTY_WRITE_BUFFER_HIGH_WATER_MARK = "netty.write.buffer.high";
+    String NETTY_COMPRESSION = "netty.compression";
+    String NETTY_COMPRESSION_THRESHOLD = "netty.compression.threshold";
+
+    /**
+     * The compression codecs, offered as a bit set in the handshake and stored in the arithmetic byte of
+     * a message header. A message is compressed only when the peer offered the codec and its data is
+     * longer than the threshold.
+     */
+    int COMPRESSION_NONE = 0;
+    int COMPRESSION_SNAPPY = 1;
+
     String NETWORK_NODE_IN_GROUP = "inNodes";
     String NETWORK_NODE_OUT_GROUP = "outNodes";
     String NETWORK_NODE_CONSENSUS_GROUP = "consensus_Group";
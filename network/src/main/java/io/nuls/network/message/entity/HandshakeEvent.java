@@ -24,6 +24,11 @@ public class HandshakeEvent extends BaseEvent {
 
     private String bestBlockHash;
 
+    /**
+     * the compression codecs the sender can decode, older nodes do not send it
+     */
+    private int compression;
+
     public HandshakeEvent() {
         super(NulsConstant.MODULE_ID_NETWORK, NetworkConstant.NETWORK_HANDSHAKE_EVENT);
     }
@@ -44,6 +49,7 @@ public class HandshakeEvent extends BaseEvent {
         s += VarInt.sizeOf(severPort);
         s += VarInt.sizeOf(bestBlockHeight);
         s += Utils.sizeOfString(bestBlockHash);
+        s += VarInt.sizeOf(compression);
         return s;
     }
 
@@ -54,6 +60,7 @@ public class HandshakeEvent extends BaseEvent {
         stream.writeVarInt(severPort);
         stream.writeVarInt(bestBlockHeight);
         stream.writeString(bestBlockHash);
+        stream.writeVarInt(compression);
     }
 
     @Override
@@ -63,6 +70,9 @@ public class HandshakeEvent extends BaseEvent {
         severPort = (int) byteBuffer.readVarInt();
         bestBlockHeight = byteBuffer.readVarInt();
         bestBlockHash = byteBuffer.readString();
+        if (!byteBuffer.isFinished()) {
+            compression = (int) byteBuffer.readVarInt();
+        }
     }
 
     @Override
@@ -99,6 +109,14 @@ public class HandshakeEvent extends BaseEvent {
         this.bestBlockHash = bestBlockHash;
     }
 
+    public int getCompression() {
+        return compression;
+    }
+
+    public void setCompression(int compression) {
+        this.compression = compression;
+    }
+
     public int getSeverPort() {
         return severPort;
     }
@@ -29,8 +29,8 @@ import io.nuls.network.entity.NodeGroup;
 import io.nuls.network.entity.param.NetworkParam;
 import io.nuls.network.message.entity.VersionEvent;
 import io.nuls.protocol.event.base.BaseEvent;
+import io.nuls.protocol.mesasge.NulsMessage;
 
-import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
@@ -97,7 +97,7 @@ public interface NetworkService {
 
     BroadcastResult sendToGroup(BaseEvent event, String groupName, String excludeNodeId, boolean asyn);
 
-    void receiveMessage(ByteBuffer buffer, Node node);
+    void receiveMessage(NulsMessage message, Node node);
 
     void reset();
 
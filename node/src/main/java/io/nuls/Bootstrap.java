@@ -27,6 +27,7 @@ import io.nuls.core.MicroKernelBootstrap;
 import io.nuls.core.cfg.NulsConfig;
 import io.nuls.core.constant.NulsConstant;
 import io.nuls.core.exception.NulsException;
+import io.nuls.core.module.manager.ModuleManager;
 import io.nuls.core.module.service.ModuleService;
 import io.nuls.core.utils.log.Log;
 import io.nuls.network.entity.Node;
@@ -70,6 +71,7 @@ public class Bootstrap {
             } catch (InterruptedException e) {
                 Log.error(e);
             }
+            Log.debug(ModuleManager.getInstance().getInfo());
             if (null != NulsContext.getInstance().getBestBlock()) {
 //                Log.info("node: " + NulsContext.getServiceBean(NetworkService.class).getAvailableNodes().size()  + "), height:{}, threadCount:{}, consensusStatus: {}, downloadStatus: {}", NulsContext.getInstance().getBestBlock().getHeader().getHeight(), Thread.activeCount(), NulsContext.getServiceBean(ConsensusService.class).getConsensusStatus(), NulsContext.getServiceBean(DownloadService.class).getStatus());
 //               Collection<Node> nodes =  NulsContext.getServiceBean(NetworkService.class).getAvailableNodes();
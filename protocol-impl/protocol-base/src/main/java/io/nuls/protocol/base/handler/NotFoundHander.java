@@ -41,4 +41,9 @@ public class NotFoundHander extends AbstractEventHandler<NotFoundEvent> {
     public void onEvent(NotFoundEvent event, String fromId) throws NulsException {
         DownloadCacheHandler.notFoundBlock(event.getEventBody());
     }
+
+    @Override
+    public boolean isNonBlocking() {
+        return true;
+    }
 }
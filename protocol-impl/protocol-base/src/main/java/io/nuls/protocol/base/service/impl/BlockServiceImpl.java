@@ -35,6 +35,7 @@ import io.nuls.core.utils.spring.lite.annotation.Autowired;
 import io.nuls.core.validate.ValidateResult;
 import io.nuls.db.entity.BlockHeaderPo;
 import io.nuls.db.transactional.annotation.DbSession;
+import io.nuls.db.transactional.annotation.PROPAGATION;
 import io.nuls.ledger.service.intf.LedgerService;
 import io.nuls.protocol.constant.TxStatusEnum;
 import io.nuls.protocol.context.NulsContext;
@@ -137,6 +138,36 @@ public class BlockServiceImpl implements BlockService {
             throw new NulsRuntimeException(ErrorCode.FAILED, "save blcok error , prehash is error , height: " + block.getHeader().getHeight() + " , hash: " + block.getHeader().getHash());
         }
 
+        this.saveBlockData(block);
+        BlockLog.debug("save end block height:" + block.getHeader().getHeight() + ", preHash:" + block.getHeader().getPreHash() + " , hash:" + block.getHeader().getHash());
+
+        List<Transaction> localTxList = null;
+        try {
+            localTxList = this.ledgerService.getWaitingTxList();
+        } catch (Exception e) {
+            Log.error(e);
+        }
+        if (null != localTxList && !localTxList.isEmpty()) {
+            for (Transaction tx : localTxList) {
+                try {
+                    ValidateResult result = ledgerService.conflictDetectTx(tx, block.getTxs());
+                    if (result.isFailed()) {
+                        ledgerService.deleteLocalTx(tx.getHash().getDigestHex());
+                    }
+                } catch (NulsException e) {
+                    Log.error(e);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Commits the txs of the block and saves them with its header.
+     * The rows are written with JDBC batches on the connection of the block's transaction.
+     */
+    @DbSession(transactional = PROPAGATION.BATCH)
+    public void saveBlockData(Block block) throws IOException {
         List<Transaction> commitedList = new ArrayList<>();
         for (int x = 0; x < block.getHeader().getTxCount(); x++) {
             Transaction tx = block.getTxs().get(x);
@@ -154,33 +185,11 @@ public class BlockServiceImpl implements BlockService {
         try {
             ledgerService.saveTxList(block.getTxs(), block.getHeader().getHeight());
             blockStorageService.save(block);
-
-            BlockLog.debug("save end block height:" + block.getHeader().getHeight() + ", preHash:" + block.getHeader().getPreHash() + " , hash:" + block.getHeader().getHash());
-
         } catch (Exception e) {
             Log.error(e);
             this.rollback(block.getTxs());
             throw new NulsRuntimeException(e);
         }
-        List<Transaction> localTxList = null;
-        try {
-            localTxList = this.ledgerService.getWaitingTxList();
-        } catch (Exception e) {
-            Log.error(e);
-        }
-        if (null != localTxList && !localTxList.isEmpty()) {
-            for (Transaction tx : localTxList) {
-                try {
-                    ValidateResult result = ledgerService.conflictDetectTx(tx, block.getTxs());
-                    if (result.isFailed()) {
-                        ledgerService.deleteLocalTx(tx.getHash().getDigestHex());
-                    }
-                } catch (NulsException e) {
-                    Log.error(e);
-                }
-            }
-        }
-        return true;
     }
 
     @Override
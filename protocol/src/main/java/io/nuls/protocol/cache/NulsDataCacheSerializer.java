@@ -0,0 +1,71 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2017-2018 nuls.io
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.nuls.protocol.cache;
+
+import io.nuls.cache.serializer.intf.NulsCacheSerializer;
+import io.nuls.core.constant.ErrorCode;
+import io.nuls.core.exception.NulsRuntimeException;
+import io.nuls.protocol.model.BaseNulsData;
+import io.nuls.protocol.model.Transaction;
+import io.nuls.protocol.utils.TransactionManager;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+
+import java.io.IOException;
+
+/**
+ * Stores the values of a cache tier out of the heap in their serialized form.
+ * A transaction is parsed by the class registered for its type, any other data by the given class.
+ * Only the fields written by {@link BaseNulsData#serialize()} come back.
+ */
+public class NulsDataCacheSerializer<T extends BaseNulsData> implements NulsCacheSerializer<T> {
+
+    private final Class<T> dataClass;
+
+    public NulsDataCacheSerializer(Class<T> dataClass) {
+        this.dataClass = dataClass;
+    }
+
+    @Override
+    public byte[] serialize(T value) {
+        try {
+            return value.serialize();
+        } catch (IOException e) {
+            throw new NulsRuntimeException(ErrorCode.IO_ERROR, e);
+        }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) {
+        try {
+            if (Transaction.class.isAssignableFrom(dataClass)) {
+                return (T) TransactionManager.getInstance(new NulsByteBuffer(bytes));
+            }
+            T data = dataClass.newInstance();
+            data.parse(bytes);
+            return data;
+        } catch (Exception e) {
+            throw new NulsRuntimeException(ErrorCode.DATA_PARSE_ERROR, e);
+        }
+    }
+}
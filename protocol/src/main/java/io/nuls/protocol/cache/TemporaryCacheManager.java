@@ -23,6 +23,7 @@
  */
 package io.nuls.protocol.cache;
 
+import io.nuls.cache.entity.CacheConfig;
 import io.nuls.cache.util.CacheMap;
 import io.nuls.protocol.model.SmallBlock;
 import io.nuls.protocol.model.Transaction;
@@ -36,8 +37,11 @@ import io.nuls.protocol.model.Transaction;
 public class TemporaryCacheManager {
     private static final TemporaryCacheManager INSTANCE = new TemporaryCacheManager();
 
-    private CacheMap<String, SmallBlock> smallBlockCacheMap = new CacheMap<>("temp-small-block-cache", 16, 1000, 0);
-    private CacheMap<String, Transaction> txCacheMap = new CacheMap<>("temp-tx-cache", 64, 3600, 0);
+    private static final int SMALL_BLOCK_CACHE_ENTRIES = 1000;
+    private static final int TX_CACHE_ENTRIES = 100000;
+
+    private CacheMap<String, SmallBlock> smallBlockCacheMap = new CacheMap<>("temp-small-block-cache", cacheConfig(SMALL_BLOCK_CACHE_ENTRIES, 1000));
+    private CacheMap<String, Transaction> txCacheMap = new CacheMap<>("temp-tx-cache", cacheConfig(TX_CACHE_ENTRIES, 3600));
 
     private TemporaryCacheManager() {
     }
@@ -46,6 +50,15 @@ public class TemporaryCacheManager {
         return INSTANCE;
     }
 
+    /**
+     * bounded by entries, the txs and blocks are not measured on each put
+     */
+    private static CacheConfig cacheConfig(int heapEntries, int timeToLiveSeconds) {
+        CacheConfig config = new CacheConfig(heapEntries);
+        config.setTimeToLiveSeconds(timeToLiveSeconds);
+        return config;
+    }
+
     public void cacheSmallBlock(SmallBlock newBlock) {
         smallBlockCacheMap.put(newBlock.getHeader().getHash().getDigestHex(), newBlock);
     }
@@ -61,12 +61,16 @@ public abstract class BaseEvent<T extends BaseNulsData> extends BaseNulsData imp
         stream.writeNulsData(this.eventBody);
     }
 
+    /**
+     * The bytes read may encode the event in a longer, non-canonical form, so the hash is calculated over
+     * the event serialized again, written straight into the digest.
+     */
     @Override
     protected void parse(NulsByteBuffer byteBuffer) throws NulsException {
         this.header = byteBuffer.readNulsData(new EventHeader());
         this.eventBody = parseEventBody(byteBuffer);
         try {
-            this.hash = NulsDigestData.calcDigestData(this.serialize());
+            this.hash = calcDigest();
         } catch (IOException e) {
             Log.error(e);
             throw new NulsException(ErrorCode.DATA_PARSE_ERROR);
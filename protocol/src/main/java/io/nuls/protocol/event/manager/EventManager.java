@@ -26,10 +26,10 @@ package io.nuls.protocol.event.manager;
 import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.exception.NulsRuntimeException;
+import io.nuls.core.utils.crypto.Utils;
 import io.nuls.core.utils.log.Log;
 import io.nuls.protocol.event.base.BaseEvent;
 import io.nuls.protocol.event.base.EventHeader;
-import io.nuls.protocol.utils.io.NulsByteBuffer;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -78,10 +78,13 @@ public class EventManager {
     }
 
     public static BaseEvent getInstance(byte[] bytes) throws NulsException {
-        EventHeader header = new EventHeader();
-
-        header.parse(new NulsByteBuffer(bytes));
-        Class<? extends BaseEvent> clazz = EVENT_MAP.get(header.getModuleId() + "_" + header.getEventType());
+        // only the type is read here, the header is parsed once with the event
+        if (null == bytes || bytes.length < EventHeader.EVENT_HEADER_LENGTH) {
+            throw new NulsException(ErrorCode.DATA_PARSE_ERROR);
+        }
+        short moduleId = Utils.readInt16LE(bytes, 0);
+        short eventType = Utils.readInt16LE(bytes, 2);
+        Class<? extends BaseEvent> clazz = EVENT_MAP.get(moduleId + "_" + eventType);
         if (null == clazz) {
             return null;
         }
@@ -25,6 +25,7 @@ package io.nuls.protocol.model;
 
 import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.constant.NulsConstant;
+import io.nuls.core.crypto.Sha256Hash;
 import io.nuls.core.crypto.UnsafeByteArrayOutputStream;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.exception.NulsRuntimeException;
@@ -37,6 +38,8 @@ import io.nuls.protocol.utils.io.NulsByteBuffer;
 import io.nuls.protocol.utils.io.NulsOutputStreamBuffer;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
@@ -95,6 +98,33 @@ public abstract class BaseNulsData implements NulsData,Serializable, Cloneable {
         }
     }
 
+    /**
+     * The double SHA-256 digest of the fields written by {@link #serializeToStream(NulsOutputStreamBuffer)},
+     * the bytes go straight into the digest instead of a byte array.
+     */
+    protected final NulsDigestData calcDigest() throws IOException {
+        MessageDigest digest = Sha256Hash.newDigest();
+        serializeToStream(newDigestBuffer(digest));
+        return new NulsDigestData(NulsDigestData.DIGEST_ALG_SHA256, digest.digest(digest.digest()));
+    }
+
+    /**
+     * a stream buffer that feeds everything written to it into the digest
+     */
+    protected static NulsOutputStreamBuffer newDigestBuffer(final MessageDigest digest) {
+        return new NulsOutputStreamBuffer(new OutputStream() {
+            @Override
+            public void write(int b) {
+                digest.update((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                digest.update(b, off, len);
+            }
+        });
+    }
+
     public final void parse(byte[] bytes) throws NulsException {
         if (bytes == null || bytes.length == 0 || ((bytes.length == 4) && Arrays.equals(NulsConstant.PLACE_HOLDER, bytes))) {
             return;
@@ -102,6 +132,13 @@ public abstract class BaseNulsData implements NulsData,Serializable, Cloneable {
         this.parse(new NulsByteBuffer(bytes));
     }
 
+    /**
+     * parse from the current position of the buffer, the bytes after it are not copied
+     */
+    public final void parseFrom(NulsByteBuffer byteBuffer) throws NulsException {
+        this.parse(byteBuffer);
+    }
+
     /**
      * serialize important field
      *
@@ -23,12 +23,13 @@
  */
 package io.nuls.protocol.model;
 
+import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.constant.NulsConstant;
+import io.nuls.core.crypto.Sha256Hash;
 import io.nuls.core.crypto.VarInt;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.utils.crypto.Utils;
 import io.nuls.core.utils.date.TimeService;
-import io.nuls.core.utils.log.Log;
 import io.nuls.core.validate.NulsDataValidator;
 import io.nuls.protocol.constant.TxStatusEnum;
 import io.nuls.protocol.utils.TransactionValidatorManager;
@@ -36,6 +37,7 @@ import io.nuls.protocol.utils.io.NulsByteBuffer;
 import io.nuls.protocol.utils.io.NulsOutputStreamBuffer;
 
 import java.io.IOException;
+import java.security.MessageDigest;
 import java.util.List;
 
 /**
@@ -73,6 +75,11 @@ public abstract class Transaction<T extends BaseNulsData> extends BaseNulsData {
 
     protected boolean isMine;
 
+    /**
+     * the signature has been checked, not serialized, reset when the hash or the signature changes
+     */
+    private boolean signVerified;
+
     public Transaction(int type) {
         this.dataType = NulsDataType.TRANSACTION;
         this.time = TimeService.currentTimeMillis();
@@ -103,7 +110,11 @@ public abstract class Transaction<T extends BaseNulsData> extends BaseNulsData {
     }
 
     @Override
-    protected void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
+    protected final void serializeToStream(NulsOutputStreamBuffer stream) throws IOException {
+        serializeToStream(stream, scriptSig);
+    }
+
+    private void serializeToStream(NulsOutputStreamBuffer stream, byte[] scriptSig) throws IOException {
         stream.writeVarInt(type);
         stream.writeVarInt(time);
         stream.writeInt48(fee.getValue());
@@ -111,6 +122,13 @@ public abstract class Transaction<T extends BaseNulsData> extends BaseNulsData {
         stream.writeNulsData(txData);
         stream.writeBytesWithLength(scriptSig);
         //stream.writeNulsData(sign);
+        this.serializeAfterScriptSig(stream);
+    }
+
+    /**
+     * write the fields after the scriptSig, they are part of the hash
+     */
+    protected void serializeAfterScriptSig(NulsOutputStreamBuffer stream) throws IOException {
     }
 
     @Override
@@ -121,13 +139,32 @@ public abstract class Transaction<T extends BaseNulsData> extends BaseNulsData {
         this.fee = Na.valueOf(feeValue);
         this.remark = byteBuffer.readByLengthByte();
         txData = this.parseTxData(byteBuffer);
+        scriptSig = byteBuffer.readByLengthByte();
+        //sign = byteBuffer.readSign();
+        this.parseAfterScriptSig(byteBuffer);
         try {
-            hash = NulsDigestData.calcDigestData(this.serialize());
+            hash = calcHash();
         } catch (IOException e) {
-            Log.error(e);
+            throw new NulsException(ErrorCode.DATA_PARSE_ERROR, e);
         }
-        scriptSig = byteBuffer.readByLengthByte();
-        //sign = byteBuffer.readSign();
+    }
+
+    /**
+     * read the fields serialized after the scriptSig, they are part of the hash
+     */
+    protected void parseAfterScriptSig(NulsByteBuffer byteBuffer) throws NulsException {
+    }
+
+    /**
+     * The hash is the digest of the tx serialized with an empty scriptSig.
+     * The bytes read may encode the same tx in a longer, non-canonical form, so they are not hashed directly:
+     * the tx is serialized again straight into the digest.
+     * The scriptSig is left out while writing, the tx is not changed, so other threads may read it meanwhile.
+     */
+    public NulsDigestData calcHash() throws IOException {
+        MessageDigest digest = Sha256Hash.newDigest();
+        serializeToStream(newDigestBuffer(digest), null);
+        return new NulsDigestData(NulsDigestData.DIGEST_ALG_SHA256, digest.digest(digest.digest()));
     }
 
     public long getTime() {
@@ -160,6 +197,7 @@ public abstract class Transaction<T extends BaseNulsData> extends BaseNulsData {
 
     public void setHash(NulsDigestData hash) {
         this.hash = hash;
+        this.signVerified = false;
     }
 
     //    public NulsSignData getSign() {
@@ -175,6 +213,7 @@ public abstract class Transaction<T extends BaseNulsData> extends BaseNulsData {
 
     public void setScriptSig(byte[] scriptSig) {
         this.scriptSig = scriptSig;
+        this.signVerified = false;
     }
 
     public T getTxData() {
@@ -243,4 +282,12 @@ public abstract class Transaction<T extends BaseNulsData> extends BaseNulsData {
     public void setMine(boolean mine) {
         isMine = mine;
     }
+
+    public boolean isSignVerified() {
+        return signVerified;
+    }
+
+    public void setSignVerified(boolean signVerified) {
+        this.signVerified = signVerified;
+    }
 }
@@ -82,7 +82,7 @@ public class TransactionManager {
     }
 
     public static Transaction getInstance(NulsByteBuffer byteBuffer) throws Exception {
-        int txType = (int) new NulsByteBuffer(byteBuffer.getPayloadByCursor()).readVarInt();
+        int txType = (int) new NulsByteBuffer(byteBuffer.getPayload(), byteBuffer.getCursor()).readVarInt();
         Class<? extends Transaction> txClass = getTxClass(txType);
         if (null == txClass) {
             throw new NulsRuntimeException(ErrorCode.FAILED, "transaction type not exist!");
@@ -163,6 +163,13 @@ public class NulsByteBuffer {
         this.cursor = 0;
     }
 
+    /**
+     * the position of the next byte to read, bytes of the payload before it have been consumed
+     */
+    public int getCursor() {
+        return cursor;
+    }
+
     public short readShort() throws NulsException {
         byte[] bytes = this.readBytes(2);
         if (null == bytes) {
@@ -223,10 +230,9 @@ public class NulsByteBuffer {
                 return null;
             }
         }
-        byte[] bytes = new byte[length];
-        System.arraycopy(payload, cursor, bytes, 0, length);
-        nulsData.parse(bytes);
-        cursor += nulsData.size();
+        int start = cursor;
+        nulsData.parseFrom(this);
+        cursor = start + nulsData.size();
         return nulsData;
     }
 
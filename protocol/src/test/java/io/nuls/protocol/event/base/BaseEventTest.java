@@ -0,0 +1,69 @@
+package io.nuls.protocol.event.base;
+
+import io.nuls.core.exception.NulsException;
+import io.nuls.protocol.model.NulsDigestData;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The hash of a parsed event is the digest of its canonical serialization.
+ */
+public class BaseEventTest {
+
+    @Test
+    public void testParsedHashEqualsSerializedHash() throws Exception {
+        TestEvent event = newEvent();
+        byte[] bytes = event.serialize();
+
+        TestEvent parsed = new TestEvent();
+        parsed.parse(bytes);
+
+        Assert.assertEquals(NulsDigestData.calcDigestData(bytes).getDigestHex(), parsed.getHash().getDigestHex());
+        Assert.assertEquals(event.getHash().getDigestHex(), parsed.getHash().getDigestHex());
+    }
+
+    @Test
+    public void testNonCanonicalEncodingHashesCanonicalBytes() throws Exception {
+        TestEvent event = newEvent();
+        byte[] bytes = event.serialize();
+        // after the 4 header bytes and the 2 bytes of the digest type comes the one byte length of the digest,
+        // write it again as a marker and two data bytes
+        int lengthIndex = EventHeader.EVENT_HEADER_LENGTH + 2;
+        byte[] longer = new byte[bytes.length + 2];
+        System.arraycopy(bytes, 0, longer, 0, lengthIndex);
+        longer[lengthIndex] = (byte) 253;
+        longer[lengthIndex + 1] = bytes[lengthIndex];
+        longer[lengthIndex + 2] = 0;
+        System.arraycopy(bytes, lengthIndex + 1, longer, lengthIndex + 3, bytes.length - lengthIndex - 1);
+
+        TestEvent parsed = new TestEvent();
+        parsed.parse(longer);
+
+        Assert.assertArrayEquals(bytes, parsed.serialize());
+        Assert.assertEquals(NulsDigestData.calcDigestData(bytes).getDigestHex(), parsed.getHash().getDigestHex());
+    }
+
+    private static TestEvent newEvent() {
+        TestEvent event = new TestEvent();
+        event.setEventBody(NulsDigestData.calcDigestData(new byte[]{1, 2, 3}));
+        return event;
+    }
+
+    private static class TestEvent extends BaseEvent<NulsDigestData> {
+
+        TestEvent() {
+            super((short) 1, (short) 2);
+        }
+
+        @Override
+        protected NulsDigestData parseEventBody(NulsByteBuffer byteBuffer) throws NulsException {
+            return byteBuffer.readHash();
+        }
+
+        @Override
+        public NoticeData getNotice() {
+            return null;
+        }
+    }
+}
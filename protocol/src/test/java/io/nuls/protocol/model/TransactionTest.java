@@ -0,0 +1,92 @@
+package io.nuls.protocol.model;
+
+import io.nuls.core.exception.NulsException;
+import io.nuls.protocol.utils.io.NulsByteBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * The hash of a parsed tx is the digest of its canonical serialization with an empty scriptSig.
+ */
+public class TransactionTest {
+
+    private static final int TX_TYPE = 100;
+
+    @Test
+    public void testParsedHashEqualsSerializedHash() throws Exception {
+        TestTransaction tx = newTransaction();
+        tx.setScriptSig(null);
+        byte[] bytes = tx.serialize();
+
+        TestTransaction parsed = new TestTransaction();
+        parsed.parse(bytes);
+
+        Assert.assertEquals(NulsDigestData.calcDigestData(bytes).getDigestHex(), parsed.getHash().getDigestHex());
+        Assert.assertArrayEquals(bytes, parsed.serialize());
+    }
+
+    @Test
+    public void testScriptSigIsNotHashed() throws Exception {
+        TestTransaction tx = newTransaction();
+        byte[] bytes = tx.serialize();
+
+        TestTransaction parsed = new TestTransaction();
+        parsed.parse(bytes);
+
+        Assert.assertArrayEquals(tx.getScriptSig(), parsed.getScriptSig());
+        Assert.assertEquals(unsignedHash(parsed).getDigestHex(), parsed.getHash().getDigestHex());
+    }
+
+    @Test
+    public void testNonCanonicalEncodingHashesCanonicalBytes() throws Exception {
+        TestTransaction tx = newTransaction();
+        byte[] bytes = tx.serialize();
+        // the type is a one byte VarInt, write it again as a marker and two data bytes
+        byte[] longer = new byte[bytes.length + 2];
+        longer[0] = (byte) 253;
+        longer[1] = (byte) TX_TYPE;
+        longer[2] = 0;
+        System.arraycopy(bytes, 1, longer, 3, bytes.length - 1);
+
+        TestTransaction parsed = new TestTransaction();
+        parsed.parse(longer);
+
+        Assert.assertEquals(TX_TYPE, parsed.getType());
+        Assert.assertArrayEquals(bytes, parsed.serialize());
+        Assert.assertEquals(unsignedHash(tx).getDigestHex(), parsed.getHash().getDigestHex());
+    }
+
+    private static NulsDigestData unsignedHash(Transaction tx) throws IOException {
+        byte[] scriptSig = tx.getScriptSig();
+        tx.setScriptSig(null);
+        try {
+            return NulsDigestData.calcDigestData(tx.serialize());
+        } finally {
+            tx.setScriptSig(scriptSig);
+        }
+    }
+
+    private static TestTransaction newTransaction() {
+        TestTransaction tx = new TestTransaction();
+        tx.setTime(1527000000000L);
+        tx.setFee(Na.valueOf(100000));
+        tx.setRemark(new byte[]{1, 2, 3});
+        tx.setTxData(NulsDigestData.calcDigestData(new byte[]{4, 5, 6}));
+        tx.setScriptSig(new byte[]{7, 8, 9, 10});
+        return tx;
+    }
+
+    private static class TestTransaction extends Transaction<NulsDigestData> {
+
+        TestTransaction() {
+            super(TX_TYPE);
+        }
+
+        @Override
+        public NulsDigestData parseTxData(NulsByteBuffer byteBuffer) throws NulsException {
+            return byteBuffer.readHash();
+        }
+    }
+}
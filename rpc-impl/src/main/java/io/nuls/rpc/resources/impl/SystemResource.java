@@ -28,10 +28,12 @@ import io.nuls.core.constant.ErrorCode;
 import io.nuls.core.exception.NulsException;
 import io.nuls.core.i18n.I18nUtils;
 import io.nuls.core.module.service.ModuleService;
+import io.nuls.core.thread.cache.TaskTable;
 import io.nuls.core.utils.log.Log;
 import io.nuls.core.utils.param.AssertUtil;
 import io.nuls.rpc.entity.HelpInfoDto;
 import io.nuls.rpc.entity.RpcResult;
+import io.nuls.rpc.entity.ThreadPoolDto;
 import io.nuls.rpc.entity.VersionDto;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -40,6 +42,10 @@ import io.swagger.annotations.ApiResponses;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * @author Niels
@@ -89,6 +95,21 @@ public class SystemResource {
         return RpcResult.getSuccess().setData(help);
     }
 
+    @GET
+    @Path("/threadpool")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "查询线程池运行状态")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "success",response = ThreadPoolDto.class)
+    })
+    public RpcResult getThreadPools() {
+        List<ThreadPoolDto> list = new ArrayList<>();
+        for (Map.Entry<String, ThreadPoolExecutor> entry : TaskTable.getInstance().getPoolMap().entrySet()) {
+            list.add(new ThreadPoolDto(entry.getKey(), entry.getValue()));
+        }
+        return RpcResult.getSuccess().setData(list);
+    }
+
     @POST
     @Path("/module/load")
     @Produces(MediaType.APPLICATION_JSON)
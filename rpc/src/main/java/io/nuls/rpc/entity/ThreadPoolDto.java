@@ -0,0 +1,126 @@
+package io.nuls.rpc.entity;
+
+import io.nuls.core.thread.manager.InstrumentedThreadPool;
+import io.nuls.core.thread.manager.ThreadPoolMetrics;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@ApiModel(value = "threadPoolJSON")
+public class ThreadPoolDto {
+
+    @ApiModelProperty(name = "poolName", value = "线程池名称")
+    private String poolName;
+
+    @ApiModelProperty(name = "poolSize", value = "线程数")
+    private int poolSize;
+
+    @ApiModelProperty(name = "activeCount", value = "正在执行任务的线程数")
+    private int activeCount;
+
+    @ApiModelProperty(name = "queueSize", value = "排队中的任务数")
+    private int queueSize;
+
+    @ApiModelProperty(name = "queueRemainingCapacity", value = "队列剩余容量")
+    private int queueRemainingCapacity;
+
+    @ApiModelProperty(name = "completedTaskCount", value = "已完成的任务数")
+    private long completedTaskCount;
+
+    @ApiModelProperty(name = "rejectedCount", value = "被拒绝的任务数")
+    private long rejectedCount;
+
+    @ApiModelProperty(name = "averageExecuteMillis", value = "任务平均执行时间(毫秒)")
+    private double averageExecuteMillis;
+
+    @ApiModelProperty(name = "maxExecuteMillis", value = "任务最长执行时间(毫秒)")
+    private double maxExecuteMillis;
+
+    public ThreadPoolDto(String poolName, ThreadPoolExecutor pool) {
+        this.poolName = poolName;
+        this.poolSize = pool.getPoolSize();
+        this.activeCount = pool.getActiveCount();
+        this.queueSize = pool.getQueue().size();
+        this.queueRemainingCapacity = pool.getQueue().remainingCapacity();
+        this.completedTaskCount = pool.getCompletedTaskCount();
+        if (pool instanceof InstrumentedThreadPool) {
+            ThreadPoolMetrics metrics = ((InstrumentedThreadPool) pool).getMetrics();
+            this.rejectedCount = metrics.getRejectedCount();
+            this.averageExecuteMillis = metrics.getAverageExecuteMillis();
+            this.maxExecuteMillis = metrics.getMaxExecuteMillis();
+        }
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void setPoolName(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(int activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getQueueRemainingCapacity() {
+        return queueRemainingCapacity;
+    }
+
+    public void setQueueRemainingCapacity(int queueRemainingCapacity) {
+        this.queueRemainingCapacity = queueRemainingCapacity;
+    }
+
+    public long getCompletedTaskCount() {
+        return completedTaskCount;
+    }
+
+    public void setCompletedTaskCount(long completedTaskCount) {
+        this.completedTaskCount = completedTaskCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public double getAverageExecuteMillis() {
+        return averageExecuteMillis;
+    }
+
+    public void setAverageExecuteMillis(double averageExecuteMillis) {
+        this.averageExecuteMillis = averageExecuteMillis;
+    }
+
+    public double getMaxExecuteMillis() {
+        return maxExecuteMillis;
+    }
+
+    public void setMaxExecuteMillis(double maxExecuteMillis) {
+        this.maxExecuteMillis = maxExecuteMillis;
+    }
+}